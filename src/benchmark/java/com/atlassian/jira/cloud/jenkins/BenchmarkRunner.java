@@ -0,0 +1,36 @@
+package com.atlassian.jira.cloud.jenkins;
+
+import org.junit.Test;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs all benchmarks of the plugin, see CONTRIBUTE.md. Only compiled and run with the "benchmark"
+ * Maven profile.
+ *
+ * <p>A single benchmark class can be picked with {@code -Djmh.include=<regex>}, the results are
+ * written to target/jmh-report.json.
+ */
+public class BenchmarkRunner {
+
+    private static final String DEFAULT_INCLUDE = "com\\.atlassian\\.jira\\.cloud\\.jenkins\\..*Benchmark";
+
+    @Test
+    public void runBenchmarks() throws RunnerException {
+        final Options options =
+                new OptionsBuilder()
+                        .include(System.getProperty("jmh.include", DEFAULT_INCLUDE))
+                        .warmupIterations(3)
+                        .measurementIterations(5)
+                        .forks(1)
+                        .shouldFailOnError(true)
+                        .resultFormat(ResultFormatType.JSON)
+                        .result("target/jmh-report.json")
+                        .build();
+
+        new Runner(options).run();
+    }
+}
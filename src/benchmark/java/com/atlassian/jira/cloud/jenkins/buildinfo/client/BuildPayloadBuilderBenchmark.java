@@ -0,0 +1,71 @@
+package com.atlassian.jira.cloud.jenkins.buildinfo.client;
+
+import com.atlassian.jira.cloud.jenkins.buildinfo.client.model.Builds;
+import com.atlassian.jira.cloud.jenkins.deploymentinfo.client.model.State;
+import hudson.model.Result;
+import hudson.model.Run;
+import hudson.tasks.junit.TestResultAction;
+import org.jenkinsci.plugins.workflow.support.steps.build.RunWrapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Level;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BuildPayloadBuilderBenchmark {
+
+    @Param({"1", "100"})
+    public int issueKeyCount;
+
+    private RunWrapper runWrapper;
+    private Set<String> issueKeys;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        issueKeys = new HashSet<>();
+        for (int i = 0; i < issueKeyCount; i++) {
+            issueKeys.add("TEST-" + (i + 1));
+        }
+        runWrapper = mockRunWrapper();
+    }
+
+    @Benchmark
+    public Builds getBuildPayload() {
+        return BuildPayloadBuilder.getBuildPayload(State.SUCCESSFUL, runWrapper, issueKeys);
+    }
+
+    private static RunWrapper mockRunWrapper() throws Exception {
+        final RunWrapper runWrapper = mock(RunWrapper.class);
+        when(runWrapper.getFullProjectName()).thenReturn("multibranch-1/TEST-123-branch-name");
+        when(runWrapper.getNumber()).thenReturn(1);
+        when(runWrapper.getDisplayName()).thenReturn("#1");
+        when(runWrapper.getAbsoluteUrl())
+                .thenReturn("http://localhost:8080/jenkins/multibranch-1/job/TEST-123-branch-name");
+        when(runWrapper.getCurrentResult()).thenReturn("SUCCESS");
+
+        final TestResultAction testResultAction = mock(TestResultAction.class);
+        when(testResultAction.getTotalCount()).thenReturn(10);
+        when(testResultAction.getFailCount()).thenReturn(3);
+        when(testResultAction.getSkipCount()).thenReturn(2);
+
+        final Run run = mock(Run.class);
+        when(run.getResult()).thenReturn(Result.SUCCESS);
+        when(run.getAction(TestResultAction.class)).thenReturn(testResultAction);
+        when(runWrapper.getRawBuild()).thenReturn(run);
+
+        return runWrapper;
+    }
+}
@@ -0,0 +1,49 @@
+package com.atlassian.jira.cloud.jenkins.common.client;
+
+import com.atlassian.jira.cloud.jenkins.buildinfo.client.BuildsApi;
+import com.atlassian.jira.cloud.jenkins.logging.PipelineLogger;
+import com.atlassian.jira.cloud.jenkins.provider.ObjectMapperProvider;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import okhttp3.OkHttpClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import static com.atlassian.jira.cloud.jenkins.common.client.JenkinsAppRequestTestData.builds;
+import static com.atlassian.jira.cloud.jenkins.common.client.JenkinsAppRequestTestData.jenkinsAppEventRequest;
+
+/** Serializes and signs the request the plugin sends for every build event. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JenkinsAppApiBenchmark {
+
+    private static final String SECRET = "this is a secret";
+
+    private BuildsApi buildsApi;
+    private JenkinsAppRequest request;
+    private Date expiryDate;
+
+    @Setup
+    public void setUp() {
+        buildsApi = new BuildsApi(new OkHttpClient(), new ObjectMapperProvider().objectMapper());
+        final Instant now = Instant.now();
+        request =
+                jenkinsAppEventRequest(now, JenkinsAppEventRequest.EventType.BUILD, builds(now));
+        expiryDate = Date.from(now.plus(1, ChronoUnit.DAYS));
+    }
+
+    @Benchmark
+    public String wrapInJwt() throws JsonProcessingException {
+        return buildsApi.wrapInJwt(request, SECRET, expiryDate, PipelineLogger.noopInstance());
+    }
+}
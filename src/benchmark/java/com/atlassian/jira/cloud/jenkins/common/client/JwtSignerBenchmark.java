@@ -0,0 +1,43 @@
+package com.atlassian.jira.cloud.jenkins.common.client;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTCreator;
+import com.auth0.jwt.algorithms.Algorithm;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.TimeUnit;
+
+/** Signs a small request with a new HMAC algorithm per request and with {@link JwtSigner}. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(4)
+public class JwtSignerBenchmark {
+
+    private static final String SECRET = "this is a secret";
+
+    private final JwtSigner signer = new JwtSigner();
+
+    @Benchmark
+    public String newAlgorithmPerRequest() {
+        return jwt().sign(Algorithm.HMAC256(SECRET));
+    }
+
+    @Benchmark
+    public String jwtSigner() {
+        return signer.sign(jwt(), SECRET);
+    }
+
+    private static JWTCreator.Builder jwt() {
+        return JWT.create()
+                .withIssuer("jenkins-plugin")
+                .withAudience("jenkins-forge-app")
+                .withClaim("request_body_json", "{\"requestType\":\"ping\"}");
+    }
+}
@@ -0,0 +1,76 @@
+package com.atlassian.jira.cloud.jenkins.deploymentinfo.service;
+
+import com.atlassian.jira.cloud.jenkins.logging.PipelineLogger;
+import com.atlassian.jira.cloud.jenkins.util.CommitMessages;
+import hudson.plugins.git.GitChangeSet;
+import hudson.plugins.git.GitChangeSetList;
+import org.jenkinsci.plugins.workflow.job.WorkflowRun;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ChangeLogIssueKeyExtractorBenchmark {
+
+    @Param({"1", "50", "500"})
+    public int commits;
+
+    private final ChangeLogIssueKeyExtractor extractor = new ChangeLogIssueKeyExtractor();
+    private WorkflowRun workflowRun;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(42);
+        final List<GitChangeSet> changeSets = new ArrayList<>(commits);
+        for (int i = 0; i < commits; i++) {
+            changeSets.add(
+                    new GitChangeSet(
+                            gitLogLines(i, CommitMessages.commitMessage(random, 400)), true));
+        }
+
+        workflowRun = mock(WorkflowRun.class);
+        doReturn(Collections.singletonList(new GitChangeSetList(workflowRun, null, changeSets)))
+                .when(workflowRun)
+                .getChangeSets();
+    }
+
+    @Benchmark
+    public Set<String> extractIssueKeys() {
+        return extractor.extractIssueKeys(workflowRun, PipelineLogger.noopInstance());
+    }
+
+    /** The "git whatchanged" output the git plugin parses a change set from. */
+    private static List<String> gitLogLines(final int index, final String message) {
+        final String id = String.format("%040x", index + 1);
+        final List<String> lines = new ArrayList<>();
+        lines.add("commit " + id);
+        lines.add("tree " + String.format("%040x", index + 100_000));
+        lines.add("parent " + String.format("%040x", index));
+        lines.add("author Jane Doe <jane@example.com> 1600000000 +0000");
+        lines.add("committer Jane Doe <jane@example.com> 1600000000 +0000");
+        lines.add("");
+        for (final String messageLine : message.split("\n")) {
+            lines.add("    " + messageLine);
+        }
+        lines.add("");
+        lines.add(":100644 100644 " + id.substring(0, 7) + " " + id.substring(7, 14) + " M\tsrc/main/java/Foo.java");
+        return lines;
+    }
+}
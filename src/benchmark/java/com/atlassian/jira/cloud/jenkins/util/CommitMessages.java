@@ -0,0 +1,69 @@
+package com.atlassian.jira.cloud.jenkins.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates commit messages and branch names that look like the ones of a real repository: a
+ * summary line that usually starts with an issue key, a wrapped body with code and paths in it, and
+ * the occasional upper case word or version number that is not an issue key.
+ */
+public final class CommitMessages {
+
+    private static final String[] PROJECT_KEYS = {"JEN", "TEST", "PLAT", "OPS2", "MY_PROJ"};
+
+    private static final String[] WORDS = {
+        "fix", "the", "listener", "when", "pipeline", "is", "aborted", "add", "support", "for",
+        "multibranch", "jobs", "update", "README", "JSON", "payload", "retry", "HTTP", "429",
+        "responses", "NPE", "in", "ChangeLogSet", "v1.2.3", "UTF-8", "see", "https://example.com/a-b",
+        "src/main/java/Foo.java", "(cleanup)", "[skip-ci]", "refactor", "deployment", "environment"
+    };
+
+    private CommitMessages() {
+        // empty
+    }
+
+    /** @return a commit message of roughly the given length in characters */
+    public static String commitMessage(final Random random, final int length) {
+        final StringBuilder message = new StringBuilder(length + 64);
+        message.append(issueKey(random)).append(' ');
+        appendWords(random, message, 8);
+        message.append("\n\n");
+        while (message.length() < length) {
+            if (random.nextInt(10) == 0) {
+                message.append(issueKey(random)).append(' ');
+            }
+            appendWords(random, message, 12);
+            message.append('\n');
+        }
+        return message.toString();
+    }
+
+    public static List<String> commitMessages(final Random random, final int count, final int length) {
+        final List<String> messages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            messages.add(commitMessage(random, length));
+        }
+        return messages;
+    }
+
+    public static String branchName(final Random random) {
+        return String.format(
+                "feature/%s-%s-%s", issueKey(random), word(random), word(random));
+    }
+
+    private static String issueKey(final Random random) {
+        return PROJECT_KEYS[random.nextInt(PROJECT_KEYS.length)] + "-" + (1 + random.nextInt(5000));
+    }
+
+    private static String word(final Random random) {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+    private static void appendWords(final Random random, final StringBuilder message, final int count) {
+        for (int i = 0; i < count; i++) {
+            message.append(word(random)).append(i + 1 < count ? " " : ".");
+        }
+    }
+}
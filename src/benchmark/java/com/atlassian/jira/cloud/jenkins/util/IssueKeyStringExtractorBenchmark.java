@@ -0,0 +1,51 @@
+package com.atlassian.jira.cloud.jenkins.util;
+
+import com.atlassian.jira.cloud.jenkins.common.model.IssueKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static com.atlassian.jira.cloud.jenkins.common.service.IssueKeyExtractor.ISSUE_KEY_MAX_LIMIT;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class IssueKeyStringExtractorBenchmark {
+
+    /** Branch name, a one line commit, a typical commit and a long squash commit. */
+    @Param({"branch", "80", "1000", "8000"})
+    public String input;
+
+    private String text;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(42);
+        text =
+                "branch".equals(input)
+                        ? CommitMessages.branchName(random)
+                        : CommitMessages.commitMessage(random, Integer.parseInt(input));
+    }
+
+    @Benchmark
+    public Set<IssueKey> extractIssueKeys() {
+        return IssueKeyStringExtractor.extractIssueKeys(text);
+    }
+
+    @Benchmark
+    public Set<String> collectIssueKeys() {
+        final Set<String> issueKeys = new HashSet<>();
+        IssueKeyStringExtractor.collectIssueKeys(text, issueKeys, ISSUE_KEY_MAX_LIMIT);
+        return issueKeys;
+    }
+}
@@ -1,23 +1,25 @@
 package com.atlassian.jira.cloud.jenkins;
 
-import com.google.common.collect.ImmutableMap;
-import io.github.resilience4j.ratelimiter.RateLimiterConfig;
-import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 
 import java.time.Duration;
 
 public interface Config {
 
     String ATLASSIAN_API_URL = "https://api.atlassian.com";
-    String ATLASSIAN_RATE_LIMITER_CONFIG = "atl";
 
-    RateLimiterConfig DEFAULT_RATE_LIMITER_CONFIG =
-            RateLimiterConfig.custom()
-                    .limitRefreshPeriod(Duration.ofMinutes(5))
-                    .limitForPeriod(5000)
+    // opens when half of the last 20 requests to a URL failed, and lets a few requests through a
+    // minute later to find out whether it has recovered
+    CircuitBreakerConfig DEFAULT_CIRCUIT_BREAKER_CONFIG =
+            CircuitBreakerConfig.custom()
+                    .slidingWindowSize(20)
+                    .minimumNumberOfCalls(10)
+                    .failureRateThreshold(50)
+                    .waitDurationInOpenState(Duration.ofMinutes(1))
+                    .permittedNumberOfCallsInHalfOpenState(3)
                     .build();
 
-    RateLimiterRegistry RATE_LIMITER_REGISTRY =
-            RateLimiterRegistry.of(
-                    ImmutableMap.of(ATLASSIAN_RATE_LIMITER_CONFIG, DEFAULT_RATE_LIMITER_CONFIG));
+    CircuitBreakerRegistry CIRCUIT_BREAKER_REGISTRY =
+            CircuitBreakerRegistry.of(DEFAULT_CIRCUIT_BREAKER_CONFIG);
 }
@@ -0,0 +1,277 @@
+package com.atlassian.jira.cloud.jenkins.buildinfo.client;
+
+import com.atlassian.jira.cloud.jenkins.buildinfo.client.model.BuildApiResponse;
+import com.atlassian.jira.cloud.jenkins.buildinfo.client.model.BuildKeyResponse;
+import com.atlassian.jira.cloud.jenkins.buildinfo.client.model.Builds;
+import com.atlassian.jira.cloud.jenkins.buildinfo.client.model.JiraBuildInfo;
+import com.atlassian.jira.cloud.jenkins.buildinfo.client.model.RejectedBuildResponse;
+import com.atlassian.jira.cloud.jenkins.common.client.ApiUpdateFailedException;
+import com.atlassian.jira.cloud.jenkins.common.outbox.JiraEventOutbox;
+import com.atlassian.jira.cloud.jenkins.logging.PipelineLogger;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.annotations.VisibleForTesting;
+import okhttp3.OkHttpClient;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+
+/**
+ * Sends the builds of a pipeline that are submitted to the same webhook while a request for that
+ * pipeline is already in flight in a single request to the Jenkins app, instead of one request (and
+ * one JWT signature) per build.
+ *
+ * <p>A build is sent right away if no request of its pipeline is in flight. Otherwise it joins the
+ * batch that waits for that request, up to the maximum batch size. The first caller of a batch
+ * sends it once the request before it is done and hands every caller the part of the response that
+ * is about its own builds. The other callers block until then. Batches never mix pipelines, as the
+ * Jenkins app takes the pipeline and its status from the request itself.
+ *
+ * <p>This only batches callers that send concurrently, i.e. builds sent by pipeline steps. The
+ * automatic build events are sent one site at a time by the {@link
+ * com.atlassian.jira.cloud.jenkins.common.dispatch.JiraEventDispatcher}, which hands the build
+ * events queued for a site to {@link
+ * com.atlassian.jira.cloud.jenkins.buildinfo.service.JiraBuildInfoSender#sendBuildInfos} together
+ * instead.
+ */
+public class BatchingBuildsApi extends BuildsApi {
+
+    // the builds API of Jira accepts up to 100 builds per request
+    private static final int DEFAULT_MAX_BATCH_SIZE = 50;
+
+    private final int maxBatchSize;
+
+    // the most recent batch of each pipeline that is waiting or in flight
+    private final Map<BatchKey, Batch> lastBatches = new HashMap<>();
+
+    public BatchingBuildsApi(final OkHttpClient httpClient, final ObjectMapper objectMapper) {
+        this(httpClient, objectMapper, null);
+    }
+
+    public BatchingBuildsApi(
+            final OkHttpClient httpClient,
+            final ObjectMapper objectMapper,
+            @Nullable final JiraEventOutbox outbox) {
+        this(httpClient, objectMapper, outbox, DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    @VisibleForTesting
+    BatchingBuildsApi(
+            final OkHttpClient httpClient, final ObjectMapper objectMapper, final int maxBatchSize) {
+        this(httpClient, objectMapper, null, maxBatchSize);
+    }
+
+    private BatchingBuildsApi(
+            final OkHttpClient httpClient,
+            final ObjectMapper objectMapper,
+            @Nullable final JiraEventOutbox outbox,
+            final int maxBatchSize) {
+        super(httpClient, objectMapper, outbox);
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    @Override
+    public BuildApiResponse sendBuildAsJwt(
+            final String webhookUrl,
+            final Builds buildsRequest,
+            final String secret,
+            final PipelineLogger pipelineLogger)
+            throws ApiUpdateFailedException {
+        final BatchKey key =
+                new BatchKey(webhookUrl, secret, buildsRequest.getBuild().getPipelineId());
+
+        final Batch batch;
+        final boolean isSender;
+        synchronized (lastBatches) {
+            final Batch lastBatch = lastBatches.get(key);
+            isSender =
+                    lastBatch == null
+                            || !lastBatch.open
+                            || lastBatch.builds.size() >= maxBatchSize;
+            if (isSender) {
+                batch = new Batch(lastBatch);
+                lastBatches.put(key, batch);
+            } else {
+                batch = lastBatch;
+            }
+            batch.builds.addAll(buildsRequest.getBuilds());
+        }
+
+        if (isSender) {
+            send(key, batch, pipelineLogger);
+        }
+        return responseFor(buildsRequest, awaitResponse(batch));
+    }
+
+    @VisibleForTesting
+    int getWaitingBuildCount() {
+        synchronized (lastBatches) {
+            return lastBatches.values().stream()
+                    .filter(batch -> batch.open && batch.previous != null)
+                    .mapToInt(batch -> batch.builds.size())
+                    .sum();
+        }
+    }
+
+    private void send(final BatchKey key, final Batch batch, final PipelineLogger pipelineLogger) {
+        if (batch.previous != null) {
+            // keeps the requests of a pipeline in order, whether the previous one failed or not
+            batch.previous.response.handle((response, error) -> null).join();
+        }
+
+        final List<JiraBuildInfo> builds;
+        synchronized (lastBatches) {
+            batch.open = false;
+            batch.previous = null;
+            builds = latestUpdatePerBuild(batch.builds);
+        }
+
+        if (builds.size() > 1) {
+            pipelineLogger.info(
+                    String.format(
+                            "Sending %d builds of pipeline %s in one request",
+                            builds.size(), key.pipelineId));
+        }
+        try {
+            batch.response.complete(
+                    super.sendBuildAsJwt(
+                            key.webhookUrl, new Builds(builds), key.secret, pipelineLogger));
+        } catch (RuntimeException e) {
+            batch.response.completeExceptionally(e);
+        } finally {
+            synchronized (lastBatches) {
+                lastBatches.remove(key, batch);
+            }
+        }
+    }
+
+    private static BuildApiResponse awaitResponse(final Batch batch) {
+        try {
+            return batch.response.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof ApiUpdateFailedException) {
+                throw (ApiUpdateFailedException) e.getCause();
+            }
+            throw new ApiUpdateFailedException(
+                    String.format(
+                            "Unexpected error when submitting update to Jira: %s",
+                            e.getCause().getMessage()),
+                    e.getCause());
+        }
+    }
+
+    /**
+     * A build can be updated more than once within a batch (e.g. when it starts and when it
+     * finishes), only the most recent update is sent.
+     */
+    private static List<JiraBuildInfo> latestUpdatePerBuild(final List<JiraBuildInfo> builds) {
+        final Map<Integer, JiraBuildInfo> latestUpdates = new LinkedHashMap<>();
+        for (final JiraBuildInfo build : builds) {
+            final JiraBuildInfo previous = latestUpdates.remove(build.getBuildNumber());
+            latestUpdates.put(
+                    build.getBuildNumber(),
+                    previous != null && isNewer(previous, build) ? previous : build);
+        }
+        return new ArrayList<>(latestUpdates.values());
+    }
+
+    private static boolean isNewer(final JiraBuildInfo build, final JiraBuildInfo other) {
+        return build.getUpdateSequenceNumber() != null
+                && other.getUpdateSequenceNumber() != null
+                && build.getUpdateSequenceNumber() > other.getUpdateSequenceNumber();
+    }
+
+    /** @return the part of the batch response that is about the builds of the given request */
+    public static BuildApiResponse responseFor(
+            final Builds buildsRequest, final BuildApiResponse batchResponse) {
+        final Set<String> issueKeys = new HashSet<>();
+        buildsRequest.getBuilds().forEach(build -> issueKeys.addAll(build.getIssueKeys()));
+
+        final List<BuildKeyResponse> acceptedBuilds =
+                nullToEmpty(batchResponse.getAcceptedBuilds())
+                        .stream()
+                        .filter(key -> isAbout(key, buildsRequest))
+                        .collect(Collectors.toList());
+        final List<RejectedBuildResponse> rejectedBuilds =
+                nullToEmpty(batchResponse.getRejectedBuilds())
+                        .stream()
+                        .filter(rejected -> isAbout(rejected.getKey(), buildsRequest))
+                        .collect(Collectors.toList());
+        final List<String> unknownIssueKeys =
+                nullToEmpty(batchResponse.getUnknownIssueKeys())
+                        .stream()
+                        .filter(issueKeys::contains)
+                        .collect(Collectors.toList());
+
+        return new BuildApiResponse(acceptedBuilds, rejectedBuilds, unknownIssueKeys);
+    }
+
+    private static boolean isAbout(final BuildKeyResponse key, final Builds buildsRequest) {
+        return buildsRequest
+                .getBuilds()
+                .stream()
+                .anyMatch(
+                        build ->
+                                Objects.equals(key.getPipelineId(), build.getPipelineId())
+                                        && Objects.equals(
+                                                key.getBuildNumber(), build.getBuildNumber()));
+    }
+
+    private static <T> List<T> nullToEmpty(@Nullable final List<T> list) {
+        return list != null ? list : Collections.emptyList();
+    }
+
+    private static final class Batch {
+        // guarded by lastBatches
+        private final List<JiraBuildInfo> builds = new ArrayList<>();
+        private boolean open = true;
+        @Nullable private Batch previous;
+
+        private final CompletableFuture<BuildApiResponse> response = new CompletableFuture<>();
+
+        Batch(@Nullable final Batch previous) {
+            this.previous = previous;
+        }
+    }
+
+    private static final class BatchKey {
+        private final String webhookUrl;
+        private final String secret;
+        private final String pipelineId;
+
+        BatchKey(final String webhookUrl, final String secret, final String pipelineId) {
+            this.webhookUrl = webhookUrl;
+            this.secret = secret;
+            this.pipelineId = pipelineId;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final BatchKey batchKey = (BatchKey) o;
+            return Objects.equals(webhookUrl, batchKey.webhookUrl)
+                    && Objects.equals(secret, batchKey.secret)
+                    && Objects.equals(pipelineId, batchKey.pipelineId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(webhookUrl, secret, pipelineId);
+        }
+    }
+}
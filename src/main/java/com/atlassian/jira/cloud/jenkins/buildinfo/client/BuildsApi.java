@@ -6,17 +6,29 @@ import com.atlassian.jira.cloud.jenkins.common.client.ApiUpdateFailedException;
 import com.atlassian.jira.cloud.jenkins.common.client.JenkinsAppApi;
 import com.atlassian.jira.cloud.jenkins.common.client.JenkinsAppEventRequest;
 import com.atlassian.jira.cloud.jenkins.common.client.JenkinsAppRequest;
+import com.atlassian.jira.cloud.jenkins.common.outbox.JiraEventOutbox;
+import com.atlassian.jira.cloud.jenkins.common.outbox.UpdateKeys;
 import com.atlassian.jira.cloud.jenkins.logging.PipelineLogger;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import okhttp3.OkHttpClient;
 import org.jetbrains.annotations.NotNull;
 
+import javax.annotation.Nullable;
+import java.util.Map;
+
 public class BuildsApi extends JenkinsAppApi<BuildApiResponse> {
 
     public BuildsApi(final OkHttpClient httpClient, final ObjectMapper objectMapper) {
         super(httpClient, objectMapper);
     }
 
+    public BuildsApi(
+            final OkHttpClient httpClient,
+            final ObjectMapper objectMapper,
+            @Nullable final JiraEventOutbox outbox) {
+        super(httpClient, objectMapper, outbox);
+    }
+
     public BuildApiResponse sendBuildAsJwt(
             final String webhookUrl,
             final Builds buildsRequest,
@@ -29,6 +41,21 @@ public class BuildsApi extends JenkinsAppApi<BuildApiResponse> {
                 webhookUrl, secret, request, BuildApiResponse.class, pipelineLogger);
     }
 
+    @Override
+    protected Map<String, Long> getUpdateKeys(
+            final String webhookUrl, final JenkinsAppEventRequest eventRequest) {
+        final UpdateKeys updateKeys = new UpdateKeys(webhookUrl);
+        ((Builds) eventRequest.getPayload())
+                .getBuilds()
+                .forEach(
+                        build ->
+                                updateKeys.addBuild(
+                                        build.getPipelineId(),
+                                        build.getBuildNumber(),
+                                        build.getUpdateSequenceNumber()));
+        return updateKeys.toMap();
+    }
+
     @NotNull
     private JenkinsAppRequest createRequest(final Builds buildsRequest) {
         return new JenkinsAppEventRequest(
@@ -5,29 +5,40 @@ import com.atlassian.jira.cloud.jenkins.common.client.model.Properties;
 import com.atlassian.jira.cloud.jenkins.common.client.model.ProviderMetadata;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableList;
 
 import java.util.Collections;
 import java.util.List;
 
 /** This represents the payload for the API request to submit list of builds */
 public class Builds implements JiraRequest {
-    @JsonIgnore private JiraBuildInfo build;
+    private List<JiraBuildInfo> builds;
     private Properties properties;
     private ProviderMetadata providerMetadata;
 
     public Builds(final JiraBuildInfo jiraBuildInfo) {
-        this.build = jiraBuildInfo;
+        this(Collections.singletonList(jiraBuildInfo));
+    }
+
+    /** @param jiraBuildInfos - at least one build, the most recent one last */
+    public Builds(final List<JiraBuildInfo> jiraBuildInfos) {
+        if (jiraBuildInfos.isEmpty()) {
+            throw new IllegalArgumentException("Builds payload without any build");
+        }
+        this.builds = ImmutableList.copyOf(jiraBuildInfos);
         this.properties = new Properties();
         this.providerMetadata = new ProviderMetadata();
     }
 
+    /** @return the most recent build of the payload */
+    @JsonIgnore
     public JiraBuildInfo getBuild() {
-        return build;
+        return builds.get(builds.size() - 1);
     }
 
     @JsonProperty("builds")
     public List<JiraBuildInfo> getBuilds() {
-        return Collections.singletonList(build);
+        return builds;
     }
 
     public Properties getProperties() {
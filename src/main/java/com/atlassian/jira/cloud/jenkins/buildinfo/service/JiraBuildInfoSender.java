@@ -9,4 +9,17 @@ public interface JiraBuildInfoSender {
 
     List<JiraSendInfoResponse> sendBuildInfo(
             JiraBuildInfoRequest request, PipelineLogger pipelineLogger);
+
+    /**
+     * Sends several build updates to a single Jira site, in one request per pipeline.
+     *
+     * @param jiraSite - JiraBuildInfoRequest::site is ignored and jiraSite is used instead
+     * @param requests - the build updates, the most recent ones last
+     * @param pipelineLoggers - the logger of each request
+     * @return the response to each request, in the order of the requests
+     */
+    List<JiraSendInfoResponse> sendBuildInfos(
+            String jiraSite,
+            List<JiraBuildInfoRequest> requests,
+            List<PipelineLogger> pipelineLoggers);
 }
@@ -1,10 +1,13 @@
 package com.atlassian.jira.cloud.jenkins.buildinfo.service;
 
+import com.atlassian.jira.cloud.jenkins.buildinfo.client.BatchingBuildsApi;
 import com.atlassian.jira.cloud.jenkins.buildinfo.client.BuildsApi;
 import com.atlassian.jira.cloud.jenkins.buildinfo.client.model.BuildApiResponse;
 import com.atlassian.jira.cloud.jenkins.buildinfo.client.model.Builds;
+import com.atlassian.jira.cloud.jenkins.buildinfo.client.model.JiraBuildInfo;
 import com.atlassian.jira.cloud.jenkins.common.client.ApiUpdateFailedException;
 import com.atlassian.jira.cloud.jenkins.common.config.JiraSiteConfigRetriever;
+import com.atlassian.jira.cloud.jenkins.common.dispatch.JiraSiteFanOut;
 import com.atlassian.jira.cloud.jenkins.common.response.JiraCommonResponse;
 import com.atlassian.jira.cloud.jenkins.common.response.JiraSendInfoResponse;
 import com.atlassian.jira.cloud.jenkins.config.JiraCloudSiteConfig;
@@ -16,8 +19,13 @@ import com.atlassian.jira.cloud.jenkins.util.SecretRetriever;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -35,6 +43,7 @@ public abstract class JiraBuildInfoSenderImpl implements JiraBuildInfoSender {
     private final CloudIdResolver cloudIdResolver;
     private final BuildsApi buildsApi;
     protected final RunWrapperProvider runWrapperProvider;
+    private final JiraSiteFanOut siteFanOut = JiraSiteFanOut.get();
 
     public JiraBuildInfoSenderImpl(
             final JiraSiteConfigRetriever siteConfigRetriever,
@@ -55,17 +64,21 @@ public abstract class JiraBuildInfoSenderImpl implements JiraBuildInfoSender {
         final List<JiraSendInfoResponse> responses = new LinkedList<>();
         if (request.getSite() == null) {
             List<String> jiraSites = siteConfigRetriever.getAllJiraSites();
-            for (final String jiraSite : jiraSites) {
-                final Optional<JiraCloudSiteConfig> maybeSiteConfig = getSiteConfigFor(jiraSite);
-
-                responses.add(
-                        maybeSiteConfig
-                                .map(
-                                        siteConfig ->
-                                                sendBuildInfoToJiraSite(
-                                                        siteConfig, request, pipelineLogger))
-                                .orElse(JiraCommonResponse.failureSiteConfigNotFound(jiraSite)));
-            }
+            responses.addAll(
+                    siteFanOut.sendToAll(
+                            jiraSites,
+                            jiraSite ->
+                                    getSiteConfigFor(jiraSite)
+                                            .map(
+                                                    siteConfig ->
+                                                            sendBuildInfoToJiraSite(
+                                                                    siteConfig,
+                                                                    request,
+                                                                    pipelineLogger))
+                                            .orElse(
+                                                    JiraCommonResponse
+                                                            .failureSiteConfigNotFound(
+                                                                    jiraSite))));
         } else {
             final Optional<JiraCloudSiteConfig> maybeSiteConfig =
                     getSiteConfigFor(request.getSite());
@@ -128,6 +141,78 @@ public abstract class JiraBuildInfoSenderImpl implements JiraBuildInfoSender {
         }
     }
 
+    @Override
+    public List<JiraSendInfoResponse> sendBuildInfos(
+            final String jiraSite,
+            final List<JiraBuildInfoRequest> requests,
+            final List<PipelineLogger> pipelineLoggers) {
+        final Optional<JiraCloudSiteConfig> maybeSiteConfig = getSiteConfigFor(jiraSite);
+        if (!maybeSiteConfig.isPresent()) {
+            return Collections.nCopies(
+                    requests.size(), JiraCommonResponse.failureSiteConfigNotFound(jiraSite));
+        }
+        final JiraCloudSiteConfig siteConfig = maybeSiteConfig.get();
+
+        final Optional<String> maybeSecret = getSecretFor(siteConfig.getCredentialsId());
+        if (!maybeSecret.isPresent()) {
+            return Collections.nCopies(
+                    requests.size(), JiraCommonResponse.failureSecretNotFound(jiraSite));
+        }
+
+        final JiraSendInfoResponse[] responses = new JiraSendInfoResponse[requests.size()];
+        final Builds[] buildInfos = new Builds[requests.size()];
+        // the Jenkins app takes the pipeline from the request, so each pipeline needs its own
+        final Map<String, List<Integer>> requestsPerPipeline = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            final Set<String> issueKeys = getIssueKeys(requests.get(i), pipelineLoggers.get(i));
+            if (issueKeys.isEmpty()) {
+                responses[i] = JiraBuildInfoResponse.skippedIssueKeysNotFound(jiraSite);
+            } else {
+                buildInfos[i] = createJiraBuildInfo(requests.get(i), issueKeys);
+                requestsPerPipeline
+                        .computeIfAbsent(
+                                buildInfos[i].getBuild().getPipelineId(),
+                                pipelineId -> new ArrayList<>())
+                        .add(i);
+            }
+        }
+        if (requestsPerPipeline.isEmpty()) {
+            return Arrays.asList(responses);
+        }
+
+        final Optional<String> maybeCloudId = getCloudIdFor(jiraSite);
+        if (!maybeCloudId.isPresent()) {
+            for (final List<Integer> indexes : requestsPerPipeline.values()) {
+                indexes.forEach(
+                        i -> responses[i] = JiraCommonResponse.failureSiteNotFound(jiraSite));
+            }
+            return Arrays.asList(responses);
+        }
+
+        for (final List<Integer> indexes : requestsPerPipeline.values()) {
+            final List<JiraBuildInfo> builds = new ArrayList<>();
+            indexes.forEach(i -> builds.addAll(buildInfos[i].getBuilds()));
+            try {
+                final BuildApiResponse response =
+                        buildsApi.sendBuildAsJwt(
+                                siteConfig.getWebhookUrl(),
+                                new Builds(builds),
+                                maybeSecret.get(),
+                                pipelineLoggers.get(indexes.get(0)));
+                indexes.forEach(
+                        i ->
+                                responses[i] =
+                                        handleBuildApiResponse(
+                                                jiraSite,
+                                                BatchingBuildsApi.responseFor(
+                                                        buildInfos[i], response)));
+            } catch (ApiUpdateFailedException e) {
+                indexes.forEach(i -> responses[i] = handleBuildApiError(jiraSite, e.getMessage()));
+            }
+        }
+        return Arrays.asList(responses);
+    }
+
     protected abstract Set<String> getIssueKeys(
             final JiraBuildInfoRequest request, final PipelineLogger pipelineLogger);
 
@@ -1,11 +1,31 @@
 package com.atlassian.jira.cloud.jenkins.common.client;
 
 public class BadRequestException extends ApiUpdateFailedException {
+
+    private static final int UNKNOWN_STATUS = -1;
+
+    private final int statusCode;
+
     public BadRequestException(final String errorMessage) {
+        this(errorMessage, UNKNOWN_STATUS);
+    }
+
+    public BadRequestException(final String errorMessage, final int statusCode) {
         super(errorMessage);
+        this.statusCode = statusCode;
     }
 
     public BadRequestException(final String errorMessage, final Throwable cause) {
         super(errorMessage, cause);
+        this.statusCode = UNKNOWN_STATUS;
+    }
+
+    /**
+     * Whether Jira rejected the request itself (400 or 422), so sending it again can't succeed.
+     * Other client errors, e.g. 429 while still throttled or a 404 while Jira hasn't caught up,
+     * may go away.
+     */
+    public boolean isRejected() {
+        return statusCode == UNKNOWN_STATUS || statusCode == 400 || statusCode == 422;
     }
 }
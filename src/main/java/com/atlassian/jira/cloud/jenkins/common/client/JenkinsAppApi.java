@@ -1,13 +1,14 @@
 package com.atlassian.jira.cloud.jenkins.common.client;
 
+import com.atlassian.jira.cloud.jenkins.common.outbox.JiraEventOutbox;
+import com.atlassian.jira.cloud.jenkins.common.outbox.UpdateKeys;
 import com.atlassian.jira.cloud.jenkins.listeners.InitializePluginListener;
 import com.atlassian.jira.cloud.jenkins.logging.PipelineLogger;
+import com.atlassian.jira.cloud.jenkins.provider.RateLimitExceededException;
 import com.auth0.jwt.JWT;
-import com.auth0.jwt.algorithms.Algorithm;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.annotations.VisibleForTesting;
-import io.github.resilience4j.ratelimiter.RequestNotPermitted;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
@@ -15,28 +16,44 @@ import okhttp3.RequestBody;
 import okhttp3.Response;
 import okhttp3.ResponseBody;
 
+import javax.annotation.Nullable;
 import javax.inject.Inject;
 import java.io.IOException;
 import java.io.NotSerializableException;
 import java.time.Instant;
+import java.util.Collections;
 import java.util.Date;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.logging.Logger;
 
 public abstract class JenkinsAppApi<ResponseEntity> {
 
-    private static final MediaType JSON_CONTENT_TYPE =
-            MediaType.get("application/json; charset=utf-8");
     private static final MediaType JWT_CONTENT_TYPE = MediaType.get("application/jwt");
 
     private final OkHttpClient httpClient;
     private final ObjectMapper objectMapper;
+    @Nullable private final JiraEventOutbox outbox;
     private static final int JWT_EXPIRY_SECONDS = 5 * 60;
 
     @Inject
     public JenkinsAppApi(final OkHttpClient httpClient, final ObjectMapper objectMapper) {
+        this(httpClient, objectMapper, null);
+    }
+
+    /**
+     * @param outbox - if given, event requests are recorded in it before they are sent and
+     *     acknowledged once Jira has accepted or rejected them
+     */
+    public JenkinsAppApi(
+            final OkHttpClient httpClient,
+            final ObjectMapper objectMapper,
+            @Nullable final JiraEventOutbox outbox) {
         this.httpClient = Objects.requireNonNull(httpClient);
         this.objectMapper = Objects.requireNonNull(objectMapper);
+        this.outbox = outbox;
     }
 
     protected ResponseEntity sendRequest(
@@ -46,8 +63,7 @@ public abstract class JenkinsAppApi<ResponseEntity> {
             final PipelineLogger pipelineLogger)
             throws ApiUpdateFailedException {
         try {
-            final String requestPayload = objectMapper.writeValueAsString(jenkinsAppRequest);
-            RequestBody body = RequestBody.create(JSON_CONTENT_TYPE, requestPayload);
+            RequestBody body = JsonRequestBody.of(objectMapper, jenkinsAppRequest);
             Request request = new Request.Builder().url(webhookUrl).post(body).build();
             final Response response = httpClient.newCall(request).execute();
             checkForErrorResponse(response, pipelineLogger);
@@ -64,10 +80,43 @@ public abstract class JenkinsAppApi<ResponseEntity> {
             final Class<ResponseEntity> responseClass,
             final PipelineLogger pipelineLogger)
             throws ApiUpdateFailedException {
+        final String requestBody;
+        try {
+            requestBody = objectMapper.writeValueAsString(jenkinsAppRequest);
+        } catch (Exception e) {
+            throw handleError(e);
+        }
+
+        final OptionalLong outboxId = recordInOutbox(webhookUrl, jenkinsAppRequest, requestBody);
+        try {
+            final ResponseEntity response =
+                    sendBodyAsJwt(webhookUrl, secret, requestBody, responseClass, pipelineLogger);
+            acknowledgeInOutbox(outboxId);
+            return response;
+        } catch (BadRequestException e) {
+            if (e.isRejected()) {
+                // Jira rejected the event, sending it again won't change that
+                acknowledgeInOutbox(outboxId);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Signs and sends an already serialized request. Used to resend requests from the outbox, so
+     * it doesn't record them again.
+     */
+    protected ResponseEntity sendBodyAsJwt(
+            final String webhookUrl,
+            final String secret,
+            final String requestBody,
+            final Class<ResponseEntity> responseClass,
+            final PipelineLogger pipelineLogger)
+            throws ApiUpdateFailedException {
         try {
             final String requestPayload =
-                    wrapInJwt(
-                            jenkinsAppRequest,
+                    wrapBodyInJwt(
+                            requestBody,
                             secret,
                             Date.from(Instant.now().plusSeconds(JWT_EXPIRY_SECONDS)),
                             pipelineLogger);
@@ -81,6 +130,38 @@ public abstract class JenkinsAppApi<ResponseEntity> {
         }
     }
 
+    private OptionalLong recordInOutbox(
+            final String webhookUrl,
+            final JenkinsAppRequest jenkinsAppRequest,
+            final String requestBody) {
+        if (outbox == null || !(jenkinsAppRequest instanceof JenkinsAppEventRequest)) {
+            return OptionalLong.empty();
+        }
+        final String pipelineId =
+                Optional.ofNullable(((JenkinsAppEventRequest) jenkinsAppRequest).getPipelineId())
+                        .orElse("");
+        return outbox.append(
+                webhookUrl,
+                pipelineId,
+                requestBody,
+                getUpdateKeys(webhookUrl, (JenkinsAppEventRequest) jenkinsAppRequest));
+    }
+
+    /**
+     * @return the update sequence number of every build or deployment the event updates, keyed by
+     *     {@link UpdateKeys}, so that the outbox can drop the entries a later event replaces
+     */
+    protected Map<String, Long> getUpdateKeys(
+            final String webhookUrl, final JenkinsAppEventRequest eventRequest) {
+        return Collections.emptyMap();
+    }
+
+    private void acknowledgeInOutbox(final OptionalLong outboxId) {
+        if (outbox != null) {
+            outboxId.ifPresent(outbox::acknowledge);
+        }
+    }
+
     private ApiUpdateFailedException handleError(final Exception e) {
         if (e instanceof ApiUpdateFailedException) {
             return (ApiUpdateFailedException) e;
@@ -90,14 +171,14 @@ public abstract class JenkinsAppApi<ResponseEntity> {
         } else if (e instanceof JsonProcessingException) {
             return new ApiUpdateFailedException(
                     String.format("Unable to create the request payload: %s", e.getMessage()), e);
+        } else if (e instanceof RateLimitExceededException) {
+            return new ApiUpdateFailedException("Rate limit reached " + e.getMessage(), e);
         } else if (e instanceof IOException) {
             return new ApiUpdateFailedException(
                     String.format(
                             "Server exception when submitting update to Jenkins app in Jira: %s",
                             e.getMessage()),
                     e);
-        } else if (e instanceof RequestNotPermitted) {
-            return new ApiUpdateFailedException("Rate limit reached " + e.getMessage(), e);
         } else {
             return new ApiUpdateFailedException(
                     String.format(
@@ -124,7 +205,7 @@ public abstract class JenkinsAppApi<ResponseEntity> {
 
             // on a 400 we want to expose the error message to the user
             if (response.code() >= 400 && response.code() < 500 && responseBodyString != null) {
-                throw new BadRequestException(responseBodyString);
+                throw new BadRequestException(responseBodyString, response.code());
             }
 
             // otherwise, we only want to expose the error code
@@ -139,16 +220,19 @@ public abstract class JenkinsAppApi<ResponseEntity> {
 
     private ResponseEntity handleResponseBody(
             final Response response, final Class<ResponseEntity> responseClass) throws IOException {
-        ResponseBody body = response.body();
-        if (body == null) {
-            final String message =
-                    "Empty response body when submitting update to Jenkins app in Jira";
+        try (ResponseBody body = response.body()) {
+            if (body == null) {
+                final String message =
+                        "Empty response body when submitting update to Jenkins app in Jira";
 
-            throw new ApiUpdateFailedException(message);
-        }
+                throw new ApiUpdateFailedException(message);
+            }
 
-        return objectMapper.readValue(
-                body.bytes(), objectMapper.getTypeFactory().constructType(responseClass));
+            // parse while the response is read instead of buffering all of it first
+            return objectMapper.readValue(
+                    body.byteStream(),
+                    objectMapper.getTypeFactory().constructType(responseClass));
+        }
     }
 
     @VisibleForTesting
@@ -158,15 +242,26 @@ public abstract class JenkinsAppApi<ResponseEntity> {
             final Date expiryDate,
             final PipelineLogger pipelineLogger)
             throws JsonProcessingException {
-        final String body = objectMapper.writeValueAsString(request);
+        return wrapBodyInJwt(
+                objectMapper.writeValueAsString(request), secret, expiryDate, pipelineLogger);
+    }
+
+    private String wrapBodyInJwt(
+            final String body,
+            final String secret,
+            final Date expiryDate,
+            final PipelineLogger pipelineLogger) {
         pipelineLogger.info(String.format("sending request to Jenkins app in Jira: %s", body));
-        Algorithm algorithm = Algorithm.HMAC256(secret);
-        return JWT.create()
-                .withIssuer("jenkins-plugin")
-                .withAudience("jenkins-forge-app")
-                .withIssuedAt(new Date())
-                .withExpiresAt(expiryDate)
-                .withClaim("request_body_json", body)
-                .sign(algorithm);
+        // the request is signed as a string claim, so unlike plain JSON requests it can't be
+        // written straight into the request body
+        return JwtSigner.get()
+                .sign(
+                        JWT.create()
+                                .withIssuer("jenkins-plugin")
+                                .withAudience("jenkins-forge-app")
+                                .withIssuedAt(new Date())
+                                .withExpiresAt(expiryDate)
+                                .withClaim("request_body_json", body),
+                        secret);
     }
 }
@@ -3,9 +3,8 @@ package com.atlassian.jira.cloud.jenkins.common.client;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.annotations.VisibleForTesting;
-import io.github.resilience4j.ratelimiter.RequestNotPermitted;
+import com.atlassian.jira.cloud.jenkins.provider.RateLimitExceededException;
 import okhttp3.HttpUrl;
-import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.RequestBody;
@@ -26,7 +25,6 @@ import java.util.Objects;
 public class JiraApi {
 
     private static final Logger log = LoggerFactory.getLogger(JiraApi.class);
-    private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
 
     private final OkHttpClient httpClient;
     private final ObjectMapper objectMapper;
@@ -58,8 +56,8 @@ public class JiraApi {
             final JiraRequest jiraRequest,
             final Class<ResponseEntity> responseClass) {
         try {
-            final String requestPayload = objectMapper.writeValueAsString(jiraRequest);
-            final Request request = getRequest(cloudId, accessToken, requestPayload, clientId);
+            final RequestBody requestBody = JsonRequestBody.of(objectMapper, jiraRequest);
+            final Request request = getRequest(cloudId, accessToken, requestBody, clientId);
             final Response response = httpClient.newCall(request).execute();
 
             checkForErrorResponse(response);
@@ -71,14 +69,14 @@ public class JiraApi {
         } catch (JsonProcessingException e) {
             return handleError(
                     String.format("Unable to create the request payload: %s", e.getMessage()));
+        } catch (RateLimitExceededException e) {
+            return handleError("Your OAuth client reached Jira's limits " + e.getMessage());
         } catch (IOException e) {
             return handleError(
                     String.format(
                             "Server exception when submitting update to Jira: %s", e.getMessage()));
         } catch (ApiUpdateFailedException e) {
             return handleError(e.getMessage());
-        } catch (RequestNotPermitted e) {
-            return handleError("Your OAuth client reached Jira's limits " + e.getMessage());
         } catch (Exception e) {
             return handleError(
                     String.format(
@@ -113,14 +111,14 @@ public class JiraApi {
         } catch (JsonProcessingException e) {
             return handleError(
                     String.format("Unable to create the request payload: %s", e.getMessage()));
+        } catch (RateLimitExceededException e) {
+            return handleError("Your OAuth client reached Jira's limits " + e.getMessage());
         } catch (IOException e) {
             return handleError(
                     String.format(
                             "Server exception when submitting update to Jira: %s", e.getMessage()));
         } catch (ApiUpdateFailedException e) {
             return handleError(e.getMessage());
-        } catch (RequestNotPermitted e) {
-            return handleError("Your OAuth client reached Jira's limits " + e.getMessage());
         } catch (Exception e) {
             return handleError(
                     String.format(
@@ -149,15 +147,17 @@ public class JiraApi {
 
     private <ResponseEntity> ResponseEntity handleResponseBody(
             final Response response, final Class<ResponseEntity> responseClass) throws IOException {
-        ResponseBody body = response.body();
-        if (body == null) {
-            final String message = "Empty response body when submitting update to Jira";
+        try (ResponseBody body = response.body()) {
+            if (body == null) {
+                final String message = "Empty response body when submitting update to Jira";
 
-            throw new ApiUpdateFailedException(message);
-        }
+                throw new ApiUpdateFailedException(message);
+            }
 
-        return objectMapper.readValue(
-                body.bytes(), objectMapper.getTypeFactory().constructType(responseClass));
+            return objectMapper.readValue(
+                    body.byteStream(),
+                    objectMapper.getTypeFactory().constructType(responseClass));
+        }
     }
 
     @VisibleForTesting
@@ -168,9 +168,8 @@ public class JiraApi {
     private Request getRequest(
             final String cloudId,
             final String accessToken,
-            final String requestPayload,
+            final RequestBody body,
             final String clientId) {
-        RequestBody body = RequestBody.create(JSON, requestPayload);
         return new Request.Builder()
                 .url(String.format(this.apiEndpoint, cloudId))
                 .addHeader("Authorization", "Bearer " + accessToken)
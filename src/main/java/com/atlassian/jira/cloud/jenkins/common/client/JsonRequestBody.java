@@ -0,0 +1,53 @@
+package com.atlassian.jira.cloud.jenkins.common.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.Buffer;
+import okio.BufferedSink;
+
+import java.io.IOException;
+
+/**
+ * A JSON request body that Jackson writes straight into an Okio buffer, rather than into a String
+ * which then has to be encoded into yet another byte array.
+ *
+ * <p>The request is serialized when the body is created, not when OkHttp sends it, so that a
+ * request that can't be serialized fails before the call and isn't taken for a network error by
+ * the retry and circuit breaker interceptors. Writing the body again for a retry shares the
+ * buffer's segments instead of copying them.
+ */
+final class JsonRequestBody extends RequestBody {
+
+    private static final MediaType JSON_CONTENT_TYPE =
+            MediaType.get("application/json; charset=utf-8");
+
+    private final Buffer content;
+
+    private JsonRequestBody(final Buffer content) {
+        this.content = content;
+    }
+
+    static JsonRequestBody of(final ObjectMapper objectMapper, final Object value)
+            throws IOException {
+        final Buffer content = new Buffer();
+        objectMapper.writeValue(content.outputStream(), value);
+        return new JsonRequestBody(content);
+    }
+
+    @Override
+    public MediaType contentType() {
+        return JSON_CONTENT_TYPE;
+    }
+
+    @Override
+    public long contentLength() {
+        return content.size();
+    }
+
+    @Override
+    public void writeTo(final BufferedSink sink) throws IOException {
+        final Buffer copy = content.clone();
+        sink.write(copy, copy.size());
+    }
+}
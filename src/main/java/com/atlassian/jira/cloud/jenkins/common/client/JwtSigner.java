@@ -0,0 +1,150 @@
+package com.atlassian.jira.cloud.jenkins.common.client;
+
+import com.auth0.jwt.JWTCreator;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.SignatureVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Signs the requests to the Jenkins app in Jira with HMAC SHA-256.
+ *
+ * <p>{@link Algorithm#HMAC256(String)} looks up and keys a new {@link Mac} for every signature,
+ * which costs more than signing a request. Here every secret gets one keyed Mac per thread that is
+ * reused for all its requests. The secrets are only kept by their SHA-256 digest, and those that
+ * are no longer used, e.g. because their credentials were changed, are dropped after an hour
+ * together with the Macs of every thread.
+ */
+final class JwtSigner {
+
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+
+    private static final JwtSigner instance = new JwtSigner();
+
+    // counts the secrets dropped from the cache, so that every thread drops their Macs as well
+    private final AtomicInteger removals = new AtomicInteger();
+
+    // a handful of Jira sites, but an old secret shouldn't stay around for long
+    private final Cache<String, Algorithm> algorithms =
+            CacheBuilder.newBuilder()
+                    .maximumSize(100)
+                    .expireAfterAccess(1, TimeUnit.HOURS)
+                    .removalListener(notification -> removals.incrementAndGet())
+                    .build();
+
+    // one map for all secrets per thread, as a Mac can't be shared between threads
+    private final ThreadLocal<ThreadMacs> threadMacs = ThreadLocal.withInitial(ThreadMacs::new);
+
+    @VisibleForTesting
+    JwtSigner() {}
+
+    static JwtSigner get() {
+        return instance;
+    }
+
+    String sign(final JWTCreator.Builder jwt, final String secret) {
+        return jwt.sign(algorithmFor(secret));
+    }
+
+    @VisibleForTesting
+    Algorithm algorithmFor(final String secret) {
+        return algorithms
+                .asMap()
+                .computeIfAbsent(digestOf(secret), digest -> new HmacSha256(digest, secret));
+    }
+
+    @VisibleForTesting
+    void forget(final String secret) {
+        algorithms.invalidate(digestOf(secret));
+    }
+
+    @VisibleForTesting
+    int getMacCountOfCurrentThread() {
+        return threadMacs.get().macs.size();
+    }
+
+    private static String digestOf(final String secret) {
+        return Hashing.sha256().hashString(secret, StandardCharsets.UTF_8).toString();
+    }
+
+    private static final class ThreadMacs {
+        private final Map<String, Mac> macs = new HashMap<>();
+        private int removals;
+    }
+
+    /** HS256 with a keyed Mac per thread, kept in the thread's map under the secret's digest. */
+    private final class HmacSha256 extends Algorithm {
+
+        private final String digest;
+        private final SecretKeySpec key;
+
+        HmacSha256(final String digest, final String secret) {
+            super("HS256", MAC_ALGORITHM);
+            this.digest = digest;
+            this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), MAC_ALGORITHM);
+        }
+
+        @Override
+        public byte[] sign(final byte[] headerBytes, final byte[] payloadBytes) {
+            final Mac mac = mac();
+            mac.update(headerBytes);
+            mac.update((byte) '.');
+            return mac.doFinal(payloadBytes);
+        }
+
+        @Override
+        public byte[] sign(final byte[] contentBytes) {
+            return mac().doFinal(contentBytes);
+        }
+
+        @Override
+        public void verify(final DecodedJWT jwt) {
+            final byte[] expected =
+                    sign(
+                            jwt.getHeader().getBytes(StandardCharsets.UTF_8),
+                            jwt.getPayload().getBytes(StandardCharsets.UTF_8));
+            if (!MessageDigest.isEqual(expected, Base64.getUrlDecoder().decode(jwt.getSignature()))) {
+                throw new SignatureVerificationException(this);
+            }
+        }
+
+        private Mac mac() {
+            final ThreadMacs current = threadMacs.get();
+            final int currentRemovals = removals.get();
+            if (current.removals != currentRemovals) {
+                current.macs.keySet().retainAll(algorithms.asMap().keySet());
+                current.removals = currentRemovals;
+            }
+            Mac mac = current.macs.get(digest);
+            if (mac == null) {
+                mac = newMac();
+                current.macs.put(digest, mac);
+            }
+            return mac;
+        }
+
+        private Mac newMac() {
+            try {
+                final Mac mac = Mac.getInstance(MAC_ALGORITHM);
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Unable to set up " + MAC_ALGORITHM, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,415 @@
+package com.atlassian.jira.cloud.jenkins.common.dispatch;
+
+import com.atlassian.jira.cloud.jenkins.metrics.PluginMetrics;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import hudson.init.Terminator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands outbound Jira events over to a dedicated worker pool, so that callers (e.g. the CPS VM
+ * thread running a pipeline) never wait for the Jenkins app in Jira to respond.
+ *
+ * <p>Every Jira site has its own bounded queue. Events of a single site are sent one after another
+ * in the order they were dispatched, so an IN_PROGRESS update never overtakes the final one. When
+ * a site queue is full the event is rejected rather than blocking the caller.
+ *
+ * <p>Events can carry a coalescing key, e.g. the build they update. A queued event is skipped when
+ * a later event with the same key is queued for the same site before it is sent, so a backlog
+ * sends the newest state of a build once instead of every state it went through.
+ *
+ * <p>Events can also carry a batch key. Events with the same batch key that are queued one after
+ * another for a site are handed to their {@link BatchSender} together, up to {@link
+ * #MAX_BATCH_SIZE} at a time, so that e.g. the builds of a backlog are sent in one request each.
+ */
+public final class JiraEventDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(JiraEventDispatcher.class);
+
+    private static final int DEFAULT_WORKER_THREADS = 4;
+    private static final int DEFAULT_QUEUE_CAPACITY = 1000;
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(30);
+
+    // a worker hands a busy site back to the pool after this many events to be fair to other sites
+    private static final int MAX_EVENTS_PER_TURN = 32;
+
+    // the builds API of Jira accepts up to 100 builds per request
+    private static final int MAX_BATCH_SIZE = 50;
+
+    private static final JiraEventDispatcher instance =
+            new JiraEventDispatcher(DEFAULT_WORKER_THREADS, DEFAULT_QUEUE_CAPACITY);
+
+    static {
+        final PluginMetrics metrics = PluginMetrics.get();
+        metrics.registerGauge("dispatcher.queueDepths", instance::getQueueDepths);
+        metrics.registerGauge("dispatcher.dispatched", instance::getDispatchedCount);
+        metrics.registerGauge("dispatcher.completed", instance::getCompletedCount);
+        metrics.registerGauge("dispatcher.failed", instance::getFailedCount);
+        metrics.registerGauge("dispatcher.rejected", instance::getRejectedCount);
+        metrics.registerGauge("dispatcher.superseded", instance::getSupersededCount);
+    }
+
+    private final ExecutorService workers;
+    private final int queueCapacity;
+    private final Map<String, SiteQueue> siteQueues = new ConcurrentHashMap<>();
+    private final AtomicBoolean shutdown = new AtomicBoolean(false);
+
+    private final AtomicLong dispatchedCount = new AtomicLong();
+    private final AtomicLong completedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong supersededCount = new AtomicLong();
+
+    @VisibleForTesting
+    JiraEventDispatcher(final int workerThreads, final int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+        this.workers =
+                Executors.newFixedThreadPool(
+                        workerThreads,
+                        new ThreadFactoryBuilder()
+                                .setNameFormat("jira-cloud-event-dispatcher-%d")
+                                .setDaemon(true)
+                                .build());
+    }
+
+    public static JiraEventDispatcher get() {
+        return instance;
+    }
+
+    /**
+     * Sends the items of several events in one go.
+     *
+     * @param <T> - what an event sends
+     */
+    @FunctionalInterface
+    public interface BatchSender<T> {
+        /** @param items - the items of the batch, in the order they were dispatched */
+        void sendAll(List<T> items);
+    }
+
+    /**
+     * Queues an event for the given Jira site and returns immediately.
+     *
+     * @param jiraSite - the site the event is going to; events of the same site keep their order
+     * @param event - sends the event, runs on one of the dispatcher threads
+     * @return a future that completes when the event has been sent, or completes exceptionally
+     *     with {@link RejectedExecutionException} when the site queue is full
+     */
+    public CompletableFuture<Void> dispatch(final String jiraSite, final Runnable event) {
+        return dispatch(jiraSite, null, event);
+    }
+
+    /**
+     * Queues an event for the given Jira site and returns immediately. If an event with the same
+     * coalescing key is still queued for the site, that event won't be sent; its future completes
+     * normally.
+     *
+     * @param coalescingKey - identifies what the event updates, events without a key are all sent
+     */
+    public CompletableFuture<Void> dispatch(
+            final String jiraSite, @Nullable final String coalescingKey, final Runnable event) {
+        return dispatch(
+                jiraSite,
+                new QueuedEvent(coalescingKey, null, null, null, event, new CompletableFuture<>()));
+    }
+
+    private CompletableFuture<Void> dispatch(final String jiraSite, final QueuedEvent queuedEvent) {
+        final CompletableFuture<Void> result = queuedEvent.result;
+
+        if (shutdown.get()) {
+            return reject(jiraSite, result, "Jenkins is shutting down");
+        }
+
+        final SiteQueue siteQueue =
+                siteQueues.computeIfAbsent(jiraSite, site -> new SiteQueue(site, queueCapacity));
+        if (!siteQueue.offer(queuedEvent)) {
+            return reject(
+                    jiraSite,
+                    result,
+                    String.format("the queue already holds %d events", queueCapacity));
+        }
+
+        dispatchedCount.incrementAndGet();
+        siteQueue.schedule();
+        return result;
+    }
+
+    /**
+     * Queues an event that can be sent together with the events of the same batch key queued right
+     * before or after it. Otherwise like {@link #dispatch(String, String, Runnable)}.
+     *
+     * @param batchKey - events with the same key can be sent by each other's batch sender
+     * @param item - what the event sends
+     * @param batchSender - sends the items of all events of a batch, runs on a dispatcher thread
+     */
+    public <T> CompletableFuture<Void> dispatchBatchable(
+            final String jiraSite,
+            @Nullable final String coalescingKey,
+            final String batchKey,
+            final T item,
+            final BatchSender<T> batchSender) {
+        return dispatch(
+                jiraSite,
+                new QueuedEvent(
+                        coalescingKey,
+                        batchKey,
+                        item,
+                        batchSender,
+                        () -> batchSender.sendAll(Collections.singletonList(item)),
+                        new CompletableFuture<>()));
+    }
+
+    private CompletableFuture<Void> reject(
+            final String jiraSite, final CompletableFuture<Void> result, final String reason) {
+        rejectedCount.incrementAndGet();
+        result.completeExceptionally(
+                new RejectedExecutionException(
+                        String.format(
+                                "Event for Jira site %s was not sent because %s",
+                                jiraSite, reason)));
+        return result;
+    }
+
+    /** Number of events waiting to be sent, by Jira site. */
+    public Map<String, Integer> getQueueDepths() {
+        final Map<String, Integer> depths = new TreeMap<>();
+        siteQueues.forEach((site, queue) -> depths.put(site, queue.size()));
+        return depths;
+    }
+
+    public long getDispatchedCount() {
+        return dispatchedCount.get();
+    }
+
+    public long getCompletedCount() {
+        return completedCount.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    /** Number of events that weren't sent because a later event replaced them. */
+    public long getSupersededCount() {
+        return supersededCount.get();
+    }
+
+    /**
+     * Stops accepting new events and waits for the queued ones to be sent.
+     *
+     * @return true if all queued events have been sent before the timeout
+     */
+    public boolean shutdown(final Duration timeout) throws InterruptedException {
+        shutdown.set(true);
+        workers.shutdown();
+        return workers.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Terminator
+    public static void drainOnShutdown() throws InterruptedException {
+        if (!get().shutdown(SHUTDOWN_TIMEOUT)) {
+            log.warn(
+                    String.format(
+                            "Not all Jira events were sent within %s, pending events: %s",
+                            SHUTDOWN_TIMEOUT, get().getQueueDepths()));
+        }
+    }
+
+    private static final class QueuedEvent {
+        @Nullable private final String coalescingKey;
+        // all three set for batchable events only
+        @Nullable private final String batchKey;
+        @Nullable private final Object item;
+        @Nullable private final BatchSender<?> batchSender;
+        private final Runnable event;
+        private final CompletableFuture<Void> result;
+        private volatile boolean superseded;
+
+        QueuedEvent(
+                @Nullable final String coalescingKey,
+                @Nullable final String batchKey,
+                @Nullable final Object item,
+                @Nullable final BatchSender<?> batchSender,
+                final Runnable event,
+                final CompletableFuture<Void> result) {
+            this.coalescingKey = coalescingKey;
+            this.batchKey = batchKey;
+            this.item = item;
+            this.batchSender = batchSender;
+            this.event = event;
+            this.result = result;
+        }
+    }
+
+    /** Pending events of a single site, drained by at most one worker at a time. */
+    private final class SiteQueue implements Runnable {
+        private final String jiraSite;
+        private final BlockingQueue<QueuedEvent> pending;
+        // the latest queued event for every coalescing key
+        private final Map<String, QueuedEvent> latestByKey = new ConcurrentHashMap<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+        SiteQueue(final String jiraSite, final int capacity) {
+            this.jiraSite = jiraSite;
+            this.pending = new LinkedBlockingQueue<>(capacity);
+        }
+
+        synchronized boolean offer(final QueuedEvent queuedEvent) {
+            if (!pending.offer(queuedEvent)) {
+                return false;
+            }
+            if (queuedEvent.coalescingKey != null) {
+                final QueuedEvent previous = latestByKey.put(queuedEvent.coalescingKey, queuedEvent);
+                if (previous != null) {
+                    previous.superseded = true;
+                }
+            }
+            return true;
+        }
+
+        @Nullable
+        synchronized QueuedEvent poll() {
+            final QueuedEvent queuedEvent = pending.poll();
+            if (queuedEvent != null && queuedEvent.coalescingKey != null) {
+                latestByKey.remove(queuedEvent.coalescingKey, queuedEvent);
+            }
+            return queuedEvent;
+        }
+
+        /**
+         * @return the given event and the events with the same batch key right behind it,
+         *     including the superseded ones in between
+         */
+        synchronized List<QueuedEvent> pollBatch(final QueuedEvent first) {
+            final List<QueuedEvent> batch = new ArrayList<>();
+            batch.add(first);
+            int live = 1;
+            QueuedEvent next;
+            while (live < MAX_BATCH_SIZE && (next = pending.peek()) != null) {
+                if (next.superseded) {
+                    batch.add(poll());
+                } else if (first.batchKey.equals(next.batchKey)) {
+                    batch.add(poll());
+                    live++;
+                } else {
+                    break;
+                }
+            }
+            return batch;
+        }
+
+        int size() {
+            return pending.size();
+        }
+
+        void schedule() {
+            if (pending.isEmpty() || !scheduled.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                workers.execute(this);
+            } catch (RejectedExecutionException e) {
+                // the pool is shutting down: drain on the calling thread so nothing is lost
+                run();
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                int sent = 0;
+                QueuedEvent queuedEvent;
+                while ((shutdown.get() || sent < MAX_EVENTS_PER_TURN)
+                        && (queuedEvent = poll()) != null) {
+                    if (queuedEvent.batchKey == null || queuedEvent.superseded) {
+                        send(queuedEvent);
+                        sent++;
+                    } else {
+                        final List<QueuedEvent> batch = pollBatch(queuedEvent);
+                        sendBatch(batch);
+                        sent += batch.size();
+                    }
+                }
+            } finally {
+                scheduled.set(false);
+            }
+            // events might have been queued while we were finishing the turn
+            schedule();
+        }
+
+        private void send(final QueuedEvent queuedEvent) {
+            if (queuedEvent.superseded) {
+                skip(queuedEvent);
+                return;
+            }
+            try {
+                queuedEvent.event.run();
+                completedCount.incrementAndGet();
+                queuedEvent.result.complete(null);
+            } catch (RuntimeException e) {
+                failedCount.incrementAndGet();
+                log.error("Failed to send event to Jira site " + jiraSite, e);
+                queuedEvent.result.completeExceptionally(e);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void sendBatch(final List<QueuedEvent> events) {
+            final List<QueuedEvent> batch = new ArrayList<>(events.size());
+            for (QueuedEvent queuedEvent : events) {
+                if (queuedEvent.superseded) {
+                    skip(queuedEvent);
+                } else {
+                    batch.add(queuedEvent);
+                }
+            }
+            if (batch.size() == 1) {
+                send(batch.get(0));
+                return;
+            }
+            final List<Object> items = new ArrayList<>(batch.size());
+            batch.forEach(queuedEvent -> items.add(queuedEvent.item));
+            try {
+                ((BatchSender<Object>) batch.get(0).batchSender).sendAll(items);
+                completedCount.addAndGet(batch.size());
+                batch.forEach(queuedEvent -> queuedEvent.result.complete(null));
+            } catch (RuntimeException e) {
+                failedCount.addAndGet(batch.size());
+                log.error(
+                        String.format(
+                                "Failed to send a batch of %d events to Jira site %s",
+                                batch.size(), jiraSite),
+                        e);
+                batch.forEach(queuedEvent -> queuedEvent.result.completeExceptionally(e));
+            }
+        }
+
+        private void skip(final QueuedEvent queuedEvent) {
+            supersededCount.incrementAndGet();
+            queuedEvent.result.complete(null);
+        }
+    }
+}
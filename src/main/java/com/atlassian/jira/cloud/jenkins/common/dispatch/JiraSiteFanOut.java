@@ -0,0 +1,117 @@
+package com.atlassian.jira.cloud.jenkins.common.dispatch;
+
+import com.atlassian.jira.cloud.jenkins.common.response.JiraCommonResponse;
+import com.atlassian.jira.cloud.jenkins.common.response.JiraSendInfoResponse;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Sends an update to several Jira sites at once, so that it takes as long as the slowest site
+ * rather than the sum of all of them. The responses are returned in the order of the sites.
+ *
+ * <p>All sites share one deadline; a site that hasn't responded by then is reported as timed out.
+ */
+public final class JiraSiteFanOut {
+
+    private static final int MAX_THREADS = 8;
+    private static final Duration DEFAULT_DEADLINE = Duration.ofMinutes(2);
+
+    private static final JiraSiteFanOut instance = new JiraSiteFanOut(MAX_THREADS, DEFAULT_DEADLINE);
+
+    private final ThreadPoolExecutor executor;
+    private final Duration deadline;
+
+    @VisibleForTesting
+    JiraSiteFanOut(final int maxThreads, final Duration deadline) {
+        this.deadline = deadline;
+        this.executor =
+                new ThreadPoolExecutor(
+                        maxThreads,
+                        maxThreads,
+                        1,
+                        TimeUnit.MINUTES,
+                        new LinkedBlockingQueue<>(),
+                        new ThreadFactoryBuilder()
+                                .setNameFormat("jira-cloud-site-fan-out-%d")
+                                .setDaemon(true)
+                                .build());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public static JiraSiteFanOut get() {
+        return instance;
+    }
+
+    /**
+     * @param jiraSites - the sites to send to
+     * @param sendToSite - sends the update to a single site
+     * @return one response per site, in the order of jiraSites
+     */
+    public List<JiraSendInfoResponse> sendToAll(
+            final List<String> jiraSites,
+            final Function<String, JiraSendInfoResponse> sendToSite) {
+        if (jiraSites.size() <= 1) {
+            // nothing to parallelize, stay on the caller thread
+            final List<JiraSendInfoResponse> responses = new ArrayList<>(jiraSites.size());
+            jiraSites.forEach(jiraSite -> responses.add(sendToSite.apply(jiraSite)));
+            return responses;
+        }
+
+        final List<Future<JiraSendInfoResponse>> futures = new ArrayList<>(jiraSites.size());
+        for (final String jiraSite : jiraSites) {
+            futures.add(executor.submit(() -> sendToSite.apply(jiraSite)));
+        }
+
+        final long deadlineNanos = System.nanoTime() + deadline.toNanos();
+        final List<JiraSendInfoResponse> responses = new ArrayList<>(jiraSites.size());
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                responses.add(
+                        await(futures.get(i), jiraSites.get(i), deadlineNanos - System.nanoTime()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            for (int i = responses.size(); i < futures.size(); i++) {
+                responses.add(timedOut(jiraSites.get(i)));
+            }
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+        return Collections.unmodifiableList(responses);
+    }
+
+    private JiraSendInfoResponse await(
+            final Future<JiraSendInfoResponse> future, final String jiraSite, final long timeoutNanos)
+            throws InterruptedException {
+        try {
+            return future.get(Math.max(timeoutNanos, 0), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            return timedOut(jiraSite);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private JiraSendInfoResponse timedOut(final String jiraSite) {
+        return JiraCommonResponse.failureSiteTimeout(jiraSite, deadline.getSeconds());
+    }
+}
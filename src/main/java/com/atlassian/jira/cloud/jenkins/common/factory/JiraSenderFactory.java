@@ -1,5 +1,6 @@
 package com.atlassian.jira.cloud.jenkins.common.factory;
 
+import com.atlassian.jira.cloud.jenkins.buildinfo.client.BatchingBuildsApi;
 import com.atlassian.jira.cloud.jenkins.buildinfo.client.BuildsApi;
 import com.atlassian.jira.cloud.jenkins.buildinfo.service.FreestyleJiraBuildInfoSenderImpl;
 import com.atlassian.jira.cloud.jenkins.buildinfo.service.JiraBuildInfoSender;
@@ -9,6 +10,7 @@ import com.atlassian.jira.cloud.jenkins.checkgatingstatus.service.JiraGatingStat
 import com.atlassian.jira.cloud.jenkins.checkgatingstatus.service.JiraGatingStatusRetrieverImpl;
 import com.atlassian.jira.cloud.jenkins.common.config.JiraSiteConfigRetriever;
 import com.atlassian.jira.cloud.jenkins.common.config.JiraSiteConfigRetrieverImpl;
+import com.atlassian.jira.cloud.jenkins.common.outbox.JiraEventOutbox;
 import com.atlassian.jira.cloud.jenkins.common.service.FreestyleIssueKeyExtractor;
 import com.atlassian.jira.cloud.jenkins.common.service.IssueKeyExtractor;
 import com.atlassian.jira.cloud.jenkins.deploymentinfo.client.DeploymentsApi;
@@ -37,10 +39,8 @@ public final class JiraSenderFactory {
     private JiraBuildInfoSender freestyleBuildInfoSender;
 
     private JiraSenderFactory() {
-        final ObjectMapperProvider objectMapperProvider = new ObjectMapperProvider();
-        final HttpClientProvider httpClientProvider = new HttpClientProvider();
-        final OkHttpClient httpClient = httpClientProvider.httpClient();
-        final ObjectMapper objectMapper = objectMapperProvider.objectMapper();
+        final OkHttpClient httpClient = HttpClientProvider.getSharedHttpClient();
+        final ObjectMapper objectMapper = ObjectMapperProvider.getSharedObjectMapper();
 
         final JiraSiteConfigRetriever siteConfig2Retriever = new JiraSiteConfigRetrieverImpl();
         final BranchNameIssueKeyExtractor branchNameIssueKeyExtractor =
@@ -52,8 +52,9 @@ public final class JiraSenderFactory {
         final IssueKeyExtractor changeLogIssueKeyExtractor = new ChangeLogIssueKeyExtractor();
         final SecretRetriever secretRetriever = new SecretRetriever();
         final CloudIdResolver cloudIdResolver = new CloudIdResolver(httpClient, objectMapper);
-        final BuildsApi buildsApi = new BuildsApi(httpClient, objectMapper);
-        final DeploymentsApi deploymentsApi = new DeploymentsApi(httpClient, objectMapper);
+        final JiraEventOutbox outbox = JiraEventOutbox.get();
+        final BuildsApi buildsApi = new BatchingBuildsApi(httpClient, objectMapper, outbox);
+        final DeploymentsApi deploymentsApi = new DeploymentsApi(httpClient, objectMapper, outbox);
         final GatingStatusApi gatingStatusApi = new GatingStatusApi(httpClient, objectMapper);
 
         this.jiraBuildInfoSender =
@@ -0,0 +1,407 @@
+package com.atlassian.jira.cloud.jenkins.common.outbox;
+
+import com.atlassian.jira.cloud.jenkins.metrics.PluginMetrics;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.annotations.VisibleForTesting;
+import jenkins.model.Jenkins;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records the event requests to the Jenkins app in Jira under JENKINS_HOME before they are sent,
+ * and keeps them until they have been acknowledged, so that events are not lost when Jira can't be
+ * reached or Jenkins restarts while sending.
+ *
+ * <p>The outbox is a sequence of append-only segment files of JSON lines, each line either an
+ * entry or the acknowledgement of one. A new segment is started when the current one is full and
+ * on every start of Jenkins, so a line cut short by a crash is never appended to. Segments are
+ * deleted from the oldest one on, as soon as all of their entries have been acknowledged; deleting
+ * them in order means an acknowledgement is never lost while the entry it belongs to still exists.
+ *
+ * <p>An entry is acknowledged as soon as a later entry updates the same builds or deployments with
+ * at least the same update sequence number, so only the newest state of a build is sent again.
+ *
+ * <p>{@link #append} returns once its entry has been forced to disk, but appends that wait for
+ * the disk at the same time share a single force (group commit), which is done outside of the lock
+ * of the outbox. Acknowledgements aren't forced at all, they reach the disk with the next append or
+ * segment; one lost in a crash only means that its entry is sent again, which Jira tolerates.
+ *
+ * <p>Segments are only deleted oldest first, so an entry that is never acknowledged keeps all the
+ * segments written after it on disk. That is bounded by the {@code JiraEventOutboxReplayer}, which
+ * gives up on and acknowledges entries older than 24 hours, and by the maximum number of pending
+ * entries.
+ */
+public final class JiraEventOutbox {
+
+    private static final Logger log = LoggerFactory.getLogger(JiraEventOutbox.class);
+
+    private static final String DIRECTORY_NAME = "atlassian-jira-software-cloud-outbox";
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private static final long DEFAULT_MAX_SEGMENT_BYTES = 4 * 1024 * 1024;
+    private static final int DEFAULT_MAX_PENDING_ENTRIES = 10_000;
+
+    @Nullable private static JiraEventOutbox instance;
+
+    private final Path directory;
+    private final long maxSegmentBytes;
+    private final int maxPendingEntries;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    // taken before this when both are needed, only one thread forces the disk at a time
+    private final Object syncLock = new Object();
+    // the number of lines known to be on disk
+    private final AtomicLong syncedLines = new AtomicLong();
+
+    // all of the following is guarded by this
+    private final SortedMap<Long, OutboxEntry> pending = new TreeMap<>();
+    private final Map<Long, Long> segmentOfEntry = new HashMap<>();
+    private final Map<String, Set<Long>> pendingByUpdateKey = new HashMap<>();
+    // number of pending entries of every segment on disk, by segment number
+    private final SortedMap<Long, Integer> pendingPerSegment = new TreeMap<>();
+    private long nextId = 1;
+    private long activeSegment;
+    @Nullable private FileChannel activeChannel;
+    private long activeSegmentBytes;
+    private long writtenLines;
+    private long supersededCount;
+
+    public static synchronized JiraEventOutbox get() {
+        if (instance == null) {
+            instance =
+                    new JiraEventOutbox(
+                            Jenkins.get().getRootDir().toPath().resolve(DIRECTORY_NAME),
+                            DEFAULT_MAX_SEGMENT_BYTES,
+                            DEFAULT_MAX_PENDING_ENTRIES);
+            PluginMetrics.get().registerGauge("outbox.pending", instance::getPendingCount);
+            PluginMetrics.get().registerGauge("outbox.superseded", instance::getSupersededCount);
+        }
+        return instance;
+    }
+
+    @VisibleForTesting
+    JiraEventOutbox(final Path directory, final long maxSegmentBytes, final int maxPendingEntries) {
+        this.directory = directory;
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.maxPendingEntries = maxPendingEntries;
+        try {
+            Files.createDirectories(directory);
+            load();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read the Jira event outbox in " + directory, e);
+        }
+    }
+
+    /**
+     * Records an event request before it is sent.
+     *
+     * @param updates - the update sequence number of every build or deployment in the request, see
+     *     {@link UpdateKeys}
+     * @return the ID to acknowledge the entry with, or empty if the entry couldn't be recorded
+     */
+    public OptionalLong append(
+            final String webhookUrl,
+            final String pipelineId,
+            final String requestBody,
+            final Map<String, Long> updates) {
+        final OutboxEntry entry;
+        final long entryLine;
+        synchronized (this) {
+            if (pending.size() >= maxPendingEntries) {
+                log.warn(
+                        String.format(
+                                "Jira event outbox already holds %d events, not recording the event of pipeline %s",
+                                pending.size(), pipelineId));
+                return OptionalLong.empty();
+            }
+
+            entry =
+                    new OutboxEntry(
+                            nextId,
+                            System.currentTimeMillis(),
+                            webhookUrl,
+                            pipelineId,
+                            requestBody,
+                            updates);
+            final ObjectNode line = objectMapper.createObjectNode();
+            line.set("entry", objectMapper.valueToTree(entry));
+            try {
+                write(line);
+            } catch (IOException e) {
+                log.error("Unable to record event in the Jira event outbox", e);
+                return OptionalLong.empty();
+            }
+            entryLine = writtenLines;
+
+            nextId++;
+            addPending(activeSegment, entry);
+            supersedeOlderEntries(entry);
+        }
+
+        try {
+            sync(entryLine);
+        } catch (IOException e) {
+            // the entry is still sent, it just might not survive a crash
+            log.error("Unable to force the Jira event outbox to disk", e);
+        }
+        return OptionalLong.of(entry.getId());
+    }
+
+    /** Marks an entry as done, because it has been sent or it should never be sent again. */
+    public synchronized void acknowledge(final long id) {
+        if (!removePending(id)) {
+            return;
+        }
+
+        final ObjectNode line = objectMapper.createObjectNode();
+        line.put("ack", id);
+        try {
+            write(line);
+        } catch (IOException e) {
+            // the entry will be sent again after a restart, which Jira tolerates
+            log.error("Unable to record acknowledgement in the Jira event outbox", e);
+        }
+        compact();
+    }
+
+    /** @return the entries that haven't been acknowledged yet, oldest first */
+    public synchronized List<OutboxEntry> getPending() {
+        return new ArrayList<>(pending.values());
+    }
+
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    /** @return the number of entries that were dropped because a later entry replaced them */
+    public synchronized long getSupersededCount() {
+        return supersededCount;
+    }
+
+    @VisibleForTesting
+    synchronized int getSegmentCount() {
+        return pendingPerSegment.size();
+    }
+
+    private void load() throws IOException {
+        final SortedMap<Long, Path> segments = new TreeMap<>();
+        try (DirectoryStream<Path> files =
+                Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (final Path file : files) {
+                parseSegmentNumber(file).ifPresent(number -> segments.put(number, file));
+            }
+        }
+
+        for (final Map.Entry<Long, Path> segment : segments.entrySet()) {
+            pendingPerSegment.put(segment.getKey(), 0);
+            for (final String line :
+                    Files.readAllLines(segment.getValue(), StandardCharsets.UTF_8)) {
+                loadLine(segment.getKey(), line);
+            }
+        }
+
+        activeSegment = segments.isEmpty() ? 1 : segments.lastKey() + 1;
+        compact();
+        if (!pending.isEmpty()) {
+            log.info(
+                    String.format(
+                            "Jira event outbox holds %d events that haven't been sent yet",
+                            pending.size()));
+        }
+    }
+
+    private void loadLine(final long segment, final String line) {
+        final JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (IOException e) {
+            // a line cut short by a crash
+            log.warn(String.format("Skipping unreadable line in Jira event outbox segment %d", segment));
+            return;
+        }
+        if (node == null) {
+            return;
+        }
+        if (node.has("entry")) {
+            final OutboxEntry entry;
+            try {
+                entry = objectMapper.treeToValue(node.get("entry"), OutboxEntry.class);
+            } catch (IOException e) {
+                log.warn(String.format("Skipping unreadable entry in Jira event outbox segment %d", segment));
+                return;
+            }
+            addPending(segment, entry);
+            nextId = Math.max(nextId, entry.getId() + 1);
+        } else if (node.has("ack")) {
+            removePending(node.get("ack").asLong());
+        }
+    }
+
+    private void addPending(final long segment, final OutboxEntry entry) {
+        pending.put(entry.getId(), entry);
+        segmentOfEntry.put(entry.getId(), segment);
+        pendingPerSegment.merge(segment, 1, Integer::sum);
+        entry.getUpdates()
+                .keySet()
+                .forEach(
+                        key ->
+                                pendingByUpdateKey
+                                        .computeIfAbsent(key, k -> new HashSet<>())
+                                        .add(entry.getId()));
+    }
+
+    private boolean removePending(final long id) {
+        final OutboxEntry entry = pending.remove(id);
+        if (entry == null) {
+            return false;
+        }
+        pendingPerSegment.merge(segmentOfEntry.remove(id), -1, Integer::sum);
+        for (final String key : entry.getUpdates().keySet()) {
+            final Set<Long> ids = pendingByUpdateKey.get(key);
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                pendingByUpdateKey.remove(key);
+            }
+        }
+        return true;
+    }
+
+    private void supersedeOlderEntries(final OutboxEntry newest) {
+        final Set<Long> candidates = new HashSet<>();
+        newest.getUpdates()
+                .keySet()
+                .forEach(key -> candidates.addAll(pendingByUpdateKey.get(key)));
+        candidates.remove(newest.getId());
+
+        for (final long id : candidates) {
+            if (isSupersededBy(pending.get(id), newest)) {
+                supersededCount++;
+                acknowledge(id);
+            }
+        }
+    }
+
+    private static boolean isSupersededBy(final OutboxEntry entry, final OutboxEntry newer) {
+        return entry.getUpdates().entrySet().stream()
+                .allMatch(
+                        update ->
+                                newer.getUpdates().getOrDefault(update.getKey(), Long.MIN_VALUE)
+                                        >= update.getValue());
+    }
+
+    private void write(final JsonNode line) throws IOException {
+        if (activeChannel == null || activeSegmentBytes >= maxSegmentBytes) {
+            startSegment();
+        }
+        final ByteBuffer bytes =
+                ByteBuffer.wrap(
+                        (objectMapper.writeValueAsString(line) + "\n")
+                                .getBytes(StandardCharsets.UTF_8));
+        activeSegmentBytes += bytes.remaining();
+        while (bytes.hasRemaining()) {
+            activeChannel.write(bytes);
+        }
+        writtenLines++;
+    }
+
+    /**
+     * Forces the lines written so far to disk, unless another thread has already done so since the
+     * given line was written. While one thread forces the disk the others wait, and then usually
+     * find their lines already forced.
+     */
+    private void sync(final long line) throws IOException {
+        synchronized (syncLock) {
+            if (syncedLines.get() >= line) {
+                return;
+            }
+            final long lines;
+            final FileChannel channel;
+            synchronized (this) {
+                lines = writtenLines;
+                channel = activeChannel;
+            }
+            try {
+                channel.force(false);
+            } catch (ClosedChannelException e) {
+                // a new segment was started, which forced the old one before closing it
+            }
+            syncedLines.accumulateAndGet(lines, Math::max);
+        }
+    }
+
+    private void startSegment() throws IOException {
+        if (activeChannel != null) {
+            activeChannel.force(false);
+            syncedLines.accumulateAndGet(writtenLines, Math::max);
+            activeChannel.close();
+            activeSegment++;
+        }
+        activeChannel =
+                FileChannel.open(
+                        segmentFile(activeSegment),
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE,
+                        StandardOpenOption.APPEND);
+        activeSegmentBytes = activeChannel.size();
+        pendingPerSegment.putIfAbsent(activeSegment, 0);
+        compact();
+    }
+
+    /** Deletes the oldest segments, up to the first one with pending entries or the active one. */
+    private void compact() {
+        while (!pendingPerSegment.isEmpty()) {
+            final long oldest = pendingPerSegment.firstKey();
+            if (oldest == activeSegment || pendingPerSegment.get(oldest) > 0) {
+                return;
+            }
+            try {
+                Files.deleteIfExists(segmentFile(oldest));
+            } catch (IOException e) {
+                log.warn("Unable to delete Jira event outbox segment " + oldest, e);
+                return;
+            }
+            pendingPerSegment.remove(oldest);
+        }
+    }
+
+    private Path segmentFile(final long segment) {
+        return directory.resolve(String.format("%s%012d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+    }
+
+    private static OptionalLong parseSegmentNumber(final Path file) {
+        final String name = file.getFileName().toString();
+        try {
+            return OptionalLong.of(
+                    Long.parseLong(
+                            name.substring(
+                                    SEGMENT_PREFIX.length(),
+                                    name.length() - SEGMENT_SUFFIX.length())));
+        } catch (NumberFormatException e) {
+            return OptionalLong.empty();
+        }
+    }
+}
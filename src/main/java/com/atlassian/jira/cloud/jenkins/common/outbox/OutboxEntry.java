@@ -0,0 +1,71 @@
+package com.atlassian.jira.cloud.jenkins.common.outbox;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import javax.annotation.Nullable;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Map;
+
+/** An event request to the Jenkins app in Jira, as recorded in the {@link JiraEventOutbox}. */
+public final class OutboxEntry {
+
+    private final long id;
+    private final long createdAtMillis;
+    private final String webhookUrl;
+    private final String pipelineId;
+    private final String requestBody;
+    private final Map<String, Long> updates;
+
+    @JsonCreator
+    public OutboxEntry(
+            @JsonProperty("id") final long id,
+            @JsonProperty("createdAtMillis") final long createdAtMillis,
+            @JsonProperty("webhookUrl") final String webhookUrl,
+            @JsonProperty("pipelineId") final String pipelineId,
+            @JsonProperty("requestBody") final String requestBody,
+            @JsonProperty("updates") @Nullable final Map<String, Long> updates) {
+        this.id = id;
+        this.createdAtMillis = createdAtMillis;
+        this.webhookUrl = webhookUrl;
+        this.pipelineId = pipelineId;
+        this.requestBody = requestBody;
+        this.updates = updates == null ? Collections.emptyMap() : updates;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+
+    @JsonIgnore
+    public Instant getCreatedAt() {
+        return Instant.ofEpochMilli(createdAtMillis);
+    }
+
+    public String getWebhookUrl() {
+        return webhookUrl;
+    }
+
+    public String getPipelineId() {
+        return pipelineId;
+    }
+
+    /** The serialized JenkinsAppEventRequest, as it is signed and sent to the webhook. */
+    public String getRequestBody() {
+        return requestBody;
+    }
+
+    /**
+     * The update sequence number of every build or deployment in the request. An entry is
+     * superseded by a later one that updates all of them with at least the same number.
+     */
+    public Map<String, Long> getUpdates() {
+        return updates;
+    }
+}
@@ -0,0 +1,58 @@
+package com.atlassian.jira.cloud.jenkins.common.outbox;
+
+import javax.annotation.Nullable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Collects which builds and deployments an event request updates, and with which update sequence
+ * number. A build is identified by its pipeline and build number, a deployment by its pipeline,
+ * environment and deployment sequence number; both are scoped to the webhook they are sent to.
+ */
+public final class UpdateKeys {
+
+    private final String webhookUrl;
+    private final Map<String, Long> updates = new HashMap<>();
+
+    public UpdateKeys(final String webhookUrl) {
+        this.webhookUrl = webhookUrl;
+    }
+
+    public UpdateKeys addBuild(
+            final String pipelineId,
+            final Integer buildNumber,
+            @Nullable final Long updateSequenceNumber) {
+        return put(updateSequenceNumber, "build", pipelineId, buildNumber);
+    }
+
+    public UpdateKeys addDeployment(
+            final String pipelineId,
+            final String environmentId,
+            final Integer deploymentSequenceNumber,
+            @Nullable final Long updateSequenceNumber) {
+        return put(
+                updateSequenceNumber,
+                "deployment",
+                pipelineId,
+                environmentId,
+                deploymentSequenceNumber);
+    }
+
+    /** @return the update sequence number by key of every build or deployment added */
+    public Map<String, Long> toMap() {
+        return new HashMap<>(updates);
+    }
+
+    private UpdateKeys put(@Nullable final Long updateSequenceNumber, final Object... keyParts) {
+        if (updateSequenceNumber == null) {
+            return this;
+        }
+        final StringBuilder key = new StringBuilder(webhookUrl);
+        for (final Object keyPart : keyParts) {
+            key.append(' ').append(Objects.toString(keyPart, ""));
+        }
+        updates.merge(key.toString(), updateSequenceNumber, Math::max);
+        return this;
+    }
+}
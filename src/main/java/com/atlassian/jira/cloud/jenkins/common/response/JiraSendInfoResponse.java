@@ -19,6 +19,7 @@ public abstract class JiraSendInfoResponse implements Serializable {
         FAILURE_SECRET_NOT_FOUND(true),
         FAILURE_SCM_REVISION_NOT_FOUND(true),
         FAILURE_SITE_NOT_FOUND(true),
+        FAILURE_SITE_TIMEOUT(true),
         FAILURE_ACCESS_TOKEN(true),
         FAILURE_BUILDS_API_RESPONSE(true),
         FAILURE_DEPLOYMENTS_API_RESPONSE(true),
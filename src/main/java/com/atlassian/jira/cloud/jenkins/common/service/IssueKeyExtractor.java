@@ -10,4 +10,13 @@ public interface IssueKeyExtractor {
     Integer ISSUE_KEY_MAX_LIMIT = 500;
 
     Set<String> extractIssueKeys(WorkflowRun workflowRun, final PipelineLogger pipelineLogger);
+
+    /**
+     * Whether {@link #extractIssueKeys} would find any issue key. Implementations stop looking at
+     * the first one they find.
+     */
+    default boolean hasAnyIssueKey(
+            final WorkflowRun workflowRun, final PipelineLogger pipelineLogger) {
+        return !extractIssueKeys(workflowRun, pipelineLogger).isEmpty();
+    }
 }
@@ -3,8 +3,10 @@ package com.atlassian.jira.cloud.jenkins.config;
 import com.atlassian.jira.cloud.jenkins.common.client.BadRequestException;
 import com.atlassian.jira.cloud.jenkins.exceptions.JiraConnectionFailedException;
 import com.atlassian.jira.cloud.jenkins.logging.PipelineLogger;
+import com.atlassian.jira.cloud.jenkins.metrics.PluginMetrics;
 import com.atlassian.jira.cloud.jenkins.ping.PingApi;
 import com.atlassian.jira.cloud.jenkins.pluginConfigApi.PluginConfigApi;
+import com.atlassian.jira.cloud.jenkins.provider.ObjectMapperProvider;
 import com.atlassian.jira.cloud.jenkins.tenantinfo.CloudIdResolver;
 import com.atlassian.jira.cloud.jenkins.util.SecretRetriever;
 import com.atlassian.jira.cloud.jenkins.util.SiteValidator;
@@ -124,6 +126,15 @@ public class ConfigManagementLink extends ManagementLink
         }
     }
 
+    /** Serves the plugin's metrics as JSON, for administrators only. */
+    public void doMetrics(final StaplerRequest req, final StaplerResponse res) throws IOException {
+        Jenkins.get().checkPermission(Jenkins.ADMINISTER);
+        res.setContentType("application/json;charset=UTF-8");
+        ObjectMapperProvider.getSharedObjectMapper()
+                .writerWithDefaultPrettyPrinter()
+                .writeValue(res.getWriter(), PluginMetrics.get().snapshot());
+    }
+
     public String getRegexFromFormData(final JSONObject formData, final String key) {
         if (!formData.has(key)) {
             return "";
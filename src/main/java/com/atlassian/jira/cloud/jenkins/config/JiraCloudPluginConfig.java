@@ -1,6 +1,9 @@
 package com.atlassian.jira.cloud.jenkins.config;
 
 import com.atlassian.jira.cloud.jenkins.Messages;
+import com.atlassian.jira.cloud.jenkins.provider.HttpClientProvider;
+import com.atlassian.jira.cloud.jenkins.provider.HttpClientSettings;
+import com.atlassian.jira.cloud.jenkins.util.EnvironmentTypeClassifier;
 import hudson.Extension;
 import jenkins.model.GlobalConfiguration;
 import net.sf.json.JSONArray;
@@ -10,6 +13,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nullable;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -27,9 +31,15 @@ public class JiraCloudPluginConfig extends GlobalConfiguration {
     public static final String FIELD_NAME_SITES = "sites";
     public static final String FIELD_NAME_AUTO_BUILDS_REGEX = "autoBuildsRegex";
     public static final String FIELD_NAME_AUTO_DEPLOYMENTS_REGEX = "autoDeploymentsRegex";
+    public static final String FIELD_NAME_ENVIRONMENT_TYPE_ALIASES = "environmentTypeAliases";
 
     public static final String FIELD_NAME_DEBUG_LOGGING = "debugLogging";
 
+    public static final String FIELD_NAME_CONNECTION_POOL_SIZE = "connectionPoolSize";
+    public static final String FIELD_NAME_CONNECTION_KEEP_ALIVE_SECONDS =
+            "connectionKeepAliveSeconds";
+    public static final String FIELD_NAME_HTTP2_ENABLED = "http2Enabled";
+
     private static final Logger log = LoggerFactory.getLogger(JiraCloudPluginConfig.class);
 
     private static final String ATL_JSW_GLOBAL_CONFIGURATION_ID = "atl-jsw-global-configuration";
@@ -43,10 +53,22 @@ public class JiraCloudPluginConfig extends GlobalConfiguration {
 
     private Boolean autoDeploymentsEnabled;
     private String autoDeploymentsRegex = "^deploy to (?<envName>.*)$";
+    private String environmentTypeAliases;
+
+    // built from the settings above whenever they are loaded or changed
+    private transient volatile StepPattern autoBuildsPattern = StepPattern.compile(null);
+    private transient volatile StepPattern autoDeploymentsPattern = StepPattern.compile(null);
+    private transient volatile EnvironmentTypeClassifier environmentTypeClassifier =
+            EnvironmentTypeClassifier.DEFAULT;
+
+    private Integer connectionPoolSize;
+    private Integer connectionKeepAliveSeconds;
+    private Boolean http2Enabled;
 
     public JiraCloudPluginConfig() {
         getConfigFile().getXStream().alias("atl-jsw-site-configuration", JiraCloudSiteConfig.class);
         load();
+        HttpClientProvider.setSharedSettings(getHttpClientSettings());
     }
 
     // Only for testing
@@ -68,51 +90,137 @@ public class JiraCloudPluginConfig extends GlobalConfiguration {
         return config.getDebugLogging();
     }
 
+    @Override
+    public synchronized void load() {
+        super.load();
+        autoBuildsPattern = StepPattern.compile(getAutoBuildsRegex());
+        autoDeploymentsPattern = StepPattern.compile(getAutoDeploymentsRegex());
+        autoBuildsPattern
+                .getError()
+                .ifPresent(error -> log.warn("Invalid pipeline step regex for builds: " + error));
+        autoDeploymentsPattern
+                .getError()
+                .ifPresent(
+                        error -> log.warn("Invalid pipeline step regex for deployments: " + error));
+        try {
+            environmentTypeClassifier =
+                    new EnvironmentTypeClassifier(
+                            EnvironmentTypeClassifier.parseAliases(getEnvironmentTypeAliases()));
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring invalid environment type aliases: " + e.getMessage());
+            environmentTypeClassifier = EnvironmentTypeClassifier.DEFAULT;
+        }
+    }
+
     @Override
     public boolean configure(final StaplerRequest req, final JSONObject json) throws FormException {
         try {
-            setSites(Collections.emptyList());
+            // every field is validated before any of them is assigned, so that an invalid one
+            // doesn't leave the configuration half changed
+            List<JiraCloudSiteConfig> sites = Collections.emptyList();
 
             if (json.containsKey(FIELD_NAME_SITES)) {
 
-                Object sites = json.get(FIELD_NAME_SITES);
+                Object sitesJson = json.get(FIELD_NAME_SITES);
 
                 // we have a single site
-                if (sites instanceof JSONObject) {
-                    this.sites =
+                if (sitesJson instanceof JSONObject) {
+                    sites =
                             Collections.singletonList(
-                                    req.bindJSON(JiraCloudSiteConfig.class, (JSONObject) sites));
+                                    req.bindJSON(
+                                            JiraCloudSiteConfig.class, (JSONObject) sitesJson));
                 }
 
                 // we have multiple sites
-                if (sites instanceof JSONArray) {
-                    this.sites = req.bindJSONToList(JiraCloudSiteConfig.class, sites);
+                if (sitesJson instanceof JSONArray) {
+                    sites = req.bindJSONToList(JiraCloudSiteConfig.class, sitesJson);
                 }
             }
 
-            this.autoBuildsEnabled = json.containsKey(FIELD_NAME_AUTO_BUILDS);
-            if (this.autoBuildsEnabled) {
-                this.autoBuildsRegex =
+            final boolean autoBuildsEnabled = json.containsKey(FIELD_NAME_AUTO_BUILDS);
+            String autoBuildsRegex = this.autoBuildsRegex;
+            StepPattern autoBuildsPattern = this.autoBuildsPattern;
+            if (autoBuildsEnabled) {
+                autoBuildsRegex =
                         json.getJSONObject(FIELD_NAME_AUTO_BUILDS)
                                 .getString(FIELD_NAME_AUTO_BUILDS_REGEX);
+                autoBuildsPattern =
+                        compileValid(autoBuildsRegex, "Builds", FIELD_NAME_AUTO_BUILDS_REGEX);
             }
 
-            this.autoDeploymentsEnabled = json.containsKey(FIELD_NAME_AUTO_DEPLOYMENTS);
-            if (this.autoDeploymentsEnabled) {
-                this.autoDeploymentsRegex =
+            final boolean autoDeploymentsEnabled = json.containsKey(FIELD_NAME_AUTO_DEPLOYMENTS);
+            String autoDeploymentsRegex = this.autoDeploymentsRegex;
+            StepPattern autoDeploymentsPattern = this.autoDeploymentsPattern;
+            String environmentTypeAliases = this.environmentTypeAliases;
+            EnvironmentTypeClassifier environmentTypeClassifier = this.environmentTypeClassifier;
+            if (autoDeploymentsEnabled) {
+                autoDeploymentsRegex =
                         json.getJSONObject(FIELD_NAME_AUTO_DEPLOYMENTS)
                                 .getString(FIELD_NAME_AUTO_DEPLOYMENTS_REGEX);
-                if (this.autoDeploymentsRegex == null
-                        || this.autoDeploymentsRegex.trim().isEmpty()) {
+                if (autoDeploymentsRegex == null || autoDeploymentsRegex.trim().isEmpty()) {
                     throw new FormException(
                             "Deployments RegEx must be provided!",
                             FIELD_NAME_AUTO_DEPLOYMENTS_REGEX);
                 }
+                autoDeploymentsPattern =
+                        compileValid(
+                                autoDeploymentsRegex,
+                                "Deployments",
+                                FIELD_NAME_AUTO_DEPLOYMENTS_REGEX);
+
+                final JSONObject autoDeployments = json.getJSONObject(FIELD_NAME_AUTO_DEPLOYMENTS);
+                if (autoDeployments.containsKey(FIELD_NAME_ENVIRONMENT_TYPE_ALIASES)) {
+                    environmentTypeAliases =
+                            autoDeployments.getString(FIELD_NAME_ENVIRONMENT_TYPE_ALIASES);
+                    try {
+                        environmentTypeClassifier =
+                                new EnvironmentTypeClassifier(
+                                        EnvironmentTypeClassifier.parseAliases(
+                                                environmentTypeAliases));
+                    } catch (IllegalArgumentException e) {
+                        throw new FormException(
+                                e.getMessage(), FIELD_NAME_ENVIRONMENT_TYPE_ALIASES);
+                    }
+                }
             }
 
+            Boolean debugLogging = this.debugLogging;
             if (json.containsKey(FIELD_NAME_DEBUG_LOGGING)) {
-                this.debugLogging = json.getBoolean(FIELD_NAME_DEBUG_LOGGING);
+                debugLogging = json.getBoolean(FIELD_NAME_DEBUG_LOGGING);
+            }
+
+            Integer connectionPoolSize = this.connectionPoolSize;
+            if (json.containsKey(FIELD_NAME_CONNECTION_POOL_SIZE)) {
+                connectionPoolSize =
+                        parsePositive(
+                                json.getString(FIELD_NAME_CONNECTION_POOL_SIZE),
+                                FIELD_NAME_CONNECTION_POOL_SIZE);
+            }
+            Integer connectionKeepAliveSeconds = this.connectionKeepAliveSeconds;
+            if (json.containsKey(FIELD_NAME_CONNECTION_KEEP_ALIVE_SECONDS)) {
+                connectionKeepAliveSeconds =
+                        parsePositive(
+                                json.getString(FIELD_NAME_CONNECTION_KEEP_ALIVE_SECONDS),
+                                FIELD_NAME_CONNECTION_KEEP_ALIVE_SECONDS);
             }
+            Boolean http2Enabled = this.http2Enabled;
+            if (json.containsKey(FIELD_NAME_HTTP2_ENABLED)) {
+                http2Enabled = json.getBoolean(FIELD_NAME_HTTP2_ENABLED);
+            }
+
+            this.sites = sites;
+            this.autoBuildsEnabled = autoBuildsEnabled;
+            this.autoBuildsRegex = autoBuildsRegex;
+            this.autoBuildsPattern = autoBuildsPattern;
+            this.autoDeploymentsEnabled = autoDeploymentsEnabled;
+            this.autoDeploymentsRegex = autoDeploymentsRegex;
+            this.autoDeploymentsPattern = autoDeploymentsPattern;
+            this.environmentTypeAliases = environmentTypeAliases;
+            this.environmentTypeClassifier = environmentTypeClassifier;
+            this.debugLogging = debugLogging;
+            this.connectionPoolSize = connectionPoolSize;
+            this.connectionKeepAliveSeconds = connectionKeepAliveSeconds;
+            this.http2Enabled = http2Enabled;
 
         } catch (Exception e) {
             log.debug("Submitting form to Atlassian Cloud plugin failed: ({})", e.getMessage(), e);
@@ -126,10 +234,36 @@ public class JiraCloudPluginConfig extends GlobalConfiguration {
                     "configs");
         }
         save();
+        HttpClientProvider.setSharedSettings(getHttpClientSettings());
 
         return true;
     }
 
+    private static StepPattern compileValid(
+            final String regex, final String eventType, final String fieldName)
+            throws FormException {
+        final StepPattern pattern = StepPattern.compile(regex);
+        if (pattern.getError().isPresent()) {
+            throw new FormException(
+                    String.format("%s RegEx is invalid: %s", eventType, pattern.getError().get()),
+                    fieldName);
+        }
+        return pattern;
+    }
+
+    private static Integer parsePositive(final String value, final String fieldName)
+            throws FormException {
+        try {
+            final int number = Integer.parseInt(value.trim());
+            if (number > 0) {
+                return number;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new FormException(fieldName + " must be a positive number", fieldName);
+    }
+
     @Override
     public String getId() {
         return ATL_JSW_GLOBAL_CONFIGURATION_ID;
@@ -149,6 +283,7 @@ public class JiraCloudPluginConfig extends GlobalConfiguration {
 
     public void setAutoBuildsRegex(@Nullable final String autoBuildsRegex) {
         this.autoBuildsRegex = autoBuildsRegex;
+        this.autoBuildsPattern = StepPattern.compile(autoBuildsRegex);
     }
 
     public Boolean getDebugLogging() {
@@ -161,6 +296,7 @@ public class JiraCloudPluginConfig extends GlobalConfiguration {
 
     public void setAutoDeploymentsRegex(final String autoDeploymentsRegex) {
         this.autoDeploymentsRegex = autoDeploymentsRegex;
+        this.autoDeploymentsPattern = StepPattern.compile(autoDeploymentsRegex);
     }
 
     public void setAutoDeploymentsEnabled(final boolean autoDeploymentsEnabled) {
@@ -208,6 +344,10 @@ public class JiraCloudPluginConfig extends GlobalConfiguration {
         return Optional.ofNullable(autoBuildsRegex).orElse("");
     }
 
+    public StepPattern getAutoBuildsPattern() {
+        return autoBuildsPattern;
+    }
+
     public boolean getAutoDeploymentsEnabled() {
         return Optional.ofNullable(autoDeploymentsEnabled).orElse(false);
     }
@@ -215,4 +355,58 @@ public class JiraCloudPluginConfig extends GlobalConfiguration {
     public String getAutoDeploymentsRegex() {
         return Optional.ofNullable(autoDeploymentsRegex).orElse("");
     }
+
+    public StepPattern getAutoDeploymentsPattern() {
+        return autoDeploymentsPattern;
+    }
+
+    public String getEnvironmentTypeAliases() {
+        return Optional.ofNullable(environmentTypeAliases).orElse("");
+    }
+
+    /** @throws IllegalArgumentException if the aliases can't be parsed */
+    public void setEnvironmentTypeAliases(final String environmentTypeAliases) {
+        this.environmentTypeClassifier =
+                new EnvironmentTypeClassifier(
+                        EnvironmentTypeClassifier.parseAliases(environmentTypeAliases));
+        this.environmentTypeAliases = environmentTypeAliases;
+    }
+
+    public EnvironmentTypeClassifier getEnvironmentTypeClassifier() {
+        return environmentTypeClassifier;
+    }
+
+    public int getConnectionPoolSize() {
+        return Optional.ofNullable(connectionPoolSize)
+                .orElse(HttpClientSettings.DEFAULTS.getMaxIdleConnections());
+    }
+
+    public void setConnectionPoolSize(final int connectionPoolSize) {
+        this.connectionPoolSize = connectionPoolSize;
+    }
+
+    public int getConnectionKeepAliveSeconds() {
+        return Optional.ofNullable(connectionKeepAliveSeconds)
+                .orElse((int) HttpClientSettings.DEFAULTS.getKeepAlive().getSeconds());
+    }
+
+    public void setConnectionKeepAliveSeconds(final int connectionKeepAliveSeconds) {
+        this.connectionKeepAliveSeconds = connectionKeepAliveSeconds;
+    }
+
+    public boolean getHttp2Enabled() {
+        return Optional.ofNullable(http2Enabled)
+                .orElse(HttpClientSettings.DEFAULTS.isHttp2Enabled());
+    }
+
+    public void setHttp2Enabled(final boolean http2Enabled) {
+        this.http2Enabled = http2Enabled;
+    }
+
+    public HttpClientSettings getHttpClientSettings() {
+        return new HttpClientSettings(
+                getConnectionPoolSize(),
+                Duration.ofSeconds(getConnectionKeepAliveSeconds()),
+                getHttp2Enabled());
+    }
 }
@@ -0,0 +1,60 @@
+package com.atlassian.jira.cloud.jenkins.config;
+
+import javax.annotation.Nullable;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * A configured regex for pipeline step names, compiled once when the configuration is loaded or
+ * changed rather than for every step of every pipeline.
+ *
+ * <p>Instances are immutable, so a pipeline keeps using the pattern that was configured when it
+ * started, even if the configuration changes while it's running.
+ */
+public final class StepPattern {
+
+    private final String regex;
+    @Nullable private final Pattern pattern;
+    @Nullable private final String error;
+
+    private StepPattern(
+            final String regex, @Nullable final Pattern pattern, @Nullable final String error) {
+        this.regex = regex;
+        this.pattern = pattern;
+        this.error = error;
+    }
+
+    public static StepPattern compile(@Nullable final String regex) {
+        final String nonNullRegex = Objects.toString(regex, "");
+        try {
+            return new StepPattern(nonNullRegex, Pattern.compile(nonNullRegex), null);
+        } catch (PatternSyntaxException e) {
+            return new StepPattern(nonNullRegex, null, e.getMessage());
+        }
+    }
+
+    public String getRegex() {
+        return regex;
+    }
+
+    public boolean isBlank() {
+        return regex.trim().isEmpty();
+    }
+
+    /** @return why the regex doesn't compile, or empty if it does */
+    public Optional<String> getError() {
+        return Optional.ofNullable(error);
+    }
+
+    /** @return the matcher if the step name matches, or empty if it doesn't or the regex is invalid */
+    public Optional<Matcher> match(final String stepName) {
+        if (pattern == null) {
+            return Optional.empty();
+        }
+        final Matcher matcher = pattern.matcher(stepName);
+        return matcher.matches() ? Optional.of(matcher) : Optional.empty();
+    }
+}
@@ -6,17 +6,29 @@ import com.atlassian.jira.cloud.jenkins.common.client.JenkinsAppEventRequest;
 import com.atlassian.jira.cloud.jenkins.common.client.JenkinsAppRequest;
 import com.atlassian.jira.cloud.jenkins.deploymentinfo.client.model.DeploymentApiResponse;
 import com.atlassian.jira.cloud.jenkins.deploymentinfo.client.model.Deployments;
+import com.atlassian.jira.cloud.jenkins.common.outbox.JiraEventOutbox;
+import com.atlassian.jira.cloud.jenkins.common.outbox.UpdateKeys;
 import com.atlassian.jira.cloud.jenkins.logging.PipelineLogger;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import okhttp3.OkHttpClient;
 import org.jetbrains.annotations.NotNull;
 
+import javax.annotation.Nullable;
+import java.util.Map;
+
 public class DeploymentsApi extends JenkinsAppApi<DeploymentApiResponse> {
 
     public DeploymentsApi(final OkHttpClient httpClient, final ObjectMapper objectMapper) {
         super(httpClient, objectMapper);
     }
 
+    public DeploymentsApi(
+            final OkHttpClient httpClient,
+            final ObjectMapper objectMapper,
+            @Nullable final JiraEventOutbox outbox) {
+        super(httpClient, objectMapper, outbox);
+    }
+
     public DeploymentApiResponse sendDeploymentAsJwt(
             final String webhookUrl,
             final Deployments deploymentsRequest,
@@ -29,6 +41,22 @@ public class DeploymentsApi extends JenkinsAppApi<DeploymentApiResponse> {
                 webhookUrl, secret, request, DeploymentApiResponse.class, pipelineLogger);
     }
 
+    @Override
+    protected Map<String, Long> getUpdateKeys(
+            final String webhookUrl, final JenkinsAppEventRequest eventRequest) {
+        final UpdateKeys updateKeys = new UpdateKeys(webhookUrl);
+        ((Deployments) eventRequest.getPayload())
+                .getDeployments()
+                .forEach(
+                        deployment ->
+                                updateKeys.addDeployment(
+                                        deployment.getPipeline().getId(),
+                                        deployment.getEnvironment().getId(),
+                                        deployment.getDeploymentSequenceNumber(),
+                                        deployment.getUpdateSequenceNumber()));
+        return updateKeys.toMap();
+    }
+
     @NotNull
     private JenkinsAppRequest createRequest(final Deployments deploymentsRequest) {
         return new JenkinsAppEventRequest(
@@ -8,6 +8,7 @@ import com.atlassian.jira.cloud.jenkins.config.JiraCloudSiteConfig;
 import com.atlassian.jira.cloud.jenkins.deploymentinfo.client.model.State;
 import com.atlassian.jira.cloud.jenkins.deploymentinfo.service.JiraDeploymentInfoRequest;
 import com.atlassian.jira.cloud.jenkins.logging.PipelineLogger;
+import com.atlassian.jira.cloud.jenkins.util.EnvironmentTypeClassifier;
 import com.google.common.collect.ImmutableSet;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import hudson.Extension;
@@ -174,10 +175,9 @@ public class JiraSendDeploymentInfoStep extends Step implements Serializable {
         @SuppressWarnings("unused")
         public ListBoxModel doFillEnvironmentTypeItems() {
             ListBoxModel items = new ListBoxModel();
-            items.add("development", "development");
-            items.add("testing", "testing");
-            items.add("staging", "staging");
-            items.add("production", "production");
+            for (String environmentType : EnvironmentTypeClassifier.ENVIRONMENT_TYPES) {
+                items.add(environmentType, environmentType);
+            }
 
             return items;
         }
@@ -1,8 +1,8 @@
 package com.atlassian.jira.cloud.jenkins.deploymentinfo.service;
 
-import com.atlassian.jira.cloud.jenkins.common.model.IssueKey;
 import com.atlassian.jira.cloud.jenkins.common.service.IssueKeyExtractor;
 import com.atlassian.jira.cloud.jenkins.logging.PipelineLogger;
+import com.atlassian.jira.cloud.jenkins.util.ChangeLogIssueKeyReader;
 import com.atlassian.jira.cloud.jenkins.util.IssueKeyStringExtractor;
 import hudson.model.Result;
 import hudson.model.Run;
@@ -11,11 +11,11 @@ import hudson.scm.ChangeLogSet;
 import org.jenkinsci.plugins.workflow.job.WorkflowRun;
 
 import javax.annotation.CheckForNull;
-import java.util.Arrays;
+import java.io.IOException;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.ArrayList;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -23,24 +23,120 @@ import java.util.stream.Collectors;
 /**
  * Parses the change log from the current build and extracts the issue keys from the commit
  * messages. It also tries to extract from squashed commits.
+ *
+ * <p>Where possible the issue keys are read straight from the change log files with {@link
+ * ChangeLogIssueKeyReader} instead of parsing them into change sets.
+ *
+ * <p>Issue keys of previous builds are taken from their {@link IssueKeyIndexAction}, which {@link
+ * #indexIssueKeys} adds when a build completes. Only builds from before the index existed are
+ * loaded and their change logs parsed.
  */
 public final class ChangeLogIssueKeyExtractor implements IssueKeyExtractor {
 
     public Set<String> extractIssueKeys(
             final WorkflowRun workflowRun, final PipelineLogger pipelineLogger) {
 
-        final Set<IssueKey> allIssueKeys = new HashSet<>();
-        final List<ChangeLogSet<? extends ChangeLogSet.Entry>> changeSets =
-                new ArrayList<>(workflowRun.getChangeSets());
+        final Optional<Set<String>> changeSetIssueKeys =
+                changeSetIssueKeys(workflowRun, pipelineLogger);
+        final Set<String> allIssueKeys =
+                new HashSet<>(changeSetIssueKeys.orElse(Collections.emptySet()));
 
         // When promoting a deployment or deploying to another environment, the Git change set won't be available.
         // This is because Jenkins checks for Git changes since the last build, and there won't be any.
         // To address this, we traverse back to retrieve the last change so we have the changes to inspect for issue keys
-        if (changeSets.size() == 0) {
-            addFirstNonEmptyChangeSetFromPreviousBuilds(workflowRun, changeSets);
+        if (!changeSetIssueKeys.isPresent()) {
+            allIssueKeys.addAll(lastChangeSetIssueKeysBefore(workflowRun, pipelineLogger));
         }
         // Go through all previously failed builds and collect their changesets.
-        addChangeSetsFromFailedPreviousBuilds(workflowRun, changeSets);
+        allIssueKeys.addAll(unsuccessfulStreakIssueKeysBefore(workflowRun, pipelineLogger));
+
+        return limit(allIssueKeys);
+    }
+
+    /** Looks at previous builds only if the build's own change sets have no issue key. */
+    @Override
+    public boolean hasAnyIssueKey(
+            final WorkflowRun workflowRun, final PipelineLogger pipelineLogger) {
+        final Optional<Set<String>> readIssueKeys =
+                ChangeLogIssueKeyReader.readIssueKeys(workflowRun, 1);
+        final boolean hasChangeSets;
+        if (readIssueKeys.isPresent()) {
+            if (!readIssueKeys.get().isEmpty()) {
+                return true;
+            }
+            hasChangeSets = true;
+        } else {
+            final List<ChangeLogSet<? extends ChangeLogSet.Entry>> changeSets =
+                    workflowRun.getChangeSets();
+            if (containsIssueKey(changeSets)) {
+                return true;
+            }
+            hasChangeSets = !changeSets.isEmpty();
+        }
+        if (!hasChangeSets
+                && !lastChangeSetIssueKeysBefore(workflowRun, pipelineLogger).isEmpty()) {
+            return true;
+        }
+        return !unsuccessfulStreakIssueKeysBefore(workflowRun, pipelineLogger).isEmpty();
+    }
+
+    /**
+     * Saves the issue keys of a completed run with it, for the runs that follow. Needs the run's
+     * result, so only call it once the run has completed.
+     */
+    public void indexIssueKeys(final WorkflowRun workflowRun, final PipelineLogger pipelineLogger)
+            throws IOException {
+        final Optional<Set<String>> changeSetIssueKeys =
+                changeSetIssueKeys(workflowRun, pipelineLogger);
+        final Set<String> issueKeys = limit(changeSetIssueKeys.orElse(Collections.emptySet()));
+
+        final Set<String> previousChangeSetIssueKeys =
+                changeSetIssueKeys.isPresent()
+                        ? Collections.emptySet()
+                        : lastChangeSetIssueKeysBefore(workflowRun, pipelineLogger);
+
+        final Set<String> unsuccessfulStreakIssueKeys = new HashSet<>();
+        if (!isBuildSuccessful(workflowRun)) {
+            unsuccessfulStreakIssueKeys.addAll(issueKeys);
+            unsuccessfulStreakIssueKeys.addAll(
+                    unsuccessfulStreakIssueKeysBefore(workflowRun, pipelineLogger));
+        }
+
+        workflowRun.addOrReplaceAction(
+                new IssueKeyIndexAction(
+                        changeSetIssueKeys.isPresent(),
+                        issueKeys,
+                        previousChangeSetIssueKeys,
+                        limit(unsuccessfulStreakIssueKeys)));
+        workflowRun.save();
+    }
+
+    /**
+     * @return the issue keys of the run's own change sets, read from its change log files where
+     *     possible, or nothing if the run has no change sets
+     */
+    private Optional<Set<String>> changeSetIssueKeys(
+            final WorkflowRun workflowRun, final PipelineLogger pipelineLogger) {
+        final Optional<Set<String>> readIssueKeys =
+                ChangeLogIssueKeyReader.readIssueKeys(workflowRun, ISSUE_KEY_MAX_LIMIT);
+        if (readIssueKeys.isPresent()) {
+            pipelineLogger.debug(
+                    String.format(
+                            "Read issue keys from the change log files: %s", readIssueKeys.get()));
+            return readIssueKeys;
+        }
+        final List<ChangeLogSet<? extends ChangeLogSet.Entry>> changeSets =
+                workflowRun.getChangeSets();
+        if (changeSets.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(extractIssueKeys(changeSets, pipelineLogger));
+    }
+
+    private Set<String> extractIssueKeys(
+            final List<ChangeLogSet<? extends ChangeLogSet.Entry>> changeSets,
+            final PipelineLogger pipelineLogger) {
+        final Set<String> allIssueKeys = new HashSet<>();
 
         for (ChangeLogSet<? extends ChangeLogSet.Entry> changeSet : changeSets) {
             final Object[] changeSetEntries = changeSet.getItems();
@@ -49,23 +145,24 @@ public final class ChangeLogIssueKeyExtractor implements IssueKeyExtractor {
 
                 if (changeSetEntry instanceof GitChangeSet) {
                     String comment = ((GitChangeSet) changeSetEntry).getComment();
-                    Set<IssueKey> issueKeys = IssueKeyStringExtractor.extractIssueKeys(comment);
-                    allIssueKeys.addAll(issueKeys);
+                    IssueKeyStringExtractor.collectIssueKeys(
+                            comment, allIssueKeys, ISSUE_KEY_MAX_LIMIT);
                     pipelineLogger.debug(
                             String.format(
-                                    "Extracted issue keys from GitChangeSet comment '%s': %s",
-                                    comment, Arrays.toString(issueKeys.toArray())));
+                                    "Extracted issue keys from GitChangeSet comment '%s', issue keys so far: %s",
+                                    comment, allIssueKeys));
                 }
 
                 String message = changeSetEntry.getMsg();
-                Set<IssueKey> issueKeys = IssueKeyStringExtractor.extractIssueKeys(message);
-                allIssueKeys.addAll(issueKeys);
+                final boolean limitReached =
+                        IssueKeyStringExtractor.collectIssueKeys(
+                                message, allIssueKeys, ISSUE_KEY_MAX_LIMIT);
                 pipelineLogger.debug(
                         String.format(
-                                "Extracted issue keys from ChangeLogSet message '%s': %s",
-                                message, Arrays.toString(issueKeys.toArray())));
+                                "Extracted issue keys from ChangeLogSet message '%s', issue keys so far: %s",
+                                message, allIssueKeys));
 
-                if (allIssueKeys.size() >= ISSUE_KEY_MAX_LIMIT) {
+                if (limitReached) {
                     pipelineLogger.warn(
                             String.format(
                                     "Not extracting any more issues as the maximum of %d has been reached!",
@@ -75,33 +172,65 @@ public final class ChangeLogIssueKeyExtractor implements IssueKeyExtractor {
             }
         }
 
-        return allIssueKeys
-                .stream()
-                .limit(ISSUE_KEY_MAX_LIMIT)
-                .map(IssueKey::toString)
-                .collect(Collectors.toSet());
+        return allIssueKeys;
     }
 
-    private void addFirstNonEmptyChangeSetFromPreviousBuilds(
-            final WorkflowRun workflowRun,
+    private static boolean containsIssueKey(
             final List<ChangeLogSet<? extends ChangeLogSet.Entry>> changeSets) {
+        for (ChangeLogSet<? extends ChangeLogSet.Entry> changeSet : changeSets) {
+            for (Object item : changeSet.getItems()) {
+                final ChangeLogSet.Entry changeSetEntry = (ChangeLogSet.Entry) item;
+                if ((changeSetEntry instanceof GitChangeSet
+                                && IssueKeyStringExtractor.containsIssueKey(
+                                        ((GitChangeSet) changeSetEntry).getComment()))
+                        || IssueKeyStringExtractor.containsIssueKey(changeSetEntry.getMsg())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /** @return the issue keys of the first previous build with change sets */
+    private Set<String> lastChangeSetIssueKeysBefore(
+            final WorkflowRun workflowRun, final PipelineLogger pipelineLogger) {
 
         WorkflowRun previous = workflowRun.getPreviousBuild();
-        while (Objects.nonNull(previous) && changeSets.isEmpty()) {
-            changeSets.addAll(previous.getChangeSets());
+        while (Objects.nonNull(previous)) {
+            final IssueKeyIndexAction index = previous.getAction(IssueKeyIndexAction.class);
+            if (index != null) {
+                return index.getLastChangeSetIssueKeys();
+            }
+            final Optional<Set<String>> changeSetIssueKeys =
+                    changeSetIssueKeys(previous, pipelineLogger);
+            if (changeSetIssueKeys.isPresent()) {
+                return changeSetIssueKeys.get();
+            }
             previous = previous.getPreviousBuild();
         }
+        return Collections.emptySet();
     }
 
-    private void addChangeSetsFromFailedPreviousBuilds(
-            final WorkflowRun workflowRun,
-            final List<ChangeLogSet<? extends ChangeLogSet.Entry>> changeSets) {
+    /** @return the issue keys of the unsuccessful builds right before the given one */
+    private Set<String> unsuccessfulStreakIssueKeysBefore(
+            final WorkflowRun workflowRun, final PipelineLogger pipelineLogger) {
 
+        final Set<String> issueKeys = new HashSet<>();
         WorkflowRun previous = workflowRun.getPreviousBuild();
         while (Objects.nonNull(previous) && !isBuildSuccessful(previous)) {
-            changeSets.addAll(previous.getChangeSets());
+            final IssueKeyIndexAction index = previous.getAction(IssueKeyIndexAction.class);
+            if (index != null) {
+                issueKeys.addAll(index.getUnsuccessfulStreakIssueKeys());
+                break;
+            }
+            changeSetIssueKeys(previous, pipelineLogger).ifPresent(issueKeys::addAll);
             previous = previous.getPreviousBuild();
         }
+        return issueKeys;
+    }
+
+    private static Set<String> limit(final Set<String> issueKeys) {
+        return issueKeys.stream().limit(ISSUE_KEY_MAX_LIMIT).collect(Collectors.toSet());
     }
 
     private boolean isBuildSuccessful(@CheckForNull final WorkflowRun workflowRun) {
@@ -1,6 +1,7 @@
 package com.atlassian.jira.cloud.jenkins.deploymentinfo.service;
 
 import com.atlassian.jira.cloud.jenkins.deploymentinfo.client.model.Environment;
+import com.atlassian.jira.cloud.jenkins.util.EnvironmentTypeClassifier;
 import com.google.common.collect.ImmutableSet;
 import org.apache.commons.lang.StringUtils;
 
@@ -11,7 +12,10 @@ import java.util.Set;
 public final class EnvironmentValidator {
 
     private static final Set<String> ALLOWED_ENVS =
-            ImmutableSet.of("development", "testing", "staging", "production", "unmapped");
+            ImmutableSet.<String>builder()
+                    .addAll(EnvironmentTypeClassifier.ENVIRONMENT_TYPES)
+                    .add("unmapped")
+                    .build();
 
     public static List<String> validate(final Environment environment) {
         final List<String> errorMessages = new ArrayList<>();
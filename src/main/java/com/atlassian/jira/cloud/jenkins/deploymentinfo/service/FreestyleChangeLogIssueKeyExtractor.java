@@ -3,12 +3,14 @@ package com.atlassian.jira.cloud.jenkins.deploymentinfo.service;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 import com.atlassian.jira.cloud.jenkins.common.model.IssueKey;
 import com.atlassian.jira.cloud.jenkins.common.service.FreestyleIssueKeyExtractor;
 import com.atlassian.jira.cloud.jenkins.logging.PipelineLogger;
+import com.atlassian.jira.cloud.jenkins.util.ChangeLogIssueKeyReader;
 import com.atlassian.jira.cloud.jenkins.util.IssueKeyStringExtractor;
 
 import hudson.model.AbstractBuild;
@@ -19,7 +21,19 @@ public class FreestyleChangeLogIssueKeyExtractor implements FreestyleIssueKeyExt
     @Override
     public Set<String> extractIssueKeys(
             final AbstractBuild<?, ?> freestyleBuild, final PipelineLogger pipelineLogger) {
+        final Optional<Set<String>> readIssueKeys =
+                ChangeLogIssueKeyReader.readIssueKeys(freestyleBuild, ISSUE_KEY_MAX_LIMIT);
+        if (readIssueKeys.isPresent()) {
+            pipelineLogger.debug(
+                    String.format(
+                            "Read issue keys from the change log file: %s", readIssueKeys.get()));
+            return readIssueKeys.get();
+        }
+        return extractIssueKeysFromChangeSets(freestyleBuild, pipelineLogger);
+    }
 
+    private Set<String> extractIssueKeysFromChangeSets(
+            final AbstractBuild<?, ?> freestyleBuild, final PipelineLogger pipelineLogger) {
         final Set<IssueKey> allIssueKeys = new HashSet<>();
         final List<ChangeLogSet<? extends ChangeLogSet.Entry>> changeSets =
                 freestyleBuild.getChangeSets();
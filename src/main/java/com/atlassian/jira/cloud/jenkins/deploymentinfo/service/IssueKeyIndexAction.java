@@ -0,0 +1,58 @@
+package com.atlassian.jira.cloud.jenkins.deploymentinfo.service;
+
+import hudson.model.InvisibleAction;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * The issue keys of the change sets of a completed run, saved with the run so that {@link
+ * ChangeLogIssueKeyExtractor} can look them up for the runs that follow instead of loading and
+ * parsing the change logs of older runs.
+ *
+ * <p>Besides the run's own issue keys it keeps what the next run would otherwise have to walk back
+ * through older runs for: the issue keys of the most recent run with change sets, and those of the
+ * unsuccessful runs since the last successful one.
+ */
+public final class IssueKeyIndexAction extends InvisibleAction {
+
+    private final boolean hasChangeSets;
+    private final TreeSet<String> issueKeys;
+    // only when the run has no change sets, otherwise they're the same as the run's own
+    private final TreeSet<String> previousChangeSetIssueKeys;
+    private final TreeSet<String> unsuccessfulStreakIssueKeys;
+
+    IssueKeyIndexAction(
+            final boolean hasChangeSets,
+            final Set<String> issueKeys,
+            final Set<String> previousChangeSetIssueKeys,
+            final Set<String> unsuccessfulStreakIssueKeys) {
+        this.hasChangeSets = hasChangeSets;
+        this.issueKeys = new TreeSet<>(issueKeys);
+        this.previousChangeSetIssueKeys = new TreeSet<>(previousChangeSetIssueKeys);
+        this.unsuccessfulStreakIssueKeys = new TreeSet<>(unsuccessfulStreakIssueKeys);
+    }
+
+    public boolean hasChangeSets() {
+        return hasChangeSets;
+    }
+
+    /** @return the issue keys of the run's own change sets */
+    public Set<String> getIssueKeys() {
+        return Collections.unmodifiableSet(issueKeys);
+    }
+
+    /** @return the issue keys of this run or, if it has no change sets, the last run that had some */
+    public Set<String> getLastChangeSetIssueKeys() {
+        return Collections.unmodifiableSet(hasChangeSets ? issueKeys : previousChangeSetIssueKeys);
+    }
+
+    /**
+     * @return the issue keys of this run and the unsuccessful runs before it, or none if this run
+     *     was successful
+     */
+    public Set<String> getUnsuccessfulStreakIssueKeys() {
+        return Collections.unmodifiableSet(unsuccessfulStreakIssueKeys);
+    }
+}
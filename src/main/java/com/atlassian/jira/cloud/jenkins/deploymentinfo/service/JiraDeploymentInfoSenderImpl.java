@@ -2,6 +2,7 @@ package com.atlassian.jira.cloud.jenkins.deploymentinfo.service;
 
 import com.atlassian.jira.cloud.jenkins.common.client.ApiUpdateFailedException;
 import com.atlassian.jira.cloud.jenkins.common.config.JiraSiteConfigRetriever;
+import com.atlassian.jira.cloud.jenkins.common.dispatch.JiraSiteFanOut;
 import com.atlassian.jira.cloud.jenkins.common.response.JiraCommonResponse;
 import com.atlassian.jira.cloud.jenkins.common.response.JiraSendInfoResponse;
 import com.atlassian.jira.cloud.jenkins.common.service.IssueKeyExtractor;
@@ -59,6 +60,7 @@ public class JiraDeploymentInfoSenderImpl implements JiraDeploymentInfoSender {
     private final DeploymentsApi deploymentsApi;
     private final RunWrapperProvider runWrapperProvider;
     private final IssueKeyExtractor issueKeyExtractor;
+    private final JiraSiteFanOut siteFanOut = JiraSiteFanOut.get();
 
     public JiraDeploymentInfoSenderImpl(
             final JiraSiteConfigRetriever siteConfigRetriever,
@@ -84,20 +86,21 @@ public class JiraDeploymentInfoSenderImpl implements JiraDeploymentInfoSender {
             if (jiraSites.size() >= 2 && request.getEnableGating()) {
                 responses.add(JiraDeploymentInfoResponse.failureGatingManyJiras());
             } else {
-                for (final String jiraSite : jiraSites) {
-                    final Optional<JiraCloudSiteConfig> maybeSiteConfig =
-                            getSiteConfigFor(jiraSite);
-
-                    responses.add(
-                            maybeSiteConfig
-                                    .map(
-                                            siteConfig ->
-                                                    sendDeploymentInfoToJiraSite(
-                                                            siteConfig, request, pipelineLogger))
-                                    .orElse(
-                                            JiraCommonResponse.failureSiteConfigNotFound(
-                                                    jiraSite)));
-                }
+                responses.addAll(
+                        siteFanOut.sendToAll(
+                                jiraSites,
+                                jiraSite ->
+                                        getSiteConfigFor(jiraSite)
+                                                .map(
+                                                        siteConfig ->
+                                                                sendDeploymentInfoToJiraSite(
+                                                                        siteConfig,
+                                                                        request,
+                                                                        pipelineLogger))
+                                                .orElse(
+                                                        JiraCommonResponse
+                                                                .failureSiteConfigNotFound(
+                                                                        jiraSite))));
             }
         } else {
             final Optional<JiraCloudSiteConfig> maybeSiteConfig =
@@ -1,9 +1,12 @@
 package com.atlassian.jira.cloud.jenkins.listeners;
 
+import com.atlassian.jira.cloud.jenkins.buildinfo.service.JiraBuildInfoSender;
 import com.atlassian.jira.cloud.jenkins.buildinfo.service.MultibranchBuildInfoRequest;
+import com.atlassian.jira.cloud.jenkins.common.config.JiraSiteConfigRetrieverImpl;
+import com.atlassian.jira.cloud.jenkins.common.dispatch.JiraEventDispatcher;
 import com.atlassian.jira.cloud.jenkins.common.factory.JiraSenderFactory;
-import com.atlassian.jira.cloud.jenkins.common.response.JiraSendInfoResponse;
 import com.atlassian.jira.cloud.jenkins.common.service.IssueKeyExtractor;
+import com.atlassian.jira.cloud.jenkins.config.StepPattern;
 import com.atlassian.jira.cloud.jenkins.deploymentinfo.client.model.State;
 import com.atlassian.jira.cloud.jenkins.util.JenkinsToJiraStatus;
 import com.atlassian.jira.cloud.jenkins.logging.PipelineLogger;
@@ -16,10 +19,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.util.List;
 import java.util.Optional;
-import java.util.regex.Pattern;
-import java.util.regex.PatternSyntaxException;
 
 /**
  * This class should listen to the events from Jenkins pipeline and send 2 builds: one in
@@ -35,10 +35,11 @@ import java.util.regex.PatternSyntaxException;
  */
 public class AutoBuildsListener implements SinglePipelineListener {
     private final WorkflowRun build;
-    private final String autoBuildsRegex;
+    private final StepPattern autoBuildsPattern;
 
     private final IssueKeyExtractor issueKeyExtractor;
     private final PipelineLogger pipelineLogger;
+    private final PendingJiraEvents pendingEvents;
 
     private boolean inProgressSent = false;
     private boolean finalResultSent = false;
@@ -49,12 +50,18 @@ public class AutoBuildsListener implements SinglePipelineListener {
     public AutoBuildsListener(
             final WorkflowRun run,
             final PipelineLogger logger,
-            final String autoBuildsRegex,
+            final StepPattern autoBuildsPattern,
             final IssueKeyExtractor issueKeyExtractor) {
         this.build = run;
         this.pipelineLogger = logger;
-        this.autoBuildsRegex = autoBuildsRegex;
+        this.autoBuildsPattern = autoBuildsPattern;
         this.issueKeyExtractor = issueKeyExtractor;
+        this.pendingEvents =
+                new PendingJiraEvents(
+                        JiraEventDispatcher.get(), new JiraSiteConfigRetrieverImpl(), logger);
+        autoBuildsPattern
+                .getError()
+                .ifPresent(error -> logger.warn("Invalid pipeline step regex for builds: " + error));
     }
 
     public String getBuildUrl() {
@@ -63,6 +70,16 @@ public class AutoBuildsListener implements SinglePipelineListener {
 
     public void onCompleted() {
         maybeSendDataToJira(true);
+        pendingEvents.awaitCompletion();
+    }
+
+    /**
+     * Any node may be the one after which issue keys are found or the end node's result is ready,
+     * so all of them matter until there's nothing left to send before the build completes.
+     */
+    @Override
+    public boolean isInterestedIn(final FlowNode flowNode) {
+        return !finalResultSent && !(autoBuildsPattern.isBlank() && inProgressSent);
     }
 
     /**
@@ -78,7 +95,7 @@ public class AutoBuildsListener implements SinglePipelineListener {
      * flickering and then we send the update.
      */
     public void onNewHead(final FlowNode flowNode) {
-        if (!autoBuildsRegex.trim().isEmpty()) {
+        if (!autoBuildsPattern.isBlank()) {
             tryToDefineStartAndStopNodeIds(flowNode);
         }
 
@@ -90,7 +107,8 @@ public class AutoBuildsListener implements SinglePipelineListener {
                 flowNode instanceof StepStartNode ? (StepStartNode) flowNode : null;
         final StepEndNode endNode = flowNode instanceof StepEndNode ? (StepEndNode) flowNode : null;
 
-        if (startNode != null && matchesRegex(autoBuildsRegex, startNode.getDisplayName())) {
+        if (startNode != null
+                && autoBuildsPattern.match(startNode.getDisplayName()).isPresent()) {
             pipelineLogger.debug(
                     "build start node was determined: "
                             + startNode.getId()
@@ -115,7 +133,7 @@ public class AutoBuildsListener implements SinglePipelineListener {
             return;
         }
         pipelineLogger.debug("Checking for issue keys for this build ... ");
-        if (issueKeyExtractor.extractIssueKeys(this.build, pipelineLogger).isEmpty()) {
+        if (!issueKeyExtractor.hasAnyIssueKey(this.build, pipelineLogger)) {
             // We don't have issueKeys at the start of the execution of the pipeline, need to wait
             // for them first
             pipelineLogger.debug(
@@ -126,7 +144,7 @@ public class AutoBuildsListener implements SinglePipelineListener {
         pipelineLogger.debug(
                 "Found issue keys for this build! Deciding whether to send information to Jira now.");
 
-        if (autoBuildsRegex.trim().isEmpty()) {
+        if (autoBuildsPattern.isBlank()) {
             pipelineLogger.debug("Pipeline step regex for builds is empty!");
             if (isOnCompleted) {
                 pipelineLogger.debug("Sending final build event (isOnCompleted == true))");
@@ -144,7 +162,8 @@ public class AutoBuildsListener implements SinglePipelineListener {
         } else {
             pipelineLogger.debug(
                     String.format(
-                            "Pipeline step regex for builds is set to '%s'", autoBuildsRegex));
+                            "Pipeline step regex for builds is set to '%s'",
+                            autoBuildsPattern.getRegex()));
             if (isOnCompleted) {
                 pipelineLogger.debug("Sending final build event (isOnCompleted == true))");
                 finalResultSent = true;
@@ -166,16 +185,6 @@ public class AutoBuildsListener implements SinglePipelineListener {
         }
     }
 
-    private boolean matchesRegex(final String autoBuildsRegex, final String displayName) {
-        try {
-            return Pattern.compile(autoBuildsRegex).matcher(displayName).matches();
-        } catch (final PatternSyntaxException exception) {
-            final String message = "PatternSyntaxException: " + exception.getMessage();
-            pipelineLogger.warn(message, exception);
-            return false;
-        }
-    }
-
     /**
      * Checks if a node with id=endFlowNodeId has finished execution and the result is ready to be
      * sent to Jira
@@ -214,12 +223,12 @@ public class AutoBuildsListener implements SinglePipelineListener {
             justification = "There is a null check, but SpotBugs doesn't recognize it")
     private void sendBuildStatusToJira(final Optional<String> maybeStatusNodeId) {
 
-        if (!autoBuildsRegex.trim().isEmpty() && startFlowNodeId.isEmpty()) {
+        if (!autoBuildsPattern.isBlank() && startFlowNodeId.isEmpty()) {
             // no node matched the regex, so we're not going to send any events to Jira
             pipelineLogger.warn(
                     String.format(
                             "No build step matched the pipeline step regex for builds ('%s'). Not sending any events to Jira",
-                            autoBuildsRegex));
+                            autoBuildsPattern.getRegex()));
             return;
         }
 
@@ -255,20 +264,13 @@ public class AutoBuildsListener implements SinglePipelineListener {
             }
         }
 
-        final List<JiraSendInfoResponse> allResponses =
-                JiraSenderFactory.getInstance()
-                        .getJiraBuildInfoSender()
-                        .sendBuildInfo(
-                                new MultibranchBuildInfoRequest(null, "", build, maybeStatusNode),
-                                pipelineLogger);
-        allResponses.forEach(
-                response -> {
-                    final String message = response.getStatus() + ": " + response.getMessage();
-                    if (response.getStatus().isFailure) {
-                        pipelineLogger.warn(message);
-                    } else {
-                        pipelineLogger.info(message);
-                    }
-                });
+        // only the Jira state is taken from the status node right now; the rest of the payload,
+        // e.g. the issue keys and the duration, is read from the live run when the event is sent
+        final JiraBuildInfoSender sender = JiraSenderFactory.getInstance().getJiraBuildInfoSender();
+        final Optional<FlowNode> statusNode = maybeStatusNode;
+        pendingEvents.dispatchBuildToAllSites(
+                "build " + build.getUrl(),
+                jiraSite -> new MultibranchBuildInfoRequest(jiraSite, "", build, statusNode),
+                sender);
     }
 }
@@ -1,7 +1,9 @@
 package com.atlassian.jira.cloud.jenkins.listeners;
 
 import com.atlassian.jira.cloud.jenkins.common.service.IssueKeyExtractor;
+import com.atlassian.jira.cloud.jenkins.config.StepPattern;
 import com.atlassian.jira.cloud.jenkins.logging.PipelineLogger;
+import com.atlassian.jira.cloud.jenkins.util.EnvironmentTypeClassifier;
 import org.jenkinsci.plugins.workflow.cps.nodes.StepStartNode;
 import org.jenkinsci.plugins.workflow.graph.FlowNode;
 import org.jenkinsci.plugins.workflow.job.WorkflowRun;
@@ -10,12 +12,13 @@ import org.slf4j.LoggerFactory;
 
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Optional;
 import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public class AutoDeploymentsListener implements SinglePipelineListener {
     private final WorkflowRun build;
-    private final String autoDeploymentsRegex;
+    private final StepPattern autoDeploymentsPattern;
+    private final EnvironmentTypeClassifier environmentTypeClassifier;
     private final List<SinglePipelineSingleDeploymentListener> deploymentListeners =
             new LinkedList<>();
     private final PipelineLogger pipelineLogger;
@@ -27,12 +30,18 @@ public class AutoDeploymentsListener implements SinglePipelineListener {
     public AutoDeploymentsListener(
             final WorkflowRun run,
             final PipelineLogger logger,
-            final String autoDeploymentsRegex,
+            final StepPattern autoDeploymentsPattern,
+            final EnvironmentTypeClassifier environmentTypeClassifier,
             final IssueKeyExtractor issueKeyExtractor) {
         this.build = run;
-        this.autoDeploymentsRegex = autoDeploymentsRegex;
+        this.autoDeploymentsPattern = autoDeploymentsPattern;
+        this.environmentTypeClassifier = environmentTypeClassifier;
         this.pipelineLogger = logger;
         this.issueKeyExtractor = issueKeyExtractor;
+        autoDeploymentsPattern
+                .getError()
+                .ifPresent(
+                        error -> logger.warn("Invalid pipeline step regex for deployments: " + error));
     }
 
     public String getBuildUrl() {
@@ -47,10 +56,11 @@ public class AutoDeploymentsListener implements SinglePipelineListener {
 
         if (flowNode instanceof StepStartNode) {
             try {
-                final Matcher matcher =
-                        Pattern.compile(autoDeploymentsRegex).matcher(flowNode.getDisplayName());
-                if (matcher.matches()) {
-                    final String envName = matcher.group("envName");
+                final Optional<Matcher> matcher =
+                        autoDeploymentsPattern.match(flowNode.getDisplayName());
+                if (matcher.isPresent()) {
+                    // throws if the regex has no envName group
+                    final String envName = matcher.get().group("envName");
                     registerDeploymentListener(flowNode, envName);
                 }
             } catch (final IllegalArgumentException ex) {
@@ -63,10 +73,23 @@ public class AutoDeploymentsListener implements SinglePipelineListener {
         deploymentListeners.forEach(listener -> listener.onNewHead(flowNode));
     }
 
+    /** Step start nodes may begin a deployment, other nodes only matter to ongoing deployments. */
+    @Override
+    public boolean isInterestedIn(final FlowNode flowNode) {
+        return flowNode instanceof StepStartNode
+                || deploymentListeners.stream()
+                        .anyMatch(listener -> listener.isInterestedIn(flowNode));
+    }
+
     private void registerDeploymentListener(final FlowNode flowNode, final String envName) {
         pipelineLogger.debug("deployment node was determined, envName=" + envName);
         deploymentListeners.add(
                 new SinglePipelineSingleDeploymentListener(
-                        build, pipelineLogger, flowNode.getId(), envName, issueKeyExtractor));
+                        build,
+                        pipelineLogger,
+                        flowNode.getId(),
+                        envName,
+                        environmentTypeClassifier.classify(envName),
+                        issueKeyExtractor));
     }
 }
@@ -4,11 +4,11 @@ import com.atlassian.jira.cloud.jenkins.config.JiraCloudPluginConfig;
 import com.atlassian.jira.cloud.jenkins.config.JiraCloudSiteConfig;
 import com.atlassian.jira.cloud.jenkins.logging.PipelineLogger;
 import com.atlassian.jira.cloud.jenkins.pluginConfigApi.PluginConfigApi;
+import com.atlassian.jira.cloud.jenkins.provider.HttpClientProvider;
+import com.atlassian.jira.cloud.jenkins.provider.ObjectMapperProvider;
 import com.atlassian.jira.cloud.jenkins.util.SecretRetriever;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import hudson.Plugin;
 import jenkins.model.Jenkins;
-import okhttp3.OkHttpClient;
 
 import java.util.Optional;
 import java.util.logging.Logger;
@@ -22,7 +22,10 @@ public class InitializePluginListener extends Plugin {
 
     public InitializePluginListener() {
         this.secretRetriever = new SecretRetriever();
-        this.pluginConfigApi = new PluginConfigApi(new OkHttpClient(), new ObjectMapper());
+        this.pluginConfigApi =
+                new PluginConfigApi(
+                        HttpClientProvider.getSharedHttpClient(),
+                        ObjectMapperProvider.getSharedObjectMapper());
     }
 
     @Override
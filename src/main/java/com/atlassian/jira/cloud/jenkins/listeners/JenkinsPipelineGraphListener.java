@@ -1,39 +1,71 @@
 package com.atlassian.jira.cloud.jenkins.listeners;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import hudson.Extension;
+import org.jenkinsci.plugins.workflow.flow.FlowExecution;
 import org.jenkinsci.plugins.workflow.flow.GraphListener;
 import org.jenkinsci.plugins.workflow.graph.FlowNode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.IOException;
-import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
 
+/**
+ * Hands the new nodes of all pipelines to the listeners of their builds.
+ *
+ * <p>This is called for every node of every pipeline, so the cheap checks come first: whether any
+ * build has listeners at all, and then whether the build's listeners are interested in the node.
+ * The URL of the build a node belongs to is only resolved once per pipeline execution.
+ */
 @Extension
 public class JenkinsPipelineGraphListener implements GraphListener {
 
     private static final Logger log = LoggerFactory.getLogger(JenkinsPipelineGraphListener.class);
 
-    private final SinglePipelineListenerRegistry singlePipelineListenerRegistry =
-            SinglePipelineListenerRegistry.get();
+    private final SinglePipelineListenerRegistry singlePipelineListenerRegistry;
+
+    // weak keys: an entry goes away together with the execution, and executions are compared by
+    // identity
+    private final Cache<FlowExecution, String> buildUrls =
+            CacheBuilder.newBuilder().weakKeys().build();
+
+    public JenkinsPipelineGraphListener() {
+        this(SinglePipelineListenerRegistry.get());
+    }
+
+    @VisibleForTesting
+    JenkinsPipelineGraphListener(final SinglePipelineListenerRegistry singlePipelineListenerRegistry) {
+        this.singlePipelineListenerRegistry = singlePipelineListenerRegistry;
+    }
 
     @Override
     public void onNewHead(final FlowNode flowNode) {
-        final String nodeUrl;
+        if (singlePipelineListenerRegistry.isEmpty()) {
+            return;
+        }
 
+        final FlowExecution execution = flowNode.getExecution();
+        final String buildUrl;
         try {
-            nodeUrl = flowNode.getUrl();
-        } catch (final IOException e) {
-            log.error("Cannot get URL of a node", e);
+            buildUrl = buildUrls.get(execution, () -> execution.getOwner().getUrl());
+        } catch (final ExecutionException e) {
+            log.error("Cannot get URL of a node", e.getCause());
             return;
         }
 
-        singlePipelineListenerRegistry
-                .find(nodeUrl)
-                .map(
-                        (listeners) -> {
-                            listeners.forEach(listener -> listener.onNewHead(flowNode));
-                            return true;
-                        });
+        final Optional<List<SinglePipelineListener>> listeners =
+                singlePipelineListenerRegistry.find(buildUrl);
+        if (!listeners.isPresent()) {
+            return;
+        }
+        for (final SinglePipelineListener listener : listeners.get()) {
+            if (listener.isInterestedIn(flowNode)) {
+                listener.onNewHead(flowNode);
+            }
+        }
     }
 }
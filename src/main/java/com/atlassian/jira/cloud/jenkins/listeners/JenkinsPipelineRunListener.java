@@ -5,6 +5,7 @@ import com.atlassian.jira.cloud.jenkins.config.JiraCloudPluginConfig;
 import com.atlassian.jira.cloud.jenkins.deploymentinfo.client.model.Pipeline;
 import com.atlassian.jira.cloud.jenkins.deploymentinfo.service.ChangeLogIssueKeyExtractor;
 import com.atlassian.jira.cloud.jenkins.util.BranchNameIssueKeyExtractor;
+import com.atlassian.jira.cloud.jenkins.util.CachingIssueKeyExtractor;
 import com.atlassian.jira.cloud.jenkins.util.CompoundIssueKeyExtractor;
 import com.atlassian.jira.cloud.jenkins.logging.PipelineLogger;
 import hudson.Extension;
@@ -15,17 +16,24 @@ import org.jenkinsci.plugins.workflow.job.WorkflowRun;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+
 @Extension
 public class JenkinsPipelineRunListener extends RunListener<Run> {
 
+    private static final Logger log = LoggerFactory.getLogger(JenkinsPipelineRunListener.class);
+
     private final SinglePipelineListenerRegistry singlePipelineListenerRegistry =
             SinglePipelineListenerRegistry.get();
     private final IssueKeyExtractor issueKeyExtractor;
+    private final ChangeLogIssueKeyExtractor changeLogIssueKeyExtractor =
+            new ChangeLogIssueKeyExtractor();
 
     public JenkinsPipelineRunListener() {
         this.issueKeyExtractor =
-                new CompoundIssueKeyExtractor(
-                        new BranchNameIssueKeyExtractor(), new ChangeLogIssueKeyExtractor());
+                new CachingIssueKeyExtractor(
+                        new CompoundIssueKeyExtractor(
+                                new BranchNameIssueKeyExtractor(), changeLogIssueKeyExtractor));
     }
 
     public JenkinsPipelineRunListener(final IssueKeyExtractor issueKeyExtractor) {
@@ -59,7 +67,7 @@ public class JenkinsPipelineRunListener extends RunListener<Run> {
                     new AutoBuildsListener(
                             workflowRun,
                             new PipelineLogger(taskListener.getLogger(), JiraCloudPluginConfig.isDebugLoggingEnabled()),
-                            config.getAutoBuildsRegex(),
+                            config.getAutoBuildsPattern(),
                             this.issueKeyExtractor));
         }
 
@@ -69,7 +77,8 @@ public class JenkinsPipelineRunListener extends RunListener<Run> {
                     new AutoDeploymentsListener(
                             workflowRun,
                             new PipelineLogger(taskListener.getLogger(), JiraCloudPluginConfig.isDebugLoggingEnabled()),
-                            config.getAutoDeploymentsRegex(),
+                            config.getAutoDeploymentsPattern(),
+                            config.getEnvironmentTypeClassifier(),
                             this.issueKeyExtractor));
         }
     }
@@ -88,10 +97,24 @@ public class JenkinsPipelineRunListener extends RunListener<Run> {
                                 return true;
                             });
             singlePipelineListenerRegistry.unregister(workflowRun.getUrl());
+            indexIssueKeys(workflowRun, pipelineLogger);
         } else {
             final String message =
                     "Not a WorkflowRun, onCompleted() won't be propagated to listeners";
             pipelineLogger.warn(message);
         }
     }
+
+    // lets the deployments of later runs find the issue keys of this one without loading it again
+    private void indexIssueKeys(final WorkflowRun workflowRun, final PipelineLogger pipelineLogger) {
+        try {
+            changeLogIssueKeyExtractor.indexIssueKeys(workflowRun, pipelineLogger);
+        } catch (IOException | RuntimeException e) {
+            log.warn(
+                    String.format(
+                            "Unable to save the issue keys of %s, later deployments will read them from its change log",
+                            workflowRun.getUrl()),
+                    e);
+        }
+    }
 }
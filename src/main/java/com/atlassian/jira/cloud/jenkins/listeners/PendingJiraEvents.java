@@ -0,0 +1,166 @@
+package com.atlassian.jira.cloud.jenkins.listeners;
+
+import com.atlassian.jira.cloud.jenkins.buildinfo.service.JiraBuildInfoRequest;
+import com.atlassian.jira.cloud.jenkins.buildinfo.service.JiraBuildInfoSender;
+import com.atlassian.jira.cloud.jenkins.common.config.JiraSiteConfigRetriever;
+import com.atlassian.jira.cloud.jenkins.common.dispatch.JiraEventDispatcher;
+import com.atlassian.jira.cloud.jenkins.common.response.JiraSendInfoResponse;
+import com.atlassian.jira.cloud.jenkins.logging.PipelineLogger;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Events a single pipeline listener has handed over to the {@link JiraEventDispatcher}.
+ *
+ * <p>Events are queued per Jira site so that the pipeline doesn't wait for Jira while it's running.
+ * When the pipeline completes we wait for the queued events, so that their outcome still ends up
+ * in the pipeline log.
+ */
+class PendingJiraEvents {
+
+    private static final Duration COMPLETION_TIMEOUT = Duration.ofSeconds(60);
+
+    private static final String BUILDS_BATCH_KEY = "builds";
+
+    private final JiraEventDispatcher dispatcher;
+    private final JiraSiteConfigRetriever siteConfigRetriever;
+    private final PipelineLogger pipelineLogger;
+    private final Queue<CompletableFuture<Void>> pending = new ConcurrentLinkedQueue<>();
+
+    PendingJiraEvents(
+            final JiraEventDispatcher dispatcher,
+            final JiraSiteConfigRetriever siteConfigRetriever,
+            final PipelineLogger pipelineLogger) {
+        this.dispatcher = dispatcher;
+        this.siteConfigRetriever = siteConfigRetriever;
+        this.pipelineLogger = pipelineLogger;
+    }
+
+    /**
+     * Queues an event for every connected Jira site.
+     *
+     * @param coalescingKey - identifies the build or deployment the event updates; an event still
+     *     queued for the same key is replaced by this one
+     * @param eventForSite - creates the event for the given site on the calling thread; the
+     *     returned supplier sends it and runs on a dispatcher thread
+     */
+    void dispatchToAllSites(
+            final String coalescingKey,
+            final Function<String, Supplier<List<JiraSendInfoResponse>>> eventForSite) {
+        for (final String jiraSite : siteConfigRetriever.getAllJiraSites()) {
+            final Supplier<List<JiraSendInfoResponse>> send = eventForSite.apply(jiraSite);
+            final CompletableFuture<Void> event =
+                    dispatcher.dispatch(
+                            jiraSite, coalescingKey, () -> logResponses(send.get()));
+            event.exceptionally(
+                    e -> {
+                        pipelineLogger.warn(e.getMessage());
+                        return null;
+                    });
+            pending.add(event);
+        }
+    }
+
+    /**
+     * Queues a build update for every connected Jira site. Build updates that are queued one after
+     * another for a site, by this or any other pipeline, are sent together in one request per
+     * pipeline.
+     *
+     * @param coalescingKey - identifies the build the update is about; an update still queued for
+     *     the same key is replaced by this one
+     * @param requestForSite - creates the request for the given site on the calling thread
+     * @param sender - sends the requests on a dispatcher thread
+     */
+    void dispatchBuildToAllSites(
+            final String coalescingKey,
+            final Function<String, JiraBuildInfoRequest> requestForSite,
+            final JiraBuildInfoSender sender) {
+        for (final String jiraSite : siteConfigRetriever.getAllJiraSites()) {
+            final CompletableFuture<Void> event =
+                    dispatcher.dispatchBatchable(
+                            jiraSite,
+                            coalescingKey,
+                            BUILDS_BATCH_KEY,
+                            new PendingBuild(requestForSite.apply(jiraSite), this),
+                            pendingBuilds -> sendBuilds(jiraSite, pendingBuilds, sender));
+            event.exceptionally(
+                    e -> {
+                        pipelineLogger.warn(e.getMessage());
+                        return null;
+                    });
+            pending.add(event);
+        }
+    }
+
+    /** Waits (for a limited time) until all the events queued so far have been sent. */
+    void awaitCompletion() {
+        try {
+            CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0]))
+                    .get(COMPLETION_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            // already logged by the event itself
+        } catch (TimeoutException e) {
+            pipelineLogger.warn(
+                    String.format(
+                            "Events to Jira were not sent within %s, they will be sent in the background",
+                            COMPLETION_TIMEOUT));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        pending.removeIf(CompletableFuture::isDone);
+    }
+
+    private static void sendBuilds(
+            final String jiraSite,
+            final List<PendingBuild> pendingBuilds,
+            final JiraBuildInfoSender sender) {
+        final List<JiraBuildInfoRequest> requests = new ArrayList<>(pendingBuilds.size());
+        final List<PipelineLogger> pipelineLoggers = new ArrayList<>(pendingBuilds.size());
+        for (final PendingBuild pendingBuild : pendingBuilds) {
+            requests.add(pendingBuild.request);
+            pipelineLoggers.add(pendingBuild.events.pipelineLogger);
+        }
+        final List<JiraSendInfoResponse> responses =
+                sender.sendBuildInfos(jiraSite, requests, pipelineLoggers);
+        for (int i = 0; i < pendingBuilds.size(); i++) {
+            pendingBuilds
+                    .get(i)
+                    .events
+                    .logResponses(Collections.singletonList(responses.get(i)));
+        }
+    }
+
+    private void logResponses(final List<JiraSendInfoResponse> responses) {
+        responses.forEach(
+                response -> {
+                    final String message = response.getStatus() + ": " + response.getMessage();
+                    if (response.getStatus().isFailure) {
+                        pipelineLogger.warn(message);
+                    } else {
+                        pipelineLogger.info(message);
+                    }
+                });
+    }
+
+    /** A build update and the events of the pipeline whose log its outcome goes to. */
+    private static final class PendingBuild {
+        private final JiraBuildInfoRequest request;
+        private final PendingJiraEvents events;
+
+        PendingBuild(final JiraBuildInfoRequest request, final PendingJiraEvents events) {
+            this.request = request;
+            this.events = events;
+        }
+    }
+}
@@ -15,4 +15,12 @@ public interface SinglePipelineListener {
     void onCompleted();
 
     void onNewHead(final FlowNode flowNode);
+
+    /**
+     * Whether {@link #onNewHead} would do anything with the node. Asked before the node is handed
+     * to the listener, so it must be cheap and must not have side effects.
+     */
+    default boolean isInterestedIn(final FlowNode flowNode) {
+        return true;
+    }
 }
@@ -5,20 +5,43 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
+/**
+ * Keeps the listeners of the running pipelines, indexed by the path segments of the build URL (e.g.
+ * "job/my-pipeline/42/"), so that looking up the listeners of a node URL only takes as many steps
+ * as the URL has segments, no matter how many pipelines are running.
+ */
 public class SinglePipelineListenerRegistry {
 
-    private final Map<String, List<SinglePipelineListener>> buildUrlToSinglePipelineListeners;
+    private final UrlSegment root;
 
-    public void registerForBuild(final String buildUrl, final SinglePipelineListener listener) {
-        List<SinglePipelineListener> existingListeners =
-                buildUrlToSinglePipelineListeners.getOrDefault(buildUrl, new ArrayList<>());
-        existingListeners.add(listener);
-        buildUrlToSinglePipelineListeners.put(buildUrl, existingListeners);
+    public synchronized void registerForBuild(
+            final String buildUrl, final SinglePipelineListener listener) {
+        UrlSegment segment = root;
+        for (final String name : splitIntoSegments(buildUrl)) {
+            segment = segment.children.computeIfAbsent(name, n -> new UrlSegment());
+        }
+        segment.listeners.add(listener);
     }
 
-    public void unregister(final String buildUrl) {
-        buildUrlToSinglePipelineListeners.remove(buildUrl);
+    public synchronized void unregister(final String buildUrl) {
+        final List<String> names = splitIntoSegments(buildUrl);
+        final List<UrlSegment> path = new ArrayList<>(names.size() + 1);
+        path.add(root);
+        for (final String name : names) {
+            final UrlSegment child = path.get(path.size() - 1).children.get(name);
+            if (child == null) {
+                return;
+            }
+            path.add(child);
+        }
+        path.get(path.size() - 1).listeners.clear();
+
+        // prune the segments that no longer lead to any listener
+        for (int i = path.size() - 1; i > 0 && path.get(i).isEmpty(); i--) {
+            path.get(i - 1).children.remove(names.get(i - 1));
+        }
     }
 
     /**
@@ -26,18 +49,45 @@ public class SinglePipelineListenerRegistry {
      * to the buildUrl)
      */
     public Optional<List<SinglePipelineListener>> find(final String buildOrNodeUrl) {
-        Optional<String> maybeRunUrl =
-                buildUrlToSinglePipelineListeners
-                        .keySet()
-                        .stream()
-                        .filter(buildOrNodeUrl::startsWith)
-                        .findFirst();
-        return maybeRunUrl.map(buildUrlToSinglePipelineListeners::get);
+        UrlSegment segment = root;
+        int start = 0;
+        while (start < buildOrNodeUrl.length()) {
+            int end = buildOrNodeUrl.indexOf('/', start);
+            if (end < 0) {
+                end = buildOrNodeUrl.length();
+            }
+            if (end > start) {
+                segment = segment.children.get(buildOrNodeUrl.substring(start, end));
+                if (segment == null) {
+                    return Optional.empty();
+                }
+                if (!segment.listeners.isEmpty()) {
+                    return Optional.of(segment.listeners);
+                }
+            }
+            start = end + 1;
+        }
+        return Optional.empty();
+    }
+
+    /** @return true if no pipeline has any listener, e.g. when auto builds and deployments are off */
+    public boolean isEmpty() {
+        return root.isEmpty();
+    }
+
+    private static List<String> splitIntoSegments(final String url) {
+        final List<String> names = new ArrayList<>();
+        for (final String name : url.split("/")) {
+            if (!name.isEmpty()) {
+                names.add(name);
+            }
+        }
+        return names;
     }
 
     SinglePipelineListenerRegistry() {
         // Had to do this here because otherwise checkstyle complains about the empty ctor
-        buildUrlToSinglePipelineListeners = new ConcurrentHashMap<>();
+        root = new UrlSegment();
     }
 
     private static final SinglePipelineListenerRegistry instance =
@@ -46,4 +96,14 @@ public class SinglePipelineListenerRegistry {
     public static SinglePipelineListenerRegistry get() {
         return instance;
     }
+
+    /** A node of the URL trie. Written under the registry lock, read without it. */
+    private static final class UrlSegment {
+        private final Map<String, UrlSegment> children = new ConcurrentHashMap<>();
+        private final List<SinglePipelineListener> listeners = new CopyOnWriteArrayList<>();
+
+        boolean isEmpty() {
+            return children.isEmpty() && listeners.isEmpty();
+        }
+    }
 }
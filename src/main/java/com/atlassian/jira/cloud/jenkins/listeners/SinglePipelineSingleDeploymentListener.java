@@ -1,10 +1,12 @@
 package com.atlassian.jira.cloud.jenkins.listeners;
 
+import com.atlassian.jira.cloud.jenkins.common.config.JiraSiteConfigRetrieverImpl;
+import com.atlassian.jira.cloud.jenkins.common.dispatch.JiraEventDispatcher;
 import com.atlassian.jira.cloud.jenkins.common.factory.JiraSenderFactory;
-import com.atlassian.jira.cloud.jenkins.common.response.JiraSendInfoResponse;
 import com.atlassian.jira.cloud.jenkins.common.service.IssueKeyExtractor;
 import com.atlassian.jira.cloud.jenkins.deploymentinfo.client.model.State;
 import com.atlassian.jira.cloud.jenkins.deploymentinfo.service.JiraDeploymentInfoRequest;
+import com.atlassian.jira.cloud.jenkins.deploymentinfo.service.JiraDeploymentInfoSender;
 import com.atlassian.jira.cloud.jenkins.util.JenkinsToJiraStatus;
 import com.atlassian.jira.cloud.jenkins.logging.PipelineLogger;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
@@ -15,16 +17,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.util.Arrays;
 import java.util.Collections;
-import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 public class SinglePipelineSingleDeploymentListener implements SinglePipelineListener {
 
     private final WorkflowRun build;
     private final String environmentName;
+    private final String environmentType;
     private final PipelineLogger pipelineLogger;
 
     private boolean inProgressSent = false;
@@ -34,18 +35,24 @@ public class SinglePipelineSingleDeploymentListener implements SinglePipelineLis
     private String endFlowNodeId = "";
 
     private final IssueKeyExtractor issueKeyExtractor;
+    private final PendingJiraEvents pendingEvents;
 
     public SinglePipelineSingleDeploymentListener(
             final WorkflowRun build,
             final PipelineLogger pipelineLogger,
             final String startFlowNodeId,
             final String environmentName,
+            final String environmentType,
             final IssueKeyExtractor issueKeyExtractor) {
         this.build = build;
         this.pipelineLogger = pipelineLogger;
         this.startFlowNodeId = startFlowNodeId;
         this.environmentName = environmentName;
+        this.environmentType = environmentType;
         this.issueKeyExtractor = issueKeyExtractor;
+        this.pendingEvents =
+                new PendingJiraEvents(
+                        JiraEventDispatcher.get(), new JiraSiteConfigRetrieverImpl(), pipelineLogger);
     }
 
     @Override
@@ -56,6 +63,12 @@ public class SinglePipelineSingleDeploymentListener implements SinglePipelineLis
     @Override
     public void onCompleted() {
         maybeSendDataToJira(true);
+        pendingEvents.awaitCompletion();
+    }
+
+    @Override
+    public boolean isInterestedIn(final FlowNode flowNode) {
+        return !finalResultSent;
     }
 
     @Override
@@ -80,7 +93,7 @@ public class SinglePipelineSingleDeploymentListener implements SinglePipelineLis
         }
 
         pipelineLogger.debug("Checking for issue keys for this deployment ... ");
-        if (issueKeyExtractor.extractIssueKeys(this.build, pipelineLogger).isEmpty()) {
+        if (!issueKeyExtractor.hasAnyIssueKey(this.build, pipelineLogger)) {
             // We don't have issueKeys at the start of the execution of the pipeline, need to wait
             // for them first
             pipelineLogger.debug(
@@ -108,64 +121,6 @@ public class SinglePipelineSingleDeploymentListener implements SinglePipelineLis
         }
     }
 
-    private static class EnvTypeMappingEntry {
-        final String jiraEnvType;
-        final String[] customEnvTypes;
-
-        EnvTypeMappingEntry(final String jiraEnvType, final String[] customEnvTypes) {
-            this.jiraEnvType = jiraEnvType;
-            this.customEnvTypes = customEnvTypes;
-        }
-
-        boolean matches(final String testStr) {
-            return Arrays.stream(customEnvTypes)
-                            .filter(customEnvType -> testStr.toLowerCase().contains(customEnvType))
-                            .collect(Collectors.toSet())
-                            .size()
-                    > 0;
-        }
-    }
-
-    // We use same mapping as GitHub app does:
-    // https://github.com/atlassian/github-for-jira/blob/9ce28a0cc128ec12893f28004bd74ea8bee006b4/src/transforms/deployment.ts#L49-L49
-    private static final EnvTypeMappingEntry[] ENV_TYPE_MAPPING =
-            new EnvTypeMappingEntry[] {
-                new EnvTypeMappingEntry(
-                        "development", new String[] {"development", "dev", "trunk"}),
-                new EnvTypeMappingEntry(
-                        "testing",
-                        new String[] {
-                            "testing",
-                            "test",
-                            "tests",
-                            "tst",
-                            "integration",
-                            "integ",
-                            "intg",
-                            "int",
-                            "acceptance",
-                            "accept",
-                            "acpt",
-                            "qa",
-                            "qc",
-                            "control",
-                            "quality"
-                        }),
-                new EnvTypeMappingEntry(
-                        "staging",
-                        new String[] {"staging", "stage", "stg", "preprod", "model", "internal"}),
-                new EnvTypeMappingEntry(
-                        "production", new String[] {"production", "prod", "prd", "live"})
-            };
-
-    private static String mapEnvNameToType(final String environmentName) {
-        return Arrays.stream(ENV_TYPE_MAPPING)
-                .filter(mapping -> mapping.matches(environmentName))
-                .map(mapping -> mapping.jiraEnvType)
-                .findFirst()
-                .orElse("production");
-    }
-
     private void sendDeploymentsDataToJira(final Optional<String> maybeStateNodeId) {
         final Optional<FlowNode> maybeNode =
                 maybeStateNodeId.map(
@@ -179,35 +134,31 @@ public class SinglePipelineSingleDeploymentListener implements SinglePipelineLis
                                 return null;
                             }
                         });
-        final List<JiraSendInfoResponse> allResponses =
-                JiraSenderFactory.getInstance()
-                        .getJiraDeploymentInfoSender()
-                        .sendDeploymentInfo(
-                                new JiraDeploymentInfoRequest(
-                                        null,
-                                        environmentName,
-                                        environmentName,
-                                        mapEnvNameToType(environmentName),
-                                        maybeNode
-                                                .map(
-                                                        node ->
-                                                                JenkinsToJiraStatus.getState(node)
-                                                                        .value)
-                                                .orElse(null),
-                                        Collections.emptySet(),
-                                        false,
-                                        issueKeyExtractor.extractIssueKeys(
-                                                this.build, this.pipelineLogger),
-                                        build),
-                                pipelineLogger);
-        allResponses.forEach(
-                response -> {
-                    final String message = response.getStatus() + ": " + response.getMessage();
-                    if (response.getStatus().isFailure) {
-                        pipelineLogger.warn(message);
-                    } else {
-                        pipelineLogger.info(message);
-                    }
+        // the state and the issue keys are resolved right now; the rest of the payload is read from
+        // the live run when the event is sent
+        final String state =
+                maybeNode
+                        .map(node -> JenkinsToJiraStatus.getState(node).value)
+                        .orElseGet(() -> JenkinsToJiraStatus.getState(build.getResult()).value);
+        final Set<String> issueKeys =
+                issueKeyExtractor.extractIssueKeys(this.build, this.pipelineLogger);
+        final JiraDeploymentInfoSender sender =
+                JiraSenderFactory.getInstance().getJiraDeploymentInfoSender();
+        pendingEvents.dispatchToAllSites(
+                "deployment " + build.getUrl() + " " + environmentName,
+                jiraSite -> {
+                    final JiraDeploymentInfoRequest request =
+                            new JiraDeploymentInfoRequest(
+                                    jiraSite,
+                                    environmentName,
+                                    environmentName,
+                                    environmentType,
+                                    state,
+                                    Collections.emptySet(),
+                                    false,
+                                    issueKeys,
+                                    build);
+                    return () -> sender.sendDeploymentInfo(request, pipelineLogger);
                 });
     }
 
@@ -0,0 +1,124 @@
+package com.atlassian.jira.cloud.jenkins.metrics;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Counters, latency histograms and gauges of the plugin's traffic to Jira, kept in memory since
+ * Jenkins started.
+ *
+ * <p>Recording is cheap and lock free, so it can be done on every request. Gauges are read only
+ * when a {@link #snapshot()} is taken.
+ */
+public final class PluginMetrics {
+
+    private static final Logger log = LoggerFactory.getLogger(PluginMetrics.class);
+
+    // upper bounds of the latency buckets in milliseconds, the last bucket has no upper bound
+    private static final long[] LATENCY_BUCKET_MILLIS = {
+        50, 100, 250, 500, 1000, 2500, 5000, 10000
+    };
+
+    private static final PluginMetrics instance = new PluginMetrics();
+
+    private final ConcurrentMap<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Supplier<?>> gauges = new ConcurrentHashMap<>();
+
+    @VisibleForTesting
+    PluginMetrics() {}
+
+    public static PluginMetrics get() {
+        return instance;
+    }
+
+    public void increment(final String name) {
+        counters.computeIfAbsent(name, n -> new LongAdder()).increment();
+    }
+
+    public void recordLatency(final String name, final Duration latency) {
+        latencies.computeIfAbsent(name, n -> new LatencyHistogram()).record(latency.toMillis());
+    }
+
+    /**
+     * Registers a value that is read whenever a snapshot is taken, replacing a gauge registered
+     * under the same name before.
+     */
+    public void registerGauge(final String name, final Supplier<?> gauge) {
+        gauges.put(name, gauge);
+    }
+
+    /** @return all metrics by name, in a structure that can be serialized to JSON */
+    public Map<String, Object> snapshot() {
+        final Map<String, Long> counterValues = new TreeMap<>();
+        counters.forEach((name, counter) -> counterValues.put(name, counter.sum()));
+
+        final Map<String, Object> latencyValues = new TreeMap<>();
+        latencies.forEach((name, histogram) -> latencyValues.put(name, histogram.snapshot()));
+
+        final Map<String, Object> gaugeValues = new TreeMap<>();
+        gauges.forEach(
+                (name, gauge) -> {
+                    try {
+                        gaugeValues.put(name, gauge.get());
+                    } catch (RuntimeException e) {
+                        log.warn("Unable to read gauge " + name, e);
+                    }
+                });
+
+        final Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("counters", counterValues);
+        snapshot.put("latencies", latencyValues);
+        snapshot.put("gauges", gaugeValues);
+        return snapshot;
+    }
+
+    private static final class LatencyHistogram {
+        private final LongAdder[] buckets = new LongAdder[LATENCY_BUCKET_MILLIS.length + 1];
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalMillis = new LongAdder();
+
+        LatencyHistogram() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        void record(final long millis) {
+            int bucket = 0;
+            while (bucket < LATENCY_BUCKET_MILLIS.length
+                    && millis > LATENCY_BUCKET_MILLIS[bucket]) {
+                bucket++;
+            }
+            buckets[bucket].increment();
+            count.increment();
+            totalMillis.add(millis);
+        }
+
+        Map<String, Object> snapshot() {
+            final Map<String, Long> bucketValues = new LinkedHashMap<>();
+            for (int i = 0; i < LATENCY_BUCKET_MILLIS.length; i++) {
+                bucketValues.put("le" + LATENCY_BUCKET_MILLIS[i] + "ms", buckets[i].sum());
+            }
+            bucketValues.put(
+                    "gt" + LATENCY_BUCKET_MILLIS[LATENCY_BUCKET_MILLIS.length - 1] + "ms",
+                    buckets[LATENCY_BUCKET_MILLIS.length].sum());
+
+            final Map<String, Object> snapshot = new LinkedHashMap<>();
+            snapshot.put("count", count.sum());
+            snapshot.put("totalMillis", totalMillis.sum());
+            snapshot.put("buckets", bucketValues);
+            return snapshot;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.atlassian.jira.cloud.jenkins.outbox;
+
+import com.atlassian.jira.cloud.jenkins.common.client.ApiUpdateFailedException;
+import com.atlassian.jira.cloud.jenkins.common.client.BadRequestException;
+import com.atlassian.jira.cloud.jenkins.common.config.JiraSiteConfigRetriever;
+import com.atlassian.jira.cloud.jenkins.common.config.JiraSiteConfigRetrieverImpl;
+import com.atlassian.jira.cloud.jenkins.common.outbox.JiraEventOutbox;
+import com.atlassian.jira.cloud.jenkins.common.outbox.OutboxEntry;
+import com.atlassian.jira.cloud.jenkins.config.JiraCloudSiteConfig;
+import com.atlassian.jira.cloud.jenkins.provider.HttpClientProvider;
+import com.atlassian.jira.cloud.jenkins.provider.ObjectMapperProvider;
+import com.atlassian.jira.cloud.jenkins.util.SecretRetriever;
+import com.google.common.annotations.VisibleForTesting;
+import hudson.Extension;
+import hudson.model.AsyncPeriodicWork;
+import hudson.model.TaskListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Sends the events left in the {@link JiraEventOutbox} again, because sending them failed or
+ * Jenkins stopped before Jira answered.
+ *
+ * <p>Events are sent in the order they were recorded. Once an event of a pipeline can't be sent,
+ * the later events of that pipeline wait for the next run, so Jira doesn't see them out of order.
+ */
+@Extension
+public class JiraEventOutboxReplayer extends AsyncPeriodicWork {
+
+    private static final Logger log = LoggerFactory.getLogger(JiraEventOutboxReplayer.class);
+
+    // leaves the sender time to get an answer from Jira before the event counts as undelivered
+    private static final Duration MIN_AGE = Duration.ofMinutes(2);
+    private static final Duration MAX_AGE = Duration.ofHours(24);
+
+    private final Supplier<JiraEventOutbox> outbox;
+    private final JiraSiteConfigRetriever siteConfigRetriever;
+    private final SecretRetriever secretRetriever;
+    private final OutboxReplayApi replayApi;
+
+    public JiraEventOutboxReplayer() {
+        this(
+                JiraEventOutbox::get,
+                new JiraSiteConfigRetrieverImpl(),
+                new SecretRetriever(),
+                new OutboxReplayApi(
+                        HttpClientProvider.getSharedHttpClient(),
+                        ObjectMapperProvider.getSharedObjectMapper()));
+    }
+
+    @VisibleForTesting
+    JiraEventOutboxReplayer(
+            final Supplier<JiraEventOutbox> outbox,
+            final JiraSiteConfigRetriever siteConfigRetriever,
+            final SecretRetriever secretRetriever,
+            final OutboxReplayApi replayApi) {
+        super("Jira event outbox replay");
+        this.outbox = Objects.requireNonNull(outbox);
+        this.siteConfigRetriever = Objects.requireNonNull(siteConfigRetriever);
+        this.secretRetriever = Objects.requireNonNull(secretRetriever);
+        this.replayApi = Objects.requireNonNull(replayApi);
+    }
+
+    @Override
+    public long getRecurrencePeriod() {
+        return MIN;
+    }
+
+    @Override
+    protected void execute(final TaskListener listener) {
+        replay(Instant.now());
+    }
+
+    @VisibleForTesting
+    void replay(final Instant now) {
+        final JiraEventOutbox jiraEventOutbox = outbox.get();
+        final Set<String> blockedPipelines = new HashSet<>();
+
+        for (final OutboxEntry entry : jiraEventOutbox.getPending()) {
+            if (blockedPipelines.contains(entry.getPipelineId())) {
+                continue;
+            }
+            final Duration age = Duration.between(entry.getCreatedAt(), now);
+            if (age.compareTo(MAX_AGE) > 0) {
+                log.warn(
+                        String.format(
+                                "Dropping event of pipeline %s, it couldn't be sent to Jira within %d hours",
+                                entry.getPipelineId(), MAX_AGE.toHours()));
+                jiraEventOutbox.acknowledge(entry.getId());
+                continue;
+            }
+            if (age.compareTo(MIN_AGE) < 0 || !resend(entry)) {
+                blockedPipelines.add(entry.getPipelineId());
+                continue;
+            }
+            jiraEventOutbox.acknowledge(entry.getId());
+        }
+    }
+
+    /** @return whether the entry is done with, either because it was sent or can never be sent */
+    private boolean resend(final OutboxEntry entry) {
+        final Optional<JiraCloudSiteConfig> siteConfig = findSiteConfig(entry.getWebhookUrl());
+        if (!siteConfig.isPresent()) {
+            log.warn(
+                    String.format(
+                            "Dropping event of pipeline %s, its Jira site is no longer configured",
+                            entry.getPipelineId()));
+            return true;
+        }
+        final Optional<String> secret =
+                secretRetriever.getSecretFor(siteConfig.get().getCredentialsId());
+        if (!secret.isPresent()) {
+            log.warn(
+                    String.format(
+                            "Dropping event of pipeline %s, the secret for Jira site %s can't be found",
+                            entry.getPipelineId(), siteConfig.get().getSite()));
+            return true;
+        }
+
+        try {
+            replayApi.resend(entry.getWebhookUrl(), secret.get(), entry.getRequestBody());
+            log.info(String.format("Resent event of pipeline %s to Jira", entry.getPipelineId()));
+            return true;
+        } catch (BadRequestException e) {
+            if (!e.isRejected()) {
+                log.debug(
+                        String.format(
+                                "Unable to resend event of pipeline %s yet: %s",
+                                entry.getPipelineId(), e.getMessage()));
+                return false;
+            }
+            log.warn(
+                    String.format(
+                            "Dropping event of pipeline %s, Jira rejected it: %s",
+                            entry.getPipelineId(), e.getMessage()));
+            return true;
+        } catch (ApiUpdateFailedException e) {
+            log.debug(
+                    String.format(
+                            "Unable to resend event of pipeline %s: %s",
+                            entry.getPipelineId(), e.getMessage()));
+            return false;
+        }
+    }
+
+    private Optional<JiraCloudSiteConfig> findSiteConfig(final String webhookUrl) {
+        return siteConfigRetriever.getAllJiraSites().stream()
+                .map(siteConfigRetriever::getJiraSiteConfig)
+                .filter(Optional::isPresent)
+                .map(Optional::get)
+                .filter(siteConfig -> webhookUrl.equals(siteConfig.getWebhookUrl()))
+                .findFirst();
+    }
+}
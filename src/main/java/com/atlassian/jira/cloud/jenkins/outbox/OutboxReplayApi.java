@@ -0,0 +1,22 @@
+package com.atlassian.jira.cloud.jenkins.outbox;
+
+import com.atlassian.jira.cloud.jenkins.common.client.ApiUpdateFailedException;
+import com.atlassian.jira.cloud.jenkins.common.client.JenkinsAppApi;
+import com.atlassian.jira.cloud.jenkins.logging.PipelineLogger;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import okhttp3.OkHttpClient;
+
+/** Sends event requests from the outbox again. The response is not interpreted. */
+public class OutboxReplayApi extends JenkinsAppApi<JsonNode> {
+
+    public OutboxReplayApi(final OkHttpClient httpClient, final ObjectMapper objectMapper) {
+        super(httpClient, objectMapper);
+    }
+
+    public JsonNode resend(final String webhookUrl, final String secret, final String requestBody)
+            throws ApiUpdateFailedException {
+        return sendBodyAsJwt(
+                webhookUrl, secret, requestBody, JsonNode.class, PipelineLogger.noopInstance());
+    }
+}
@@ -2,6 +2,8 @@ package com.atlassian.jira.cloud.jenkins.ping;
 
 import com.atlassian.jira.cloud.jenkins.common.client.JenkinsAppApi;
 import com.atlassian.jira.cloud.jenkins.logging.PipelineLogger;
+import com.atlassian.jira.cloud.jenkins.provider.HttpClientProvider;
+import com.atlassian.jira.cloud.jenkins.provider.ObjectMapperProvider;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import okhttp3.OkHttpClient;
 
@@ -10,6 +12,10 @@ import javax.inject.Inject;
 public class PingApi extends JenkinsAppApi<PingResponse> {
 
     @Inject
+    public PingApi() {
+        this(HttpClientProvider.getSharedHttpClient(), ObjectMapperProvider.getSharedObjectMapper());
+    }
+
     public PingApi(final OkHttpClient httpClient, final ObjectMapper objectMapper) {
         super(httpClient, objectMapper);
     }
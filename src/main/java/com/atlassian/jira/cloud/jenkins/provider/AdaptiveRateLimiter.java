@@ -0,0 +1,130 @@
+package com.atlassian.jira.cloud.jenkins.provider;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket whose rate follows what the server tells us, AIMD-style: every successful response
+ * raises the rate a little, every throttled one halves it. A server that asks us to wait stops all
+ * requests until then.
+ *
+ * <p>Requests over the rate aren't rejected but reserve a permit in the future, so they are sent
+ * in order as soon as the rate allows.
+ */
+final class AdaptiveRateLimiter {
+
+    // what Jira allowed an OAuth client before we learned anything about the server
+    static final double DEFAULT_PERMITS_PER_SECOND = 5000 / 300.0;
+    static final double DEFAULT_MIN_PERMITS_PER_SECOND = 0.1;
+    static final double DEFAULT_MAX_PERMITS_PER_SECOND = 50;
+
+    private static final double ADDITIVE_INCREASE = 0.1;
+    private static final double THROTTLED_DECREASE = 0.5;
+    private static final double NEAR_LIMIT_DECREASE = 0.8;
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private final double minPermitsPerSecond;
+    private final double maxPermitsPerSecond;
+    private final LongSupplier nanoClock;
+
+    private double permitsPerSecond;
+    // negative when permits have been reserved in the future
+    private double storedPermits;
+    // after a pause, this is in the future and nothing is refilled until then
+    private long lastRefillNanos;
+
+    AdaptiveRateLimiter() {
+        this(
+                DEFAULT_PERMITS_PER_SECOND,
+                DEFAULT_MIN_PERMITS_PER_SECOND,
+                DEFAULT_MAX_PERMITS_PER_SECOND,
+                System::nanoTime);
+    }
+
+    @VisibleForTesting
+    AdaptiveRateLimiter(
+            final double permitsPerSecond,
+            final double minPermitsPerSecond,
+            final double maxPermitsPerSecond,
+            final LongSupplier nanoClock) {
+        this.permitsPerSecond = permitsPerSecond;
+        this.minPermitsPerSecond = minPermitsPerSecond;
+        this.maxPermitsPerSecond = maxPermitsPerSecond;
+        this.nanoClock = nanoClock;
+        this.storedPermits = maxBurst();
+        this.lastRefillNanos = nanoClock.getAsLong();
+    }
+
+    /**
+     * Reserves a permit for the next request.
+     *
+     * @return how long to wait before sending the request, or empty if that would be longer than
+     *     the max wait, in which case no permit is reserved
+     */
+    synchronized Optional<Duration> reserve(final Duration maxWait) {
+        final long now = nanoClock.getAsLong();
+        refill(now);
+        final long waitNanos =
+                Math.max(0, lastRefillNanos - now)
+                        + (long) (Math.max(0, 1 - storedPermits) / permitsPerSecond * NANOS_PER_SECOND);
+        if (waitNanos > maxWait.toNanos()) {
+            return Optional.empty();
+        }
+        storedPermits -= 1;
+        return Optional.of(Duration.ofNanos(waitNanos));
+    }
+
+    synchronized void onSuccess() {
+        permitsPerSecond = Math.min(maxPermitsPerSecond, permitsPerSecond + ADDITIVE_INCREASE);
+    }
+
+    /** The server rejected a request for being over its limit. */
+    synchronized void onThrottled() {
+        decrease(THROTTLED_DECREASE);
+    }
+
+    /** The server is close to its limit, but still accepted the request. */
+    synchronized void onNearLimit() {
+        decrease(NEAR_LIMIT_DECREASE);
+    }
+
+    /** Stops giving out permits that can be used before the pause is over. */
+    synchronized void pauseFor(final Duration pause) {
+        final long now = nanoClock.getAsLong();
+        refill(now);
+        final long pausedUntil = now + pause.toNanos();
+        if (pausedUntil > lastRefillNanos) {
+            lastRefillNanos = pausedUntil;
+            // the first request after the pause can go straight away
+            storedPermits = Math.min(storedPermits, 1);
+        }
+    }
+
+    synchronized double getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+
+    private void decrease(final double factor) {
+        permitsPerSecond = Math.max(minPermitsPerSecond, permitsPerSecond * factor);
+        storedPermits = Math.min(storedPermits, maxBurst());
+    }
+
+    private void refill(final long now) {
+        if (now > lastRefillNanos) {
+            storedPermits =
+                    Math.min(
+                            maxBurst(),
+                            storedPermits
+                                    + (now - lastRefillNanos) / NANOS_PER_SECOND * permitsPerSecond);
+            lastRefillNanos = now;
+        }
+    }
+
+    // allows a second's worth of requests at once, e.g. the updates at the end of a pipeline
+    private double maxBurst() {
+        return Math.max(1, permitsPerSecond);
+    }
+}
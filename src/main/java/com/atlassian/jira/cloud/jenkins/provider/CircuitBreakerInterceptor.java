@@ -0,0 +1,84 @@
+package com.atlassian.jira.cloud.jenkins.provider;
+
+import com.atlassian.jira.cloud.jenkins.metrics.PluginMetrics;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps a circuit breaker per URL (e.g. the webhook of a Jira site), so that requests to a site
+ * which is down fail straight away with a {@link CircuitBreakerOpenException} instead of each one
+ * waiting for its timeouts and retries.
+ *
+ * <p>Server errors and I/O errors count as failures, any other response as a success.
+ */
+public final class CircuitBreakerInterceptor implements Interceptor {
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+
+    public CircuitBreakerInterceptor(final CircuitBreakerRegistry circuitBreakerRegistry) {
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+    }
+
+    @Override
+    public Response intercept(final Chain chain) throws IOException {
+        final Request request = chain.request();
+        final String url = withoutQuery(request.url());
+        final CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(url);
+
+        if (!circuitBreaker.tryAcquirePermission()) {
+            PluginMetrics.get().increment("http.circuitOpen." + request.url().host());
+            throw new CircuitBreakerOpenException(url);
+        }
+
+        final long start = System.nanoTime();
+        final Response response;
+        try {
+            response = chain.proceed(request);
+        } catch (RateLimitExceededException e) {
+            // never sent, says nothing about the site
+            circuitBreaker.releasePermission();
+            throw e;
+        } catch (IOException e) {
+            circuitBreaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, e);
+            throw e;
+        } catch (RuntimeException e) {
+            // a bug rather than a problem with the site
+            circuitBreaker.releasePermission();
+            throw e;
+        }
+
+        if (response.code() >= 500) {
+            circuitBreaker.onError(
+                    System.nanoTime() - start,
+                    TimeUnit.NANOSECONDS,
+                    new IOException(
+                            String.format("HTTP status %d from %s", response.code(), url)));
+        } else {
+            circuitBreaker.onSuccess(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        return response;
+    }
+
+    /** @return the state of the circuit breaker of every URL that has been called */
+    public static Map<String, CircuitBreaker.State> getStates(
+            final CircuitBreakerRegistry circuitBreakerRegistry) {
+        final Map<String, CircuitBreaker.State> states = new TreeMap<>();
+        for (final CircuitBreaker circuitBreaker : circuitBreakerRegistry.getAllCircuitBreakers()) {
+            states.put(circuitBreaker.getName(), circuitBreaker.getState());
+        }
+        return states;
+    }
+
+    private static String withoutQuery(final HttpUrl url) {
+        return url.newBuilder().query(null).fragment(null).build().toString();
+    }
+}
@@ -0,0 +1,16 @@
+package com.atlassian.jira.cloud.jenkins.provider;
+
+import java.io.IOException;
+
+/** Thrown instead of sending a request to a URL that keeps failing. */
+public final class CircuitBreakerOpenException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    public CircuitBreakerOpenException(final String url) {
+        super(
+                String.format(
+                        "Not sending the request as %s has been failing recently, will try again later",
+                        url));
+    }
+}
@@ -1,94 +1,128 @@
 package com.atlassian.jira.cloud.jenkins.provider;
 
 import com.atlassian.jira.cloud.jenkins.Config;
+import com.atlassian.jira.cloud.jenkins.metrics.PluginMetrics;
 import com.google.inject.Provides;
-import io.github.resilience4j.ratelimiter.RateLimiter;
-import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
-import io.github.resilience4j.ratelimiter.RequestNotPermitted;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import okhttp3.ConnectionPool;
 import okhttp3.Interceptor;
-import okhttp3.Interceptor.Chain;
 import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
 import okhttp3.Request;
 import okhttp3.Response;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.time.Duration;
-import java.util.function.Predicate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
 /**
- * OkHttpClient with appropriate default timeouts
+ * OkHttpClient with appropriate default timeouts. Requests go through a circuit breaker per URL,
+ * retries and an adaptive rate limiter per OAuth client or webhook, in this order. Every attempt that gets past them is counted and
+ * timed in {@link PluginMetrics}, by Jira host.
+ *
+ * <p>All API classes should use {@link #getSharedHttpClient()}, so that they share one connection
+ * pool and a request to the webhook reuses the TLS connection of the one before.
  */
 public class HttpClientProvider {
 
+    private static final Logger log = LoggerFactory.getLogger(HttpClientProvider.class);
+
     private static final String USER_AGENT = "atlassian-jira-software-cloud-plugin";
 
-    private static final Logger log = LoggerFactory.getLogger(HttpClientProvider.class);
-    private final OkHttpClient httpClient;
+    private static HttpClientSettings sharedSettings = HttpClientSettings.DEFAULTS;
+    @Nullable private static OkHttpClient sharedHttpClient;
 
-    private final Predicate<Response> serverInternalPredicate = response -> response.code() >= 500;
-    private final Predicate<Response> notFoudPredicate = response ->
-            response.code() == 404 && response.request().url().toString().endsWith("gating-status");
+    // shared by all clients, as they all send to the same Jira sites
+    private static final ConcurrentMap<String, AdaptiveRateLimiter> RATE_LIMITERS =
+            new ConcurrentHashMap<>();
+
+    static {
+        PluginMetrics.get()
+                .registerGauge("http.circuitBreakers", HttpClientProvider::getCircuitBreakerStates);
+        PluginMetrics.get().registerGauge("http.rateLimits", HttpClientProvider::getRateLimits);
+    }
+
+    private final OkHttpClient httpClient;
 
     public HttpClientProvider() {
-        final RateLimiterRegistry rateLimiterRegistry = Config.RATE_LIMITER_REGISTRY;
+        this(HttpClientSettings.DEFAULTS);
+    }
+
+    public HttpClientProvider(final HttpClientSettings settings) {
         httpClient =
                 new OkHttpClient.Builder()
+                        .connectionPool(
+                                new ConnectionPool(
+                                        settings.getMaxIdleConnections(),
+                                        settings.getKeepAlive().toMillis(),
+                                        TimeUnit.MILLISECONDS))
+                        .protocols(protocols(settings))
                         .connectTimeout(Duration.ofMillis(5000))
                         .readTimeout(Duration.ofMillis(5000))
                         .writeTimeout(Duration.ofMillis(5000))
                         .addInterceptor(userAgentInterceptor())
-                        .addInterceptor(retryInterceptor())
-                        .addInterceptor(gateRetryInterceptor())
-                        .addInterceptor(rateLimiterInterceptor(rateLimiterRegistry))
+                        .addInterceptor(
+                                new CircuitBreakerInterceptor(Config.CIRCUIT_BREAKER_REGISTRY))
+                        .addInterceptor(new RetryInterceptor())
+                        .addInterceptor(new RateLimitInterceptor(RATE_LIMITERS))
+                        .addInterceptor(metricsInterceptor())
                         .build();
     }
 
-    private Interceptor rateLimiterInterceptor(final RateLimiterRegistry rateLimiterRegistry) {
-        return chain -> {
-            final Request request = chain.request();
-            final String clientId = request.tag(String.class);
-            if (clientId != null) {
-                final RateLimiter rateLimiter =
-                        rateLimiterRegistry.rateLimiter(
-                                clientId, Config.ATLASSIAN_RATE_LIMITER_CONFIG);
-                try {
-                    return rateLimiter.executeCallable(() -> chain.proceed(request));
-                } catch (Exception e) {
-                    if (e instanceof IOException) {
-                        // case Http client errors
-                        // it should be always IOException since it's a contract of Interceptor
-                        throw (IOException) e;
-                    } else if (e instanceof RequestNotPermitted) {
-                        // case over limits
-                        throw (RequestNotPermitted) e;
-                    } else {
-                        // all other cases
-                        throw new RuntimeException(e);
-                    }
-                }
-            }
-            return chain.proceed(request);
-        };
+    /** @return the client shared by all API classes, created with the current shared settings */
+    public static synchronized OkHttpClient getSharedHttpClient() {
+        if (sharedHttpClient == null) {
+            sharedHttpClient = new HttpClientProvider(sharedSettings).httpClient();
+        }
+        return sharedHttpClient;
     }
 
-    private Interceptor gateRetryInterceptor() {
-        return chain -> {
-            Request request = chain.request();
-            Response response = chain.proceed(request);
-            response = performRetry(chain, request, response, notFoudPredicate);
+    /**
+     * Sets the settings of the shared client. The API classes keep the client they were created
+     * with, so once the shared client exists new settings only take effect after a restart.
+     */
+    public static synchronized void setSharedSettings(final HttpClientSettings settings) {
+        if (sharedHttpClient != null && !settings.equals(sharedSettings)) {
+            log.info(
+                    String.format(
+                            "HTTP client settings changed to %s, they take effect after Jenkins restarts",
+                            settings));
+        }
+        sharedSettings = settings;
+    }
 
-            return response;
-        };
+    private static List<Protocol> protocols(final HttpClientSettings settings) {
+        return settings.isHttp2Enabled()
+                ? Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1)
+                : Collections.singletonList(Protocol.HTTP_1_1);
     }
 
-    private Interceptor retryInterceptor() {
+    private static Interceptor metricsInterceptor() {
         return chain -> {
-            Request request = chain.request();
-            Response response = chain.proceed(request);
-            response = performRetry(chain, request, response, serverInternalPredicate);
-
+            final String host = chain.request().url().host();
+            final long start = System.nanoTime();
+            final Response response;
+            try {
+                response = chain.proceed(chain.request());
+            } catch (IOException e) {
+                PluginMetrics.get().increment("http.errors." + host);
+                throw e;
+            } finally {
+                PluginMetrics.get()
+                        .recordLatency(
+                                "http.latency." + host, Duration.ofNanos(System.nanoTime() - start));
+            }
+            PluginMetrics.get()
+                    .increment(String.format("http.responses.%s.%dxx", host, response.code() / 100));
             return response;
         };
     }
@@ -102,40 +136,18 @@ public class HttpClientProvider {
         };
     }
 
-    private Response performRetry(
-            final Chain chain,
-            final Request request,
-            final Response originalResponse,
-            final Predicate<Response> retryPredicate)
-            throws IOException {
-        Response response = originalResponse;
-        final int MAX_RETRIES = 3;
-        int currentAttempt = 1;
-
-        while (retryPredicate.test(response) && currentAttempt <= MAX_RETRIES) {
-            log.warn(
-                    String.format(
-                            "Received %d for request to %s. Retry attempt %d of %d.",
-                            response.code(),
-                            response.request().url(),
-                            currentAttempt,
-                            MAX_RETRIES));
-            response.close();
-            try {
-                Thread.sleep(5000); // delay between each retry
-            } catch (InterruptedException e) {
-                log.error("Retry delay interrupted: " + e.getMessage());
-                Thread.currentThread().interrupt();
-            }
-            response = chain.proceed(request);
-            currentAttempt++;
-        }
-
-        return response;
-    }
-
     @Provides
     public OkHttpClient httpClient() {
         return httpClient;
     }
+
+    /** @return the current rate in requests per second of every OAuth client and webhook */
+    public static Map<String, Double> getRateLimits() {
+        return RateLimitInterceptor.getRates(RATE_LIMITERS);
+    }
+
+    /** @return the state of the circuit breaker of every URL the plugin has called */
+    public static Map<String, CircuitBreaker.State> getCircuitBreakerStates() {
+        return CircuitBreakerInterceptor.getStates(Config.CIRCUIT_BREAKER_REGISTRY);
+    }
 }
@@ -0,0 +1,72 @@
+package com.atlassian.jira.cloud.jenkins.provider;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/** Connection settings of the HTTP client shared by all calls to Jira and the Atlassian API. */
+public final class HttpClientSettings {
+
+    public static final HttpClientSettings DEFAULTS =
+            new HttpClientSettings(5, Duration.ofMinutes(5), true);
+
+    private final int maxIdleConnections;
+    private final Duration keepAlive;
+    private final boolean http2Enabled;
+
+    /**
+     * @param maxIdleConnections - how many idle connections are kept open for reuse
+     * @param keepAlive - how long an idle connection is kept open
+     * @param http2Enabled - whether HTTP/2 is offered to servers that support it, so that
+     *     concurrent requests to a host share one connection
+     */
+    public HttpClientSettings(
+            final int maxIdleConnections, final Duration keepAlive, final boolean http2Enabled) {
+        if (maxIdleConnections < 1) {
+            throw new IllegalArgumentException("maxIdleConnections must be at least 1");
+        }
+        if (keepAlive.isNegative() || keepAlive.isZero()) {
+            throw new IllegalArgumentException("keepAlive must be positive");
+        }
+        this.maxIdleConnections = maxIdleConnections;
+        this.keepAlive = keepAlive;
+        this.http2Enabled = http2Enabled;
+    }
+
+    public int getMaxIdleConnections() {
+        return maxIdleConnections;
+    }
+
+    public Duration getKeepAlive() {
+        return keepAlive;
+    }
+
+    public boolean isHttp2Enabled() {
+        return http2Enabled;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final HttpClientSettings that = (HttpClientSettings) o;
+        return maxIdleConnections == that.maxIdleConnections
+                && http2Enabled == that.http2Enabled
+                && keepAlive.equals(that.keepAlive);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(maxIdleConnections, keepAlive, http2Enabled);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "maxIdleConnections=%d, keepAlive=%s, http2Enabled=%s",
+                maxIdleConnections, keepAlive, http2Enabled);
+    }
+}
@@ -10,6 +10,8 @@ import com.google.inject.Provides;
  */
 public class ObjectMapperProvider {
 
+    private static final ObjectMapper sharedObjectMapper = new ObjectMapperProvider().objectMapper();
+
     private final ObjectMapper objectMapper;
 
     public ObjectMapperProvider() {
@@ -20,4 +22,9 @@ public class ObjectMapperProvider {
     public ObjectMapper objectMapper() {
         return objectMapper;
     }
+
+    /** @return a mapper shared by all API classes, it is thread safe once configured */
+    public static ObjectMapper getSharedObjectMapper() {
+        return sharedObjectMapper;
+    }
 }
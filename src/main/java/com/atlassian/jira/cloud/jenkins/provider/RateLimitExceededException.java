@@ -0,0 +1,17 @@
+package com.atlassian.jira.cloud.jenkins.provider;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/** Thrown instead of sending a request that would have to wait too long for the rate limit. */
+public final class RateLimitExceededException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    public RateLimitExceededException(final String url, final Duration maxWait) {
+        super(
+                String.format(
+                        "Not sending the request as the rate limit of %s doesn't allow it within %d seconds",
+                        url, maxWait.getSeconds()));
+    }
+}
@@ -0,0 +1,121 @@
+package com.atlassian.jira.cloud.jenkins.provider;
+
+import com.atlassian.jira.cloud.jenkins.metrics.PluginMetrics;
+import com.google.common.annotations.VisibleForTesting;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps an {@link AdaptiveRateLimiter} per OAuth client (the String tag of the request) or, for
+ * requests without one such as those to the webhooks of the Jenkins app, per URL.
+ *
+ * <p>The limiters learn from the responses: a 429 slows them down, Retry-After and an exhausted
+ * X-RateLimit-Remaining pause them and X-RateLimit-NearLimit slows them down a little. Requests
+ * that would have to wait longer than {@link #maxWait} fail with a {@link
+ * RateLimitExceededException}.
+ */
+final class RateLimitInterceptor implements Interceptor {
+
+    private static final Duration DEFAULT_MAX_WAIT = Duration.ofSeconds(30);
+
+    private final ConcurrentMap<String, AdaptiveRateLimiter> rateLimiters;
+    private final Duration maxWait;
+
+    RateLimitInterceptor(final ConcurrentMap<String, AdaptiveRateLimiter> rateLimiters) {
+        this(rateLimiters, DEFAULT_MAX_WAIT);
+    }
+
+    @VisibleForTesting
+    RateLimitInterceptor(
+            final ConcurrentMap<String, AdaptiveRateLimiter> rateLimiters, final Duration maxWait) {
+        this.rateLimiters = rateLimiters;
+        this.maxWait = maxWait;
+    }
+
+    @Override
+    public Response intercept(final Chain chain) throws IOException {
+        final Request request = chain.request();
+        final AdaptiveRateLimiter rateLimiter =
+                rateLimiters.computeIfAbsent(keyOf(request), k -> new AdaptiveRateLimiter());
+
+        final Optional<Duration> wait = rateLimiter.reserve(maxWait);
+        if (!wait.isPresent()) {
+            PluginMetrics.get().increment("http.rateLimited." + request.url().host());
+            throw new RateLimitExceededException(withoutQuery(request.url()), maxWait);
+        }
+        if (!wait.get().isZero()) {
+            PluginMetrics.get().increment("http.rateLimitWaits." + request.url().host());
+            RetryInterceptor.waitFor(wait.get(), chain.call(), "send the request");
+        }
+
+        final Response response = chain.proceed(request);
+        adapt(rateLimiter, response);
+        return response;
+    }
+
+    /** @return the current rate in requests per second of every client and URL */
+    static Map<String, Double> getRates(
+            final ConcurrentMap<String, AdaptiveRateLimiter> rateLimiters) {
+        final Map<String, Double> rates = new TreeMap<>();
+        rateLimiters.forEach((key, rateLimiter) -> rates.put(key, rateLimiter.getPermitsPerSecond()));
+        return rates;
+    }
+
+    @VisibleForTesting
+    static void adapt(final AdaptiveRateLimiter rateLimiter, final Response response) {
+        if (response.code() == 429) {
+            rateLimiter.onThrottled();
+        } else if (response.isSuccessful()) {
+            if ("true".equalsIgnoreCase(response.header("X-RateLimit-NearLimit"))) {
+                rateLimiter.onNearLimit();
+            } else {
+                rateLimiter.onSuccess();
+            }
+        }
+
+        if (response.code() == 429 || response.code() == 503) {
+            RetryInterceptor.retryAfter(response).ifPresent(rateLimiter::pauseFor);
+        }
+        if ("0".equals(response.header("X-RateLimit-Remaining"))) {
+            untilReset(response).ifPresent(rateLimiter::pauseFor);
+        }
+    }
+
+    /** X-RateLimit-Reset is the ISO 8601 time when the server allows requests again. */
+    private static Optional<Duration> untilReset(final Response response) {
+        final String reset = response.header("X-RateLimit-Reset");
+        if (reset == null) {
+            return Optional.empty();
+        }
+        try {
+            final Duration untilReset =
+                    Duration.between(
+                            ZonedDateTime.now(),
+                            ZonedDateTime.parse(reset.trim(), DateTimeFormatter.ISO_DATE_TIME));
+            return untilReset.isNegative() ? Optional.empty() : Optional.of(untilReset);
+        } catch (DateTimeParseException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static String keyOf(final Request request) {
+        final String clientId = request.tag(String.class);
+        return clientId != null ? clientId : withoutQuery(request.url());
+    }
+
+    private static String withoutQuery(final HttpUrl url) {
+        return url.newBuilder().query(null).fragment(null).build().toString();
+    }
+}
@@ -0,0 +1,236 @@
+package com.atlassian.jira.cloud.jenkins.provider;
+
+import com.atlassian.jira.cloud.jenkins.metrics.PluginMetrics;
+import com.google.common.annotations.VisibleForTesting;
+import okhttp3.Call;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Retries requests that failed with a server error, a 429 or (for gating status requests, which
+ * aren't available right after the deployment was sent) a 404.
+ *
+ * <p>The delay between attempts grows exponentially with random jitter, unless the response has a
+ * Retry-After header. Responses that ask to wait longer than {@link #maxRetryAfter} are returned
+ * without retrying. Each URL (without its query, like in {@link CircuitBreakerInterceptor}) has a
+ * retry budget which refills with every request, so that when a Jira endpoint is down the requests
+ * to it stop being retried instead of each one waiting for all of its retries.
+ *
+ * <p>A 404 for a gating status isn't an overloaded server but a gating status that isn't there
+ * yet, so those are retried after a fixed {@link #gatingStatusDelay} which gives Jira the same time
+ * as before to come up with it.
+ *
+ * <p>OkHttp runs interceptors on the thread that executes the call, so waiting between attempts
+ * happens on that thread; the wait ends early when the call is canceled or the thread interrupted.
+ */
+final class RetryInterceptor implements Interceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(RetryInterceptor.class);
+
+    private static final int DEFAULT_MAX_RETRIES = 3;
+    private static final Duration DEFAULT_BASE_DELAY = Duration.ofMillis(500);
+    private static final Duration DEFAULT_MAX_DELAY = Duration.ofSeconds(5);
+    private static final Duration DEFAULT_MAX_RETRY_AFTER = Duration.ofSeconds(30);
+    private static final double DEFAULT_BUDGET = 10;
+    private static final Duration DEFAULT_GATING_STATUS_DELAY = Duration.ofSeconds(5);
+
+    // how much of a retry every request adds to the budget of its URL
+    private static final double BUDGET_PER_REQUEST = 0.2;
+
+    private static final long WAIT_SLICE_MILLIS = 100;
+
+    private final int maxRetries;
+    private final Duration baseDelay;
+    private final Duration maxDelay;
+    private final Duration maxRetryAfter;
+    private final double maxBudget;
+    private final Duration gatingStatusDelay;
+    private final Map<String, RetryBudget> budgets = new ConcurrentHashMap<>();
+
+    RetryInterceptor() {
+        this(
+                DEFAULT_MAX_RETRIES,
+                DEFAULT_BASE_DELAY,
+                DEFAULT_MAX_DELAY,
+                DEFAULT_MAX_RETRY_AFTER,
+                DEFAULT_BUDGET,
+                DEFAULT_GATING_STATUS_DELAY);
+    }
+
+    @VisibleForTesting
+    RetryInterceptor(
+            final int maxRetries,
+            final Duration baseDelay,
+            final Duration maxDelay,
+            final Duration maxRetryAfter,
+            final double maxBudget,
+            final Duration gatingStatusDelay) {
+        this.maxRetries = maxRetries;
+        this.baseDelay = baseDelay;
+        this.maxDelay = maxDelay;
+        this.maxRetryAfter = maxRetryAfter;
+        this.maxBudget = maxBudget;
+        this.gatingStatusDelay = gatingStatusDelay;
+    }
+
+    @Override
+    public Response intercept(final Chain chain) throws IOException {
+        final Request request = chain.request();
+        final RetryBudget budget =
+                budgets.computeIfAbsent(
+                        withoutQuery(request.url()), url -> new RetryBudget(maxBudget));
+        budget.deposit(BUDGET_PER_REQUEST);
+
+        Response response = chain.proceed(request);
+        for (int attempt = 1; attempt <= maxRetries && isRetryable(response); attempt++) {
+            final Duration delay = delay(response, attempt);
+            if (delay.compareTo(maxRetryAfter) > 0) {
+                log.warn(
+                        String.format(
+                                "Received %d for request to %s, not retrying as asked to wait %d seconds.",
+                                response.code(), request.url(), delay.getSeconds()));
+                break;
+            }
+            if (!budget.tryWithdraw()) {
+                log.warn(
+                        String.format(
+                                "Received %d for request to %s, not retrying as the retry budget of the URL is used up.",
+                                response.code(), request.url()));
+                break;
+            }
+
+            log.warn(
+                    String.format(
+                            "Received %d for request to %s. Retry attempt %d of %d in %d ms.",
+                            response.code(),
+                            request.url(),
+                            attempt,
+                            maxRetries,
+                            delay.toMillis()));
+            PluginMetrics.get().increment("http.retries." + request.url().host());
+            response.close();
+            waitFor(delay, chain.call(), "retry");
+            response = chain.proceed(request);
+        }
+        return response;
+    }
+
+    @VisibleForTesting
+    static boolean isRetryable(final Response response) {
+        return response.code() >= 500 || response.code() == 429 || isGatingStatusNotFound(response);
+    }
+
+    private static boolean isGatingStatusNotFound(final Response response) {
+        return response.code() == 404
+                && response.request().url().toString().endsWith("gating-status");
+    }
+
+    @VisibleForTesting
+    Duration delay(final Response response, final int attempt) {
+        final Optional<Duration> retryAfter = retryAfter(response);
+        if (retryAfter.isPresent()) {
+            return retryAfter.get();
+        }
+        return isGatingStatusNotFound(response) ? gatingStatusDelay : backoff(attempt);
+    }
+
+    /** Exponential backoff with "equal jitter": between half and all of the exponential delay. */
+    @VisibleForTesting
+    Duration backoff(final int attempt) {
+        final long exponentialMillis =
+                Math.min(
+                        maxDelay.toMillis(),
+                        baseDelay.toMillis() * (1L << Math.min(attempt - 1, 30)));
+        final long halfMillis = exponentialMillis / 2;
+        return Duration.ofMillis(
+                halfMillis + ThreadLocalRandom.current().nextLong(exponentialMillis - halfMillis + 1));
+    }
+
+    /** Retry-After is either a number of seconds or an HTTP date. */
+    @VisibleForTesting
+    static Optional<Duration> retryAfter(final Response response) {
+        final String retryAfter = response.header("Retry-After");
+        if (retryAfter == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(Duration.ofSeconds(Math.max(Long.parseLong(retryAfter.trim()), 0)));
+        } catch (NumberFormatException e) {
+            // not a number of seconds, try the date format
+        }
+        try {
+            final Duration untilDate =
+                    Duration.between(
+                            ZonedDateTime.now(),
+                            ZonedDateTime.parse(
+                                    retryAfter.trim(), DateTimeFormatter.RFC_1123_DATE_TIME));
+            return Optional.of(untilDate.isNegative() ? Duration.ZERO : untilDate);
+        } catch (DateTimeParseException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Sleeps on the calling thread in short slices, so that canceling the call ends the wait.
+     *
+     * @param what - what is waited for, for the exception messages
+     */
+    static void waitFor(final Duration delay, final Call call, final String what)
+            throws IOException {
+        final long deadline = System.nanoTime() + delay.toNanos();
+        try {
+            long remainingMillis = delay.toMillis();
+            while (remainingMillis > 0) {
+                if (call.isCanceled()) {
+                    throw new IOException("Canceled while waiting to " + what);
+                }
+                Thread.sleep(Math.min(remainingMillis, WAIT_SLICE_MILLIS));
+                remainingMillis = (deadline - System.nanoTime()) / 1_000_000;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to " + what);
+        }
+    }
+
+    private static String withoutQuery(final HttpUrl url) {
+        return url.newBuilder().query(null).fragment(null).build().toString();
+    }
+
+    private static final class RetryBudget {
+        private final double maxBalance;
+        private double balance;
+
+        RetryBudget(final double maxBalance) {
+            this.maxBalance = maxBalance;
+            this.balance = maxBalance;
+        }
+
+        synchronized void deposit(final double amount) {
+            balance = Math.min(maxBalance, balance + amount);
+        }
+
+        synchronized boolean tryWithdraw() {
+            if (balance < 1) {
+                return false;
+            }
+            balance -= 1;
+            return true;
+        }
+    }
+}
@@ -1,8 +1,13 @@
 package com.atlassian.jira.cloud.jenkins.tenantinfo;
 
+import com.atlassian.jira.cloud.jenkins.metrics.PluginMetrics;
+import com.atlassian.jira.cloud.jenkins.provider.HttpClientProvider;
+import com.atlassian.jira.cloud.jenkins.provider.ObjectMapperProvider;
 import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.annotations.VisibleForTesting;
+import jenkins.util.SystemProperties;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
@@ -12,11 +17,23 @@ import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
 import java.io.IOException;
+import java.time.Duration;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
 
 /**
  * Resolves the Jira site URL provided by the Jenkins user into Cloud ID. Cloud ID is required to
  * submit build updates via API.
+ *
+ * <p>The cloud ID of a site doesn't change, so resolved IDs are cached for an hour, and failed
+ * lookups for a minute so that a site which is down isn't asked again for every event. Concurrent
+ * lookups of the same site share a single request. The TTLs can be changed with the system
+ * properties {@code <this class>.cacheTtlSeconds} and {@code <this class>.negativeCacheTtlSeconds}.
  */
 public class CloudIdResolver {
 
@@ -25,13 +42,98 @@ public class CloudIdResolver {
     private static final Logger log = LoggerFactory.getLogger(CloudIdResolver.class);
     public static final String TENANT_INFO_ENDPOINT = "/_edge/tenant_info";
 
+    private static final long DEFAULT_CACHE_TTL_SECONDS = 60 * 60;
+    private static final long DEFAULT_NEGATIVE_CACHE_TTL_SECONDS = 60;
+
+    private final long cacheTtlNanos;
+    private final long negativeCacheTtlNanos;
+    private final LongSupplier nanoClock;
+
+    private final ConcurrentMap<String, CachedCloudId> cache = new ConcurrentHashMap<>();
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
     @Inject
+    public CloudIdResolver() {
+        this(HttpClientProvider.getSharedHttpClient(), ObjectMapperProvider.getSharedObjectMapper());
+    }
+
     public CloudIdResolver(final OkHttpClient httpClient, final ObjectMapper objectMapper) {
+        this(
+                httpClient,
+                objectMapper,
+                Duration.ofSeconds(
+                        SystemProperties.getLong(
+                                CloudIdResolver.class.getName() + ".cacheTtlSeconds",
+                                DEFAULT_CACHE_TTL_SECONDS)),
+                Duration.ofSeconds(
+                        SystemProperties.getLong(
+                                CloudIdResolver.class.getName() + ".negativeCacheTtlSeconds",
+                                DEFAULT_NEGATIVE_CACHE_TTL_SECONDS)),
+                System::nanoTime);
+    }
+
+    @VisibleForTesting
+    CloudIdResolver(
+            final OkHttpClient httpClient,
+            final ObjectMapper objectMapper,
+            final Duration cacheTtl,
+            final Duration negativeCacheTtl,
+            final LongSupplier nanoClock) {
         this.httpClient = httpClient;
         this.objectMapper = objectMapper;
+        this.cacheTtlNanos = cacheTtl.toNanos();
+        this.negativeCacheTtlNanos = negativeCacheTtl.toNanos();
+        this.nanoClock = nanoClock;
     }
 
     public Optional<String> getCloudId(final String jiraSiteUrl) {
+        while (true) {
+            final CachedCloudId cached = cache.get(jiraSiteUrl);
+            if (cached != null && !cached.isExpired(nanoClock.getAsLong())) {
+                hitCount.increment();
+                PluginMetrics.get().increment("tenantInfo.cacheHits");
+                return cached.await();
+            }
+
+            final CachedCloudId lookup = new CachedCloudId();
+            final boolean isOwnLookup =
+                    cached == null
+                            ? cache.putIfAbsent(jiraSiteUrl, lookup) == null
+                            : cache.replace(jiraSiteUrl, cached, lookup);
+            if (isOwnLookup) {
+                missCount.increment();
+                PluginMetrics.get().increment("tenantInfo.cacheMisses");
+                return resolve(jiraSiteUrl, lookup);
+            }
+            // another thread has started a lookup in the meantime, wait for that one
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    private Optional<String> resolve(final String jiraSiteUrl, final CachedCloudId lookup) {
+        final Optional<String> cloudId;
+        try {
+            cloudId = fetchCloudId(jiraSiteUrl);
+        } catch (RuntimeException e) {
+            cache.remove(jiraSiteUrl, lookup);
+            lookup.cloudId.completeExceptionally(e);
+            throw e;
+        }
+        lookup.expiresAt =
+                nanoClock.getAsLong() + (cloudId.isPresent() ? cacheTtlNanos : negativeCacheTtlNanos);
+        lookup.cloudId.complete(cloudId);
+        return cloudId;
+    }
+
+    private Optional<String> fetchCloudId(final String jiraSiteUrl) {
         Request request =
                 new Request.Builder()
                         .url(String.format("%s%s", jiraSiteUrl, TENANT_INFO_ENDPOINT))
@@ -54,7 +156,7 @@ public class CloudIdResolver {
                 return Optional.empty();
             }
 
-            TenantInfo tenantInfo = objectMapper.readValue(body.bytes(), TenantInfo.class);
+            TenantInfo tenantInfo = objectMapper.readValue(body.byteStream(), TenantInfo.class);
 
             return Optional.of(tenantInfo.getCloudId());
         } catch (JsonMappingException | JsonParseException e) {
@@ -65,4 +167,26 @@ public class CloudIdResolver {
             return Optional.empty();
         }
     }
+
+    /** The result of a lookup, which may still be in progress. */
+    private static final class CachedCloudId {
+        private final CompletableFuture<Optional<String>> cloudId = new CompletableFuture<>();
+        // written before cloudId is completed
+        private volatile long expiresAt;
+
+        boolean isExpired(final long now) {
+            return cloudId.isDone() && now - expiresAt >= 0;
+        }
+
+        Optional<String> await() {
+            try {
+                return cloudId.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        }
+    }
 }
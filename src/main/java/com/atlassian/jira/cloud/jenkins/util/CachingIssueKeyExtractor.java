@@ -0,0 +1,120 @@
+package com.atlassian.jira.cloud.jenkins.util;
+
+import com.atlassian.jira.cloud.jenkins.common.service.IssueKeyExtractor;
+import com.atlassian.jira.cloud.jenkins.logging.PipelineLogger;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import jenkins.scm.api.SCMRevision;
+import jenkins.scm.api.SCMRevisionAction;
+import org.jenkinsci.plugins.workflow.job.WorkflowRun;
+
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Remembers the issue keys extracted from a run and only extracts them again when the inputs of the
+ * extraction may have changed, i.e. when the run did another checkout or its SCM revision has
+ * changed.
+ *
+ * <p>The auto builds and auto deployments listeners look for issue keys on every new flow node, so
+ * a single instance should be shared between them.
+ */
+public class CachingIssueKeyExtractor implements IssueKeyExtractor {
+
+    private final IssueKeyExtractor delegate;
+
+    // weak keys: an entry goes away together with the run, and runs are compared by identity
+    private final Cache<WorkflowRun, CachedIssueKeys> cache =
+            CacheBuilder.newBuilder().weakKeys().build();
+
+    public CachingIssueKeyExtractor(final IssueKeyExtractor delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Set<String> extractIssueKeys(
+            final WorkflowRun workflowRun, final PipelineLogger pipelineLogger) {
+        return getCachedIssueKeys(workflowRun).get(workflowRun, pipelineLogger);
+    }
+
+    /**
+     * Answers from the cache if the inputs haven't changed, and otherwise asks the delegate without
+     * extracting all issue keys. The answer is cached either way, so a pipeline doesn't look for
+     * issue keys again on every flow node.
+     */
+    @Override
+    public boolean hasAnyIssueKey(
+            final WorkflowRun workflowRun, final PipelineLogger pipelineLogger) {
+        return getCachedIssueKeys(workflowRun).hasAny(workflowRun, pipelineLogger);
+    }
+
+    private CachedIssueKeys getCachedIssueKeys(final WorkflowRun workflowRun) {
+        try {
+            return cache.get(workflowRun, CachedIssueKeys::new);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private final class CachedIssueKeys {
+        private int checkoutCount = -1;
+        @Nullable private SCMRevision scmRevision;
+        // both null until looked for since the inputs last changed
+        @Nullable private Set<String> issueKeys;
+        @Nullable private Boolean hasAny;
+
+        synchronized Set<String> get(
+                final WorkflowRun workflowRun, final PipelineLogger pipelineLogger) {
+            updateInputs(workflowRun);
+            // only logs when extracting, a hit happens on every flow node
+            if (issueKeys == null) {
+                pipelineLogger.debug("Checkouts or SCM revision changed, extracting issue keys");
+                issueKeys =
+                        Collections.unmodifiableSet(
+                                delegate.extractIssueKeys(workflowRun, pipelineLogger));
+                hasAny = !issueKeys.isEmpty();
+            }
+            return issueKeys;
+        }
+
+        synchronized boolean hasAny(
+                final WorkflowRun workflowRun, final PipelineLogger pipelineLogger) {
+            updateInputs(workflowRun);
+            if (hasAny == null) {
+                // the issue keys themselves are only extracted when they're needed
+                hasAny = delegate.hasAnyIssueKey(workflowRun, pipelineLogger);
+                if (!hasAny) {
+                    issueKeys = Collections.emptySet();
+                }
+            }
+            return hasAny;
+        }
+
+        /**
+         * Forgets what was found if there was another checkout or the SCM revision changed. Counts
+         * the checkouts rather than the change sets, as {@link WorkflowRun#getChangeSets()} parses
+         * and keeps the change logs of all checkouts, which {@link ChangeLogIssueKeyReader} avoids.
+         */
+        private void updateInputs(final WorkflowRun workflowRun) {
+            final int currentCheckoutCount = workflowRun.getSCMs().size();
+            final SCMRevision currentScmRevision = getScmRevision(workflowRun);
+
+            if (currentCheckoutCount != checkoutCount
+                    || !Objects.equals(currentScmRevision, scmRevision)) {
+                checkoutCount = currentCheckoutCount;
+                scmRevision = currentScmRevision;
+                issueKeys = null;
+                hasAny = null;
+            }
+        }
+
+        @Nullable
+        private SCMRevision getScmRevision(final WorkflowRun workflowRun) {
+            final SCMRevisionAction scmAction = workflowRun.getAction(SCMRevisionAction.class);
+            return scmAction != null ? scmAction.getRevision() : null;
+        }
+    }
+}
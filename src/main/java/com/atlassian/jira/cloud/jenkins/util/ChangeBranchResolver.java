@@ -0,0 +1,77 @@
+package com.atlassian.jira.cloud.jenkins.util;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import hudson.util.LogTaskListener;
+import jenkins.scm.api.SCMHead;
+import jenkins.scm.api.SCMRevisionAction;
+import jenkins.scm.api.mixin.ChangeRequestSCMHead2;
+import org.jenkinsci.plugins.workflow.job.WorkflowRun;
+
+import javax.annotation.Nullable;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Resolves the CHANGE_BRANCH of a run, i.e. for a change request the name of its origin branch.
+ *
+ * <p>Multibranch Pipeline sets CHANGE_BRANCH from the {@link ChangeRequestSCMHead2} of the run's
+ * SCM revision, so that's where it's read from; a run whose SCM revision isn't a change request
+ * has no CHANGE_BRANCH. Only runs without an SCM revision need {@link WorkflowRun#getEnvironment},
+ * which runs every environment contributor installed in Jenkins. The result is cached per run
+ * either way.
+ */
+final class ChangeBranchResolver {
+
+    private static final ChangeBranchResolver instance = new ChangeBranchResolver();
+
+    // weak keys: an entry goes away together with the run, and runs are compared by identity
+    private final Cache<WorkflowRun, Optional<String>> changeBranches =
+            CacheBuilder.newBuilder().weakKeys().build();
+
+    @VisibleForTesting
+    ChangeBranchResolver() {}
+
+    static ChangeBranchResolver get() {
+        return instance;
+    }
+
+    @Nullable
+    String resolve(final WorkflowRun build) {
+        try {
+            return changeBranches.get(build, () -> Optional.ofNullable(lookUp(build))).orElse(null);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    @Nullable
+    private static String lookUp(final WorkflowRun build) throws Exception {
+        final SCMRevisionAction scmAction = build.getAction(SCMRevisionAction.class);
+        if (scmAction != null) {
+            final SCMHead head = scmAction.getRevision().getHead();
+            if (head instanceof ChangeRequestSCMHead2) {
+                return ((ChangeRequestSCMHead2) head).getOriginName();
+            }
+            return null;
+        }
+
+        // You can get an overview of a Jenkins server's environment variables by opening
+        // http://your-jenkins-server/env-vars.html
+
+        // For a multibranch project corresponding to some kind of change request, this will be set to the name of the
+        // actual head on the source control system which may or may not be different from the branch name that is returned
+        // via revision.getHead(). For example in GitHub or Bitbucket this would have the name of the origin branch
+        // whereas revision.getHead() would return something like PR-24.
+        final Map<String, String> envVars =
+                build.getEnvironment(
+                        new LogTaskListener(
+                                Logger.getLogger(ChangeBranchResolver.class.getName()),
+                                Level.INFO));
+        return envVars.get("CHANGE_BRANCH");
+    }
+}
@@ -0,0 +1,188 @@
+package com.atlassian.jira.cloud.jenkins.util;
+
+import hudson.model.Run;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Reads the issue keys in the commit messages of a run's change log files, without parsing them
+ * into {@link hudson.scm.ChangeLogSet}s whose entries also hold the authors and every affected
+ * file.
+ *
+ * <p>The Git plugin writes the raw output of {@code git log} to the change log file, of which only
+ * the indented commit message lines are scanned. Change logs in XML are streamed with StAX and the
+ * text of their {@code msg} and {@code comment} elements scanned. If a run has no change log file
+ * with commits, or one of them is in neither format, nothing is returned and callers should fall
+ * back to {@link Run#getChangeSets()}. Like there, a change log without commits, which the Git
+ * plugin writes for every checkout without new commits, doesn't count as a change set.
+ */
+public final class ChangeLogIssueKeyReader {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeLogIssueKeyReader.class);
+
+    // changelog.xml of freestyle builds, changelog0.xml, changelog1.xml... of pipeline checkouts
+    private static final Pattern CHANGE_LOG_FILE_NAME = Pattern.compile("changelog\\d*\\.xml");
+
+    private static final String GIT_COMMIT_PREFIX = "commit ";
+    private static final String GIT_MESSAGE_INDENT = "    ";
+    private static final Set<String> XML_MESSAGE_ELEMENTS =
+            Collections.unmodifiableSet(new HashSet<>(Arrays.asList("msg", "comment")));
+
+    private static final XMLInputFactory xmlInputFactory = createXmlInputFactory();
+
+    private enum ChangeLogContent {
+        COMMITS,
+        NO_COMMITS,
+        UNKNOWN_FORMAT
+    }
+
+    private ChangeLogIssueKeyReader() {
+        // empty
+    }
+
+    /**
+     * @param limit - stop reading once this many issue keys were found
+     * @return the issue keys of all change log files of the run, or nothing if none of them has
+     *     commits or they can't be read
+     */
+    public static Optional<Set<String>> readIssueKeys(final Run<?, ?> run, final int limit) {
+        final List<File> changeLogFiles = getChangeLogFiles(run);
+        if (changeLogFiles.isEmpty()) {
+            return Optional.empty();
+        }
+
+        final Set<String> issueKeys = new HashSet<>();
+        boolean hasCommits = false;
+        for (File changeLogFile : changeLogFiles) {
+            try {
+                final ChangeLogContent content = readIssueKeys(changeLogFile, issueKeys, limit);
+                if (content == ChangeLogContent.UNKNOWN_FORMAT) {
+                    log.debug(
+                            String.format(
+                                    "Unknown change log format in %s, parsing change sets instead",
+                                    changeLogFile));
+                    return Optional.empty();
+                }
+                hasCommits |= content == ChangeLogContent.COMMITS;
+            } catch (IOException | XMLStreamException e) {
+                log.warn(String.format("Unable to read change log %s", changeLogFile), e);
+                return Optional.empty();
+            }
+            if (issueKeys.size() >= limit) {
+                break;
+            }
+        }
+        return hasCommits ? Optional.of(issueKeys) : Optional.empty();
+    }
+
+    private static List<File> getChangeLogFiles(final Run<?, ?> run) {
+        final File rootDir = run.getRootDir();
+        final File[] files =
+                rootDir == null
+                        ? null
+                        : rootDir.listFiles(
+                                file ->
+                                        file.isFile()
+                                                && CHANGE_LOG_FILE_NAME
+                                                        .matcher(file.getName())
+                                                        .matches());
+        return files == null ? Collections.emptyList() : Arrays.asList(files);
+    }
+
+    private static ChangeLogContent readIssueKeys(
+            final File changeLogFile, final Set<String> issueKeys, final int limit)
+            throws IOException, XMLStreamException {
+        try (BufferedReader reader =
+                Files.newBufferedReader(changeLogFile.toPath(), StandardCharsets.UTF_8)) {
+            String line = reader.readLine();
+            while (line != null && line.trim().isEmpty()) {
+                line = reader.readLine();
+            }
+            if (line == null) {
+                return ChangeLogContent.NO_COMMITS;
+            }
+            if (line.startsWith(GIT_COMMIT_PREFIX)) {
+                readGitIssueKeys(reader, issueKeys, limit);
+                return ChangeLogContent.COMMITS;
+            }
+            if (!line.trim().startsWith("<")) {
+                return ChangeLogContent.UNKNOWN_FORMAT;
+            }
+        }
+        try (Reader reader =
+                Files.newBufferedReader(changeLogFile.toPath(), StandardCharsets.UTF_8)) {
+            return readXmlIssueKeys(reader, issueKeys, limit)
+                    ? ChangeLogContent.COMMITS
+                    : ChangeLogContent.NO_COMMITS;
+        }
+    }
+
+    private static void readGitIssueKeys(
+            final BufferedReader reader, final Set<String> issueKeys, final int limit)
+            throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.startsWith(GIT_MESSAGE_INDENT)
+                    && IssueKeyStringExtractor.collectIssueKeys(
+                            line.substring(GIT_MESSAGE_INDENT.length()), issueKeys, limit)) {
+                return;
+            }
+        }
+    }
+
+    /** @return true if the root element has any entry */
+    private static boolean readXmlIssueKeys(
+            final Reader reader, final Set<String> issueKeys, final int limit)
+            throws XMLStreamException {
+        final XMLStreamReader xml = xmlInputFactory.createXMLStreamReader(reader);
+        try {
+            int depth = 0;
+            boolean hasEntries = false;
+            while (xml.hasNext()) {
+                final int event = xml.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    hasEntries |= depth == 1;
+                    if (XML_MESSAGE_ELEMENTS.contains(xml.getLocalName())) {
+                        // reads up to the end of the element
+                        if (IssueKeyStringExtractor.collectIssueKeys(
+                                xml.getElementText(), issueKeys, limit)) {
+                            return true;
+                        }
+                    } else {
+                        depth++;
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    depth--;
+                }
+            }
+            return hasEntries;
+        } finally {
+            xml.close();
+        }
+    }
+
+    private static XMLInputFactory createXmlInputFactory() {
+        final XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+}
@@ -9,7 +9,10 @@ import java.util.Collection;
 import java.util.Set;
 import java.util.stream.Collectors;
 
-/** Combines multiple issue key extractors. */
+/**
+ * Combines multiple issue key extractors. {@link #hasAnyIssueKey} asks them in the given order and
+ * stops at the first one that finds an issue key.
+ */
 public class CompoundIssueKeyExtractor implements IssueKeyExtractor {
 
     private final IssueKeyExtractor[] extractors;
@@ -26,4 +29,11 @@ public class CompoundIssueKeyExtractor implements IssueKeyExtractor {
                 .flatMap(Collection::stream)
                 .collect(Collectors.toSet());
     }
+
+    @Override
+    public boolean hasAnyIssueKey(
+            final WorkflowRun workflowRun, final PipelineLogger pipelineLogger) {
+        return Arrays.stream(this.extractors)
+                .anyMatch(extractor -> extractor.hasAnyIssueKey(workflowRun, pipelineLogger));
+    }
 }
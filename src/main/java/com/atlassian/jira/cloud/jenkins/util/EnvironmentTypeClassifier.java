@@ -0,0 +1,139 @@
+package com.atlassian.jira.cloud.jenkins.util;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Derives the Jira environment type of a deployment from the name of its environment, by looking
+ * for known aliases of the types in the name: "eu-prod-1" is a production environment.
+ *
+ * <p>Custom aliases are looked for before the built-in ones, so they can also move a built-in alias
+ * to another type. The type of every name is remembered, as pipelines deploy to the same few
+ * environments over and over.
+ */
+public final class EnvironmentTypeClassifier {
+
+    /** The environment types that Jira accepts, apart from "unmapped". */
+    public static final List<String> ENVIRONMENT_TYPES =
+            ImmutableList.of("development", "testing", "staging", "production");
+
+    private static final String DEFAULT_TYPE = "production";
+
+    // keeps a pipeline with generated environment names from growing the cache without bounds
+    private static final int MAX_CACHED_NAMES = 1000;
+
+    // We use same mapping as GitHub app does:
+    // https://github.com/atlassian/github-for-jira/blob/9ce28a0cc128ec12893f28004bd74ea8bee006b4/src/transforms/deployment.ts#L49-L49
+    private static final Map<String, List<String>> BUILT_IN_ALIASES =
+            ImmutableMap.of(
+                    "development",
+                    ImmutableList.of("development", "dev", "trunk"),
+                    "testing",
+                    ImmutableList.of(
+                            "testing",
+                            "test",
+                            "tests",
+                            "tst",
+                            "integration",
+                            "integ",
+                            "intg",
+                            "int",
+                            "acceptance",
+                            "accept",
+                            "acpt",
+                            "qa",
+                            "qc",
+                            "control",
+                            "quality"),
+                    "staging",
+                    ImmutableList.of("staging", "stage", "stg", "preprod", "model", "internal"),
+                    "production",
+                    ImmutableList.of("production", "prod", "prd", "live"));
+
+    // declared after the built-in aliases, which it needs
+    public static final EnvironmentTypeClassifier DEFAULT =
+            new EnvironmentTypeClassifier(ImmutableMap.of());
+
+    // lower case aliases and their types, in the order they are looked for
+    private final List<Map.Entry<String, String>> aliases = new ArrayList<>();
+    private final Map<String, String> typeByName = new ConcurrentHashMap<>();
+
+    /**
+     * @param customAliases - aliases by environment type, looked for in this order before the
+     *     built-in ones
+     */
+    public EnvironmentTypeClassifier(final Map<String, List<String>> customAliases) {
+        addAliases(customAliases);
+        addAliases(BUILT_IN_ALIASES);
+    }
+
+    /**
+     * Parses a table of custom aliases with one environment type per line, followed by a colon and
+     * the comma separated aliases of the type, e.g. "testing: uat, sit".
+     *
+     * @throws IllegalArgumentException if a line doesn't name one of the {@link
+     *     #ENVIRONMENT_TYPES}
+     */
+    public static Map<String, List<String>> parseAliases(final String table) {
+        final Map<String, List<String>> aliases = new LinkedHashMap<>();
+        for (final String line : table.split("\\R")) {
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            final int colon = line.indexOf(':');
+            final String type =
+                    colon < 0 ? "" : line.substring(0, colon).trim().toLowerCase(Locale.ROOT);
+            if (!ENVIRONMENT_TYPES.contains(type)) {
+                throw new IllegalArgumentException(
+                        String.format(
+                                "Environment type aliases must start with one of %s followed by a colon: '%s'",
+                                ENVIRONMENT_TYPES, line.trim()));
+            }
+            final List<String> typeAliases = aliases.computeIfAbsent(type, t -> new ArrayList<>());
+            for (final String alias : line.substring(colon + 1).split(",")) {
+                if (!alias.trim().isEmpty()) {
+                    typeAliases.add(alias.trim().toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        return aliases;
+    }
+
+    /** @return the type of the environment, "production" if the name contains no known alias */
+    public String classify(final String environmentName) {
+        final String cachedType = typeByName.get(environmentName);
+        if (cachedType != null) {
+            return cachedType;
+        }
+
+        final String lowerCaseName = environmentName.toLowerCase(Locale.ROOT);
+        final String type =
+                aliases.stream()
+                        .filter(alias -> lowerCaseName.contains(alias.getKey()))
+                        .map(Map.Entry::getValue)
+                        .findFirst()
+                        .orElse(DEFAULT_TYPE);
+        if (typeByName.size() < MAX_CACHED_NAMES) {
+            typeByName.put(environmentName, type);
+        }
+        return type;
+    }
+
+    private void addAliases(final Map<String, List<String>> aliasesByType) {
+        aliasesByType.forEach(
+                (type, typeAliases) ->
+                        typeAliases.forEach(
+                                alias ->
+                                        aliases.add(
+                                                new AbstractMap.SimpleImmutableEntry<>(
+                                                        alias.toLowerCase(Locale.ROOT), type))));
+    }
+}
@@ -1,20 +1,25 @@
 package com.atlassian.jira.cloud.jenkins.util;
 
-import com.google.common.collect.ImmutableSet;
 import com.atlassian.jira.cloud.jenkins.common.model.IssueKey;
 import org.apache.commons.lang.StringUtils;
 
+import javax.annotation.Nullable;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import static com.atlassian.jira.cloud.jenkins.common.service.IssueKeyExtractor.ISSUE_KEY_MAX_LIMIT;
 
 /**
  * Extracts issue keys (eg. TEST-123) of any number of instances from a given string. Input can be a
  * commit message or a branch name.
+ *
+ * <p>The input is scanned in a single pass without any allocations, finding the same keys as the
+ * regular expression:
+ *
+ * <pre>
+ * (?:(?&lt;=[\s\p{Punct}])|^)(\p{Lu}[\p{Lu}\p{Digit}_]{1,255}-\p{Digit}{1,100})(?:(?=[\s\p{Punct}])|$)
+ * </pre>
  */
 public final class IssueKeyStringExtractor {
 
@@ -22,39 +27,168 @@ public final class IssueKeyStringExtractor {
         // empty
     }
 
-    private static final String SEPARATOR = "[\\s\\p{Punct}]";
-    // zero-width positive lookbehind
-    private static final String KEY_PREFIX_REGEX = "(?:(?<=" + SEPARATOR + ")|^)";
     // max of 256 chars in Issue Key project name and 100 for the issue number
-    private static final String KEY_BODY_REGEX =
-            "(\\p{Lu}[\\p{Lu}\\p{Digit}_]{1,255}-\\p{Digit}{1,100})";
-    // zero-width positive lookahead
-    private static final String KEY_POSTFIX_REGEX = "(?:(?=" + SEPARATOR + ")|$)";
+    private static final int MAX_PROJECT_KEY_LENGTH = 256;
+    private static final int MAX_ISSUE_NUMBER_LENGTH = 100;
 
-    private static final String ISSUE_KEY_REGEX =
-            KEY_PREFIX_REGEX + KEY_BODY_REGEX + KEY_POSTFIX_REGEX;
-    private static final Pattern PROJECT_KEY_PATTERN = Pattern.compile(ISSUE_KEY_REGEX);
+    private static final char NEXT_LINE = 0x0085;
+    private static final char LINE_SEPARATOR = 0x2028;
+    private static final char PARAGRAPH_SEPARATOR = 0x2029;
 
-    public static Set<IssueKey> extractIssueKeys(final String text) {
-        final Set<IssueKey> matches = new HashSet<>();
+    /** Receives the issue keys found by {@link #scan(String, IssueKeyCollector)}. */
+    @FunctionalInterface
+    public interface IssueKeyCollector {
+        /**
+         * @param text - the scanned text
+         * @param start - index of the first character of the issue key
+         * @param end - index after the last character of the issue key
+         * @return false to stop scanning
+         */
+        boolean collect(String text, int start, int end);
+    }
 
+    public static Set<IssueKey> extractIssueKeys(final String text) {
         if (StringUtils.isBlank(text)) {
             return Collections.emptySet();
         }
 
-        final Matcher match = PROJECT_KEY_PATTERN.matcher(text);
+        final Set<IssueKey> matches = new HashSet<>();
+        scan(
+                text,
+                (input, start, end) -> {
+                    matches.add(new IssueKey(input.substring(start, end)));
+                    return matches.size() < ISSUE_KEY_MAX_LIMIT;
+                });
+
+        return Collections.unmodifiableSet(matches);
+    }
+
+    /** @return true if the text contains at least one issue key, without looking any further */
+    public static boolean containsIssueKey(@Nullable final String text) {
+        return !StringUtils.isBlank(text) && !scan(text, (input, start, end) -> false);
+    }
 
-        while (match.find()) {
-            for (int i = 1; i <= match.groupCount(); i++) {
-                final String issueKey = match.group(i);
-                matches.add(new IssueKey(issueKey));
+    /**
+     * Adds the issue keys found in the text to the given set until it holds {@code limit} keys.
+     *
+     * @return true if the limit has been reached
+     */
+    public static boolean collectIssueKeys(
+            @Nullable final String text, final Set<String> issueKeys, final int limit) {
+        if (issueKeys.size() >= limit) {
+            return true;
+        }
+        if (StringUtils.isBlank(text)) {
+            return false;
+        }
+        scan(
+                text,
+                (input, start, end) -> {
+                    issueKeys.add(input.substring(start, end).toUpperCase());
+                    return issueKeys.size() < limit;
+                });
+        return issueKeys.size() >= limit;
+    }
 
-                if (matches.size() >= ISSUE_KEY_MAX_LIMIT) {
-                    return ImmutableSet.copyOf(matches);
+    /**
+     * Scans the text for issue keys and hands each one (including duplicates) to the collector, in
+     * the order they appear.
+     *
+     * @return false if the collector stopped the scan
+     */
+    public static boolean scan(final String text, final IssueKeyCollector collector) {
+        final int length = text.length();
+        int i = 0;
+        while (i < length) {
+            if (i > 0 && !isSeparator(text.charAt(i - 1))) {
+                i++;
+                continue;
+            }
+            final int end = matchIssueKeyAt(text, i);
+            if (end < 0) {
+                i++;
+            } else {
+                if (!collector.collect(text, i, end)) {
+                    return false;
                 }
+                i = end;
+            }
+        }
+        return true;
+    }
+
+    /** @return the end index of the issue key starting at {@code start}, or -1 if there is none */
+    private static int matchIssueKeyAt(final String text, final int start) {
+        final int length = text.length();
+
+        int codePoint = text.codePointAt(start);
+        if (Character.getType(codePoint) != Character.UPPERCASE_LETTER) {
+            return -1;
+        }
+
+        // project key
+        int i = start + Character.charCount(codePoint);
+        int projectKeyLength = 1;
+        while (i < length) {
+            codePoint = text.codePointAt(i);
+            if (!isProjectKeyCharacter(codePoint)) {
+                break;
             }
+            if (++projectKeyLength > MAX_PROJECT_KEY_LENGTH) {
+                return -1;
+            }
+            i += Character.charCount(codePoint);
+        }
+        if (projectKeyLength < 2 || i >= length || text.charAt(i) != '-') {
+            return -1;
         }
+        i++;
+
+        // issue number
+        final int issueNumberStart = i;
+        while (i < length && isAsciiDigit(text.charAt(i))) {
+            i++;
+        }
+        final int issueNumberLength = i - issueNumberStart;
+        if (issueNumberLength < 1 || issueNumberLength > MAX_ISSUE_NUMBER_LENGTH) {
+            return -1;
+        }
+
+        return i == length || isSeparator(text.charAt(i)) || isFinalLineTerminator(text, i)
+                ? i
+                : -1;
+    }
+
+    private static boolean isProjectKeyCharacter(final int codePoint) {
+        return codePoint == '_'
+                || isAsciiDigit(codePoint)
+                || Character.getType(codePoint) == Character.UPPERCASE_LETTER;
+    }
+
+    private static boolean isAsciiDigit(final int c) {
+        return c >= '0' && c <= '9';
+    }
 
-        return ImmutableSet.copyOf(matches);
+    /** \s or \p{Punct} as in java.util.regex, both are ASCII only. */
+    private static boolean isSeparator(final char c) {
+        return c == ' '
+                || (c >= '\t' && c <= '\r')
+                || (c >= '!' && c <= '/')
+                || (c >= ':' && c <= '@')
+                || (c >= '[' && c <= '`')
+                || (c >= '{' && c <= '~');
+    }
+
+    /** Where java.util.regex "$" matches before the end of input: a final line terminator. */
+    private static boolean isFinalLineTerminator(final String text, final int i) {
+        final int remaining = text.length() - i;
+        if (remaining == 2) {
+            return text.charAt(i) == '\r' && text.charAt(i + 1) == '\n';
+        }
+        if (remaining != 1) {
+            return false;
+        }
+        final char c = text.charAt(i);
+        return c == '\n' || c == '\r' || c == NEXT_LINE || c == LINE_SEPARATOR || c == PARAGRAPH_SEPARATOR;
     }
 }
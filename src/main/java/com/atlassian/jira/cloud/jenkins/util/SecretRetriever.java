@@ -3,6 +3,16 @@ package com.atlassian.jira.cloud.jenkins.util;
 import com.cloudbees.plugins.credentials.CredentialsMatcher;
 import com.cloudbees.plugins.credentials.CredentialsMatchers;
 import com.cloudbees.plugins.credentials.CredentialsProvider;
+import com.cloudbees.plugins.credentials.SystemCredentialsProvider;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import hudson.Extension;
+import hudson.XmlFile;
+import hudson.init.InitMilestone;
+import hudson.init.Initializer;
+import hudson.model.Saveable;
+import hudson.model.listeners.SaveableListener;
 import hudson.security.ACL;
 import jenkins.model.Jenkins;
 import org.jenkinsci.plugins.plaincredentials.StringCredentials;
@@ -10,11 +20,32 @@ import org.jenkinsci.plugins.plaincredentials.StringCredentials;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Looks up the secret of a credentials ID in the system credentials.
+ *
+ * <p>Looking up credentials goes through every credential Jenkins knows about, so the secrets are
+ * cached by credentials ID. The cache is cleared whenever the system credentials are saved; the
+ * expiry only covers credentials providers that don't save to Jenkins (e.g. external vaults).
+ */
 public final class SecretRetriever {
 
+    private static final Cache<String, Optional<String>> secrets =
+            CacheBuilder.newBuilder().expireAfterWrite(5, TimeUnit.MINUTES).build();
+
     public Optional<String> getSecretFor(final String credentialsId) {
+        try {
+            return secrets.get(credentialsId, () -> lookupSecretFor(credentialsId));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            throw new RuntimeException(
+                    String.format("Unable to look up credentials %s", credentialsId),
+                    e.getCause());
+        }
+    }
 
+    private static Optional<String> lookupSecretFor(final String credentialsId) {
         final List<StringCredentials> credentials =
                 CredentialsProvider.lookupCredentials(
                         StringCredentials.class,
@@ -27,4 +58,20 @@ public final class SecretRetriever {
                 .flatMap(creds -> Optional.ofNullable(creds.getSecret()))
                 .flatMap(secret -> Optional.ofNullable(secret.getPlainText()));
     }
+
+    @Initializer(after = InitMilestone.SYSTEM_CONFIG_LOADED)
+    public static void invalidateCache() {
+        secrets.invalidateAll();
+    }
+
+    /** Clears the cached secrets when credentials are added, updated or removed. */
+    @Extension
+    public static final class CredentialsChangeListener extends SaveableListener {
+        @Override
+        public void onChange(final Saveable o, final XmlFile file) {
+            if (o instanceof SystemCredentialsProvider) {
+                invalidateCache();
+            }
+        }
+    }
 }
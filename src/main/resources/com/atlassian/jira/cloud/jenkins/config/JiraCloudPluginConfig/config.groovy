@@ -29,6 +29,31 @@ f.section(title: "Jira Software Cloud Integration") {
         )
     }
 
+    f.advanced(title: _("Connection settings")) {
+        f.entry(
+                title: _("Idle connections to keep open"),
+                help: descriptor.getHelpFile("connectionSettings")
+        ) {
+            f.textbox(
+                    name: instance.FIELD_NAME_CONNECTION_POOL_SIZE,
+                    value: instance.connectionPoolSize
+            )
+        }
+        f.entry(title: _("Keep idle connections open for (seconds)")) {
+            f.textbox(
+                    name: instance.FIELD_NAME_CONNECTION_KEEP_ALIVE_SECONDS,
+                    value: instance.connectionKeepAliveSeconds
+            )
+        }
+        f.entry {
+            f.checkbox(
+                    title: _("Use HTTP/2 when the server supports it"),
+                    name: instance.FIELD_NAME_HTTP2_ENABLED,
+                    checked: instance.http2Enabled
+            )
+        }
+    }
+
     f.optionalBlock(
             title: _("Send builds automatically"),
             name: instance.FIELD_NAME_AUTO_BUILDS,
@@ -109,5 +134,15 @@ f.section(title: "Jira Software Cloud Integration") {
                     "<script>atlWatchNotEmpty('atlDeploymentsRegex', 'atlTestDeploymentRegexBlankError', 'Pipeline step regex cannot be empty!');</script>"
             )
         }
+
+        f.entry(
+                title: _("Environment type aliases (optional)"),
+                help: descriptor.getHelpFile("environmentTypeAliases")
+        ) {
+            f.textarea(
+                    name: instance.FIELD_NAME_ENVIRONMENT_TYPE_ALIASES,
+                    value: instance.environmentTypeAliases
+            )
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,258 @@
+package com.atlassian.jira.cloud.jenkins.buildinfo.client;
+
+import com.atlassian.jira.cloud.jenkins.BaseMockServerTest;
+import com.atlassian.jira.cloud.jenkins.buildinfo.client.model.BuildApiResponse;
+import com.atlassian.jira.cloud.jenkins.buildinfo.client.model.BuildKeyResponse;
+import com.atlassian.jira.cloud.jenkins.buildinfo.client.model.Builds;
+import com.atlassian.jira.cloud.jenkins.buildinfo.client.model.JiraBuildInfo;
+import com.atlassian.jira.cloud.jenkins.buildinfo.client.model.RejectedBuildResponse;
+import com.atlassian.jira.cloud.jenkins.buildinfo.client.model.TestInfo;
+import com.atlassian.jira.cloud.jenkins.logging.PipelineLogger;
+import com.auth0.jwt.JWT;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.inject.Inject;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BatchingBuildsApiTest extends BaseMockServerTest {
+
+    private static final String SECRET = "secret";
+
+    @Inject private OkHttpClient httpClient;
+    @Inject private ObjectMapper objectMapper;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(3);
+
+    private String webhookUrl;
+
+    @Before
+    public void setup() throws IOException {
+        super.setup();
+        webhookUrl = server.url("/webhook").toString();
+    }
+
+    @After
+    public void shutDownExecutor() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testLoneBuildIsSentRightAway() throws Exception {
+        // given
+        final BatchingBuildsApi buildsApi = new BatchingBuildsApi(httpClient, objectMapper, 50);
+        server.enqueue(acceptedResponse("pipeline", 1));
+
+        // when
+        final CompletableFuture<BuildApiResponse> response =
+                CompletableFuture.supplyAsync(
+                        () -> send(buildsApi, build("pipeline", 1, "TEST-1")), executor);
+
+        // then
+        assertThat(response.get(1, TimeUnit.SECONDS).getAcceptedBuilds()).hasSize(1);
+        assertThat(server.getRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testBuildsOfSamePipelineAreSentInOneRequest_whileRequestInFlight()
+            throws Exception {
+        // given
+        final BatchingBuildsApi buildsApi = new BatchingBuildsApi(httpClient, objectMapper, 50);
+        final CountDownLatch firstRequestReceived = new CountDownLatch(1);
+        final CountDownLatch firstResponseReleased = new CountDownLatch(1);
+        server.setDispatcher(
+                new Dispatcher() {
+                    private final AtomicInteger requests = new AtomicInteger();
+
+                    @Override
+                    public MockResponse dispatch(final RecordedRequest request)
+                            throws InterruptedException {
+                        if (requests.incrementAndGet() == 1) {
+                            firstRequestReceived.countDown();
+                            firstResponseReleased.await(10, TimeUnit.SECONDS);
+                            return acceptedResponse("pipeline", 1);
+                        }
+                        return new MockResponse()
+                                .setResponseCode(202)
+                                .setBody(
+                                        "{\"acceptedBuilds\": [{\"pipelineId\": \"pipeline\", \"buildNumber\": 2}],"
+                                                + " \"rejectedBuilds\": [{\"key\": {\"pipelineId\": \"pipeline\", \"buildNumber\": 3},"
+                                                + " \"errors\": [{\"message\": \"No valid issues found for build\"}]}],"
+                                                + " \"unknownIssueKeys\": [\"TEST-3\"]}");
+                    }
+                });
+
+        // when
+        final CompletableFuture<BuildApiResponse> first =
+                CompletableFuture.supplyAsync(
+                        () -> send(buildsApi, build("pipeline", 1, "TEST-1")), executor);
+        assertThat(firstRequestReceived.await(10, TimeUnit.SECONDS)).isTrue();
+        final CompletableFuture<BuildApiResponse> second =
+                CompletableFuture.supplyAsync(
+                        () -> send(buildsApi, build("pipeline", 2, "TEST-2")), executor);
+        final CompletableFuture<BuildApiResponse> third =
+                CompletableFuture.supplyAsync(
+                        () -> send(buildsApi, build("pipeline", 3, "TEST-3")), executor);
+        while (buildsApi.getWaitingBuildCount() < 2) {
+            Thread.sleep(10);
+        }
+        firstResponseReleased.countDown();
+
+        // then
+        assertThat(first.get().getAcceptedBuilds()).hasSize(1);
+        assertThat(second.get().getAcceptedBuilds()).hasSize(1);
+        assertThat(second.get().getRejectedBuilds()).isEmpty();
+        assertThat(second.get().getUnknownIssueKeys()).isEmpty();
+        assertThat(third.get().getAcceptedBuilds()).isEmpty();
+        assertThat(third.get().getRejectedBuilds()).hasSize(1);
+        assertThat(third.get().getUnknownIssueKeys()).containsExactly("TEST-3");
+
+        assertThat(server.getRequestCount()).isEqualTo(2);
+        assertThat(requestBody().get("payload").get("builds")).hasSize(1);
+        assertThat(requestBody().get("payload").get("builds")).hasSize(2);
+    }
+
+    @Test
+    public void testBuildsOfDifferentPipelinesAreSentSeparately() throws Exception {
+        // given
+        final BatchingBuildsApi buildsApi =
+                new BatchingBuildsApi(httpClient, objectMapper, 50);
+        server.enqueue(acceptedResponse("pipeline", 1));
+        server.enqueue(acceptedResponse("other-pipeline", 1));
+
+        // when
+        final BuildApiResponse first = send(buildsApi, build("pipeline", 1, "TEST-1"));
+        final BuildApiResponse second = send(buildsApi, build("other-pipeline", 1, "TEST-1"));
+
+        // then
+        assertThat(first.getAcceptedBuilds()).hasSize(1);
+        assertThat(second.getAcceptedBuilds()).hasSize(1);
+        assertThat(server.getRequestCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void testOnlyLatestUpdateOfBuildIsSent() throws Exception {
+        // given
+        final BatchingBuildsApi buildsApi =
+                new BatchingBuildsApi(httpClient, objectMapper, 2);
+        server.enqueue(acceptedResponse("pipeline", 1));
+
+        // when
+        final Builds inProgress =
+                new Builds(
+                        Arrays.asList(
+                                build("pipeline", 1, 1L, "in_progress"),
+                                build("pipeline", 1, 2L, "successful")));
+        final BuildApiResponse response =
+                buildsApi.sendBuildAsJwt(
+                        webhookUrl, inProgress, SECRET, PipelineLogger.noopInstance());
+
+        // then
+        assertThat(response.getAcceptedBuilds()).hasSize(1);
+        final JsonNode request = requestBody();
+        assertThat(request.get("status").asText()).isEqualTo("successful");
+        assertThat(request.get("payload").get("builds")).hasSize(1);
+    }
+
+    @Test
+    public void testResponseFor() {
+        // given
+        final BuildApiResponse batchResponse =
+                new BuildApiResponse(
+                        Arrays.asList(
+                                new BuildKeyResponse("pipeline", 1),
+                                new BuildKeyResponse("pipeline", 2)),
+                        Collections.singletonList(
+                                new RejectedBuildResponse(
+                                        new BuildKeyResponse("pipeline", 3),
+                                        Collections.emptyList())),
+                        Arrays.asList("TEST-2", "TEST-3"));
+
+        // when
+        final BuildApiResponse response =
+                BatchingBuildsApi.responseFor(build("pipeline", 2, "TEST-2"), batchResponse);
+
+        // then
+        assertThat(response.getAcceptedBuilds())
+                .extracting(BuildKeyResponse::getBuildNumber)
+                .containsExactly(2);
+        assertThat(response.getRejectedBuilds()).isEmpty();
+        assertThat(response.getUnknownIssueKeys()).containsExactly("TEST-2");
+    }
+
+    private BuildApiResponse send(final BatchingBuildsApi buildsApi, final Builds builds) {
+        return buildsApi.sendBuildAsJwt(
+                webhookUrl, builds, SECRET, PipelineLogger.noopInstance());
+    }
+
+    private JsonNode requestBody() throws Exception {
+        final String jwt = server.takeRequest().getBody().readUtf8();
+        return objectMapper.readTree(
+                JWT.decode(jwt).getClaim("request_body_json").asString());
+    }
+
+    private static MockResponse acceptedResponse(final String pipelineId, final int buildNumber) {
+        return new MockResponse()
+                .setResponseCode(202)
+                .setBody(
+                        String.format(
+                                "{\"acceptedBuilds\": [{\"pipelineId\": \"%s\", \"buildNumber\": %d}],"
+                                        + " \"rejectedBuilds\": [], \"unknownIssueKeys\": []}",
+                                pipelineId, buildNumber));
+    }
+
+    private static Builds build(
+            final String pipelineId, final int buildNumber, final String issueKey) {
+        return new Builds(
+                new JiraBuildInfo(
+                        pipelineId,
+                        buildNumber,
+                        1L,
+                        pipelineId,
+                        "description",
+                        "label",
+                        "https://url.com",
+                        "successful",
+                        "2023-01-01T00:00:00Z",
+                        Collections.singleton(issueKey),
+                        Collections.emptyList(),
+                        new TestInfo(0, 0, 0, 0)));
+    }
+
+    private static JiraBuildInfo build(
+            final String pipelineId,
+            final int buildNumber,
+            final long updateSequenceNumber,
+            final String state) {
+        return new JiraBuildInfo(
+                pipelineId,
+                buildNumber,
+                updateSequenceNumber,
+                pipelineId,
+                "description",
+                "label",
+                "https://url.com",
+                state,
+                "2023-01-01T00:00:00Z",
+                Collections.singleton("TEST-1"),
+                Collections.emptyList(),
+                new TestInfo(0, 0, 0, 0));
+    }
+}
@@ -3,6 +3,7 @@ package com.atlassian.jira.cloud.jenkins.buildinfo.service;
 import com.atlassian.jira.cloud.jenkins.buildinfo.client.BuildsApi;
 import com.atlassian.jira.cloud.jenkins.buildinfo.client.model.BuildApiResponse;
 import com.atlassian.jira.cloud.jenkins.buildinfo.client.model.BuildKeyResponse;
+import com.atlassian.jira.cloud.jenkins.buildinfo.client.model.Builds;
 import com.atlassian.jira.cloud.jenkins.buildinfo.client.model.RejectedBuildResponse;
 import com.atlassian.jira.cloud.jenkins.common.client.ApiUpdateFailedException;
 import com.atlassian.jira.cloud.jenkins.common.config.JiraSiteConfigRetriever;
@@ -24,6 +25,7 @@ import org.jenkinsci.plugins.workflow.support.steps.build.RunWrapper;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
@@ -31,6 +33,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static com.atlassian.jira.cloud.jenkins.common.response.JiraSendInfoResponse.Status.*;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -302,6 +305,61 @@ public class JiraBuildInfoSenderImplTest {
                 .sendBuildAsJwt(eq(JIRA_SITE_CONFIG2.getWebhookUrl()), any(), any(), any());
     }
 
+    @Test
+    public void testSendBuildInfos_sendsBuildsOfOnePipelineInOneRequest() {
+        // given
+        when(buildsApi.sendBuildAsJwt(any(), any(), any(), any()))
+                .thenAnswer(
+                        invocation ->
+                                new BuildApiResponse(
+                                        invocation.<Builds>getArgument(1).getBuilds().stream()
+                                                .map(
+                                                        build ->
+                                                                new BuildKeyResponse(
+                                                                        build.getPipelineId(),
+                                                                        build.getBuildNumber()))
+                                                .collect(Collectors.toList()),
+                                        Collections.emptyList(),
+                                        Collections.emptyList()));
+
+        // when
+        final List<JiraSendInfoResponse> responses =
+                classUnderTest.sendBuildInfos(
+                        SITE,
+                        Arrays.asList(createOneJiraRequest(), createOneJiraRequest()),
+                        Arrays.asList(
+                                PipelineLogger.noopInstance(), PipelineLogger.noopInstance()));
+
+        // then
+        assertThat(responses)
+                .extracting(JiraSendInfoResponse::getStatus)
+                .containsExactly(SUCCESS_BUILD_ACCEPTED, SUCCESS_BUILD_ACCEPTED);
+        final ArgumentCaptor<Builds> buildsCaptor = ArgumentCaptor.forClass(Builds.class);
+        verify(buildsApi, times(1))
+                .sendBuildAsJwt(
+                        eq(JIRA_SITE_CONFIG.getWebhookUrl()), buildsCaptor.capture(), any(), any());
+        assertThat(buildsCaptor.getValue().getBuilds()).hasSize(2);
+    }
+
+    @Test
+    public void testSendBuildInfos_skipsRequestsWithoutIssueKeys() {
+        // given
+        when(issueKeyExtractor.extractIssueKeys(any(), any())).thenReturn(Collections.emptySet());
+
+        // when
+        final List<JiraSendInfoResponse> responses =
+                classUnderTest.sendBuildInfos(
+                        SITE,
+                        Collections.singletonList(createOneJiraRequest()),
+                        Collections.singletonList(PipelineLogger.noopInstance()));
+
+        // then
+        assertThat(responses)
+                .extracting(JiraSendInfoResponse::getStatus)
+                .containsExactly(SKIPPED_ISSUE_KEYS_NOT_FOUND);
+        verify(buildsApi, never()).sendBuildAsJwt(any(), any(), any(), any());
+    }
+
     private JiraBuildInfoRequest createOneJiraRequest() {
         return new MultibranchBuildInfoRequest(SITE, null, mockWorkflowRun(), Optional.empty());
     }
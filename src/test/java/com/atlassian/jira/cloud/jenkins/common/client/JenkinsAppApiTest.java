@@ -25,6 +25,7 @@ import org.skyscreamer.jsonassert.JSONCompareMode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
@@ -229,6 +230,10 @@ public class JenkinsAppApiTest {
         given(responseBody.string()).willReturn("{\"success\": true}");
         given(responseBody.bytes())
                 .willReturn("{\"success\": true}".getBytes(StandardCharsets.UTF_8));
+        given(responseBody.byteStream())
+                .willReturn(
+                        new ByteArrayInputStream(
+                                "{\"success\": true}".getBytes(StandardCharsets.UTF_8)));
         given(client.newCall(any(Request.class))).willReturn(call);
         return client;
     }
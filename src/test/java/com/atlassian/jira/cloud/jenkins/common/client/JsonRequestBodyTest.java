@@ -0,0 +1,50 @@
+package com.atlassian.jira.cloud.jenkins.common.client;
+
+import com.atlassian.jira.cloud.jenkins.provider.ObjectMapperProvider;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableMap;
+import okio.Buffer;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class JsonRequestBodyTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapperProvider().objectMapper();
+
+    @Test
+    public void testWritesJson() throws IOException {
+        // given
+        final JsonRequestBody body =
+                JsonRequestBody.of(objectMapper, ImmutableMap.of("summary", "Grüße"));
+
+        // when
+        final Buffer sink = new Buffer();
+        body.writeTo(sink);
+
+        // then
+        final String expected = "{\"summary\":\"Grüße\"}";
+        assertThat(body.contentType().toString()).isEqualTo("application/json; charset=utf-8");
+        assertThat(body.contentLength()).isEqualTo(expected.getBytes(StandardCharsets.UTF_8).length);
+        assertThat(sink.readUtf8()).isEqualTo(expected);
+    }
+
+    @Test
+    public void testCanBeWrittenAgain_whenRequestIsRetried() throws IOException {
+        // given
+        final JsonRequestBody body = JsonRequestBody.of(objectMapper, ImmutableMap.of("a", 1));
+
+        // when
+        final Buffer first = new Buffer();
+        body.writeTo(first);
+        final Buffer second = new Buffer();
+        body.writeTo(second);
+
+        // then
+        assertThat(first.readUtf8()).isEqualTo("{\"a\":1}");
+        assertThat(second.readUtf8()).isEqualTo("{\"a\":1}");
+    }
+}
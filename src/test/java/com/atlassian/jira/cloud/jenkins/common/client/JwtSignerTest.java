@@ -0,0 +1,89 @@
+package com.atlassian.jira.cloud.jenkins.common.client;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.SignatureVerificationException;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class JwtSignerTest {
+
+    private static final String SECRET = "this is a secret";
+
+    private final JwtSigner signer = new JwtSigner();
+
+    @Test
+    public void testSignsLikeHmac256OfJwtLibrary() {
+        // when
+        final String jwt = signer.sign(JWT.create().withClaim("request_body_json", "{}"), SECRET);
+
+        // then
+        assertThat(jwt)
+                .isEqualTo(
+                        JWT.create()
+                                .withClaim("request_body_json", "{}")
+                                .sign(Algorithm.HMAC256(SECRET)));
+        JWT.require(Algorithm.HMAC256(SECRET)).build().verify(jwt);
+    }
+
+    @Test
+    public void testReusesAlgorithmPerSecret() {
+        assertThat(signer.algorithmFor(SECRET)).isSameAs(signer.algorithmFor(SECRET));
+        assertThat(signer.algorithmFor(SECRET)).isNotSameAs(signer.algorithmFor("new secret"));
+    }
+
+    @Test
+    public void testDropsMacsOfForgottenSecret() {
+        // given
+        signer.sign(JWT.create().withIssuer("jenkins-plugin"), SECRET);
+        signer.sign(JWT.create().withIssuer("jenkins-plugin"), "other");
+
+        // when
+        signer.forget(SECRET);
+        signer.sign(JWT.create().withIssuer("jenkins-plugin"), "other");
+
+        // then
+        assertThat(signer.getMacCountOfCurrentThread()).isEqualTo(1);
+    }
+
+    @Test
+    public void testVerifiesOwnSignatures() {
+        // given
+        final String jwt = signer.sign(JWT.create().withIssuer("jenkins-plugin"), SECRET);
+
+        // then
+        JWT.require(signer.algorithmFor(SECRET)).build().verify(jwt);
+        assertThatThrownBy(
+                        () -> JWT.require(signer.algorithmFor("other")).build().verify(jwt))
+                .isInstanceOf(SignatureVerificationException.class);
+    }
+
+    @Test
+    public void testSignsFromManyThreads() throws Exception {
+        // given
+        final String expected = signer.sign(JWT.create().withIssuer("jenkins-plugin"), SECRET);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        // when
+        final CompletableFuture<?>[] futures = new CompletableFuture<?>[100];
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] =
+                    CompletableFuture.supplyAsync(
+                            () -> signer.sign(JWT.create().withIssuer("jenkins-plugin"), SECRET),
+                            executor);
+        }
+        CompletableFuture.allOf(futures).get();
+        executor.shutdown();
+
+        // then
+        for (final CompletableFuture<?> future : futures) {
+            assertThat(future.get()).isEqualTo(expected);
+        }
+    }
+}
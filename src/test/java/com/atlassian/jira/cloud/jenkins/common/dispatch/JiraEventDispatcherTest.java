@@ -0,0 +1,204 @@
+package com.atlassian.jira.cloud.jenkins.common.dispatch;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class JiraEventDispatcherTest {
+
+    private static final String SITE = "example.atlassian.net";
+    private static final String OTHER_SITE = "other.atlassian.net";
+
+    private JiraEventDispatcher dispatcher = new JiraEventDispatcher(2, 10);
+
+    @After
+    public void tearDown() throws InterruptedException {
+        dispatcher.shutdown(Duration.ofSeconds(5));
+    }
+
+    @Test
+    public void testEventsOfOneSiteAreSentInOrder() throws Exception {
+        final List<Integer> sent = new CopyOnWriteArrayList<>();
+
+        final List<CompletableFuture<Void>> events =
+                IntStream.range(0, 10)
+                        .mapToObj(i -> dispatcher.dispatch(SITE, () -> sent.add(i)))
+                        .collect(Collectors.toList());
+        CompletableFuture.allOf(events.toArray(new CompletableFuture<?>[0]))
+                .get(5, TimeUnit.SECONDS);
+
+        assertThat(sent).containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+        assertThat(dispatcher.getDispatchedCount()).isEqualTo(10);
+        assertThat(dispatcher.getCompletedCount()).isEqualTo(10);
+    }
+
+    @Test
+    public void testQueuedEventIsSupersededByLaterEventWithSameKey() throws Exception {
+        final CountDownLatch siteBlocked = new CountDownLatch(1);
+        final CountDownLatch firstEventStarted = new CountDownLatch(1);
+        final List<String> sent = new CopyOnWriteArrayList<>();
+        dispatcher.dispatch(
+                SITE,
+                () -> {
+                    firstEventStarted.countDown();
+                    await(siteBlocked);
+                });
+        await(firstEventStarted);
+
+        final CompletableFuture<Void> inProgress =
+                dispatcher.dispatch(SITE, "build 1", () -> sent.add("in progress"));
+        final CompletableFuture<Void> otherBuild =
+                dispatcher.dispatch(SITE, "build 2", () -> sent.add("other build"));
+        final CompletableFuture<Void> finalResult =
+                dispatcher.dispatch(SITE, "build 1", () -> sent.add("final"));
+        siteBlocked.countDown();
+        CompletableFuture.allOf(inProgress, otherBuild, finalResult).get(5, TimeUnit.SECONDS);
+
+        assertThat(sent).containsExactly("other build", "final");
+        assertThat(dispatcher.getSupersededCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testQueuedBatchableEventsAreSentTogether() throws Exception {
+        final CountDownLatch siteBlocked = new CountDownLatch(1);
+        final CountDownLatch firstEventStarted = new CountDownLatch(1);
+        final List<List<String>> batches = new CopyOnWriteArrayList<>();
+        dispatcher.dispatch(
+                SITE,
+                () -> {
+                    firstEventStarted.countDown();
+                    await(siteBlocked);
+                });
+        await(firstEventStarted);
+
+        final CompletableFuture<Void> build1 =
+                dispatcher.dispatchBatchable(SITE, "build 1", "builds", "1", batches::add);
+        final CompletableFuture<Void> build2 =
+                dispatcher.dispatchBatchable(SITE, "build 2", "builds", "2", batches::add);
+        final CompletableFuture<Void> build1Again =
+                dispatcher.dispatchBatchable(SITE, "build 1", "builds", "1 again", batches::add);
+        final CompletableFuture<Void> other = dispatcher.dispatch(SITE, () -> {});
+        final CompletableFuture<Void> build3 =
+                dispatcher.dispatchBatchable(SITE, "build 3", "builds", "3", batches::add);
+        siteBlocked.countDown();
+        CompletableFuture.allOf(build1, build2, build1Again, other, build3)
+                .get(5, TimeUnit.SECONDS);
+
+        assertThat(batches)
+                .containsExactly(Arrays.asList("2", "1 again"), Collections.singletonList("3"));
+        assertThat(dispatcher.getSupersededCount()).isEqualTo(1);
+        assertThat(dispatcher.getCompletedCount()).isEqualTo(5);
+    }
+
+    @Test
+    public void testFailedBatchFailsAllItsEvents() throws Exception {
+        final CountDownLatch siteBlocked = new CountDownLatch(1);
+        final CountDownLatch firstEventStarted = new CountDownLatch(1);
+        dispatcher.dispatch(
+                SITE,
+                () -> {
+                    firstEventStarted.countDown();
+                    await(siteBlocked);
+                });
+        await(firstEventStarted);
+
+        final JiraEventDispatcher.BatchSender<String> failingSender =
+                items -> {
+                    throw new IllegalStateException("Jira is down");
+                };
+        final CompletableFuture<Void> build1 =
+                dispatcher.dispatchBatchable(SITE, "build 1", "builds", "1", failingSender);
+        final CompletableFuture<Void> build2 =
+                dispatcher.dispatchBatchable(SITE, "build 2", "builds", "2", failingSender);
+        siteBlocked.countDown();
+
+        assertThatThrownBy(() -> build1.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class);
+        assertThatThrownBy(() -> build2.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class);
+        assertThat(dispatcher.getFailedCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void testSlowSiteDoesNotBlockOtherSites() throws Exception {
+        final CountDownLatch slowSiteBlocked = new CountDownLatch(1);
+        dispatcher.dispatch(SITE, () -> await(slowSiteBlocked));
+
+        dispatcher.dispatch(OTHER_SITE, () -> {}).get(5, TimeUnit.SECONDS);
+
+        assertThat(dispatcher.getCompletedCount()).isEqualTo(1);
+        slowSiteBlocked.countDown();
+    }
+
+    @Test
+    public void testEventIsRejectedWhenSiteQueueIsFull() {
+        final CountDownLatch siteBlocked = new CountDownLatch(1);
+        final CountDownLatch firstEventStarted = new CountDownLatch(1);
+        dispatcher.dispatch(
+                SITE,
+                () -> {
+                    firstEventStarted.countDown();
+                    await(siteBlocked);
+                });
+        await(firstEventStarted);
+        IntStream.range(0, 10).forEach(i -> dispatcher.dispatch(SITE, () -> {}));
+
+        final CompletableFuture<Void> rejected = dispatcher.dispatch(SITE, () -> {});
+
+        assertThatThrownBy(rejected::get)
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(RejectedExecutionException.class);
+        assertThat(dispatcher.getRejectedCount()).isEqualTo(1);
+        assertThat(dispatcher.getQueueDepths()).containsEntry(SITE, 10);
+        siteBlocked.countDown();
+    }
+
+    @Test
+    public void testFailedEventCompletesExceptionally() {
+        final CompletableFuture<Void> event =
+                dispatcher.dispatch(
+                        SITE,
+                        () -> {
+                            throw new IllegalStateException("boom");
+                        });
+
+        assertThatThrownBy(() -> event.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(dispatcher.getFailedCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testShutdownDrainsQueuedEvents() throws Exception {
+        final List<Integer> sent = new CopyOnWriteArrayList<>();
+        IntStream.range(0, 10).forEach(i -> dispatcher.dispatch(SITE, () -> sent.add(i)));
+
+        assertThat(dispatcher.shutdown(Duration.ofSeconds(5))).isTrue();
+
+        assertThat(sent).hasSize(10);
+        assertThatThrownBy(() -> dispatcher.dispatch(SITE, () -> {}).get())
+                .hasCauseInstanceOf(RejectedExecutionException.class);
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
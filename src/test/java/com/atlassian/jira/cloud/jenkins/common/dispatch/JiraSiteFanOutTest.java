@@ -0,0 +1,121 @@
+package com.atlassian.jira.cloud.jenkins.common.dispatch;
+
+import com.atlassian.jira.cloud.jenkins.common.response.JiraCommonResponse;
+import com.atlassian.jira.cloud.jenkins.common.response.JiraSendInfoResponse;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class JiraSiteFanOutTest {
+
+    private static final String SITE = "example.atlassian.net";
+    private static final String OTHER_SITE = "other.atlassian.net";
+
+    private final JiraSiteFanOut fanOut = new JiraSiteFanOut(4, Duration.ofSeconds(5));
+
+    @Test
+    public void testSitesAreSentToConcurrently() {
+        // given
+        final CountDownLatch allSitesStarted = new CountDownLatch(2);
+
+        // when
+        final List<JiraSendInfoResponse> responses =
+                fanOut.sendToAll(
+                        Arrays.asList(SITE, OTHER_SITE),
+                        jiraSite -> {
+                            allSitesStarted.countDown();
+                            await(allSitesStarted);
+                            return accepted(jiraSite);
+                        });
+
+        // then
+        assertThat(responses)
+                .extracting(JiraSendInfoResponse::getStatus)
+                .containsOnly(JiraSendInfoResponse.Status.SUCCESS_BUILD_ACCEPTED);
+    }
+
+    @Test
+    public void testResponsesAreInSiteOrder() {
+        // when
+        final List<JiraSendInfoResponse> responses =
+                fanOut.sendToAll(
+                        Arrays.asList(SITE, OTHER_SITE),
+                        jiraSite -> {
+                            if (SITE.equals(jiraSite)) {
+                                sleep(200);
+                            }
+                            return accepted(jiraSite);
+                        });
+
+        // then
+        assertThat(responses)
+                .extracting(JiraSendInfoResponse::getJiraSite)
+                .containsExactly(SITE, OTHER_SITE);
+    }
+
+    @Test
+    public void testSiteIsReportedAsTimedOut_whenDeadlinePassed() {
+        // given
+        final JiraSiteFanOut fanOutWithShortDeadline =
+                new JiraSiteFanOut(4, Duration.ofMillis(200));
+
+        // when
+        final List<JiraSendInfoResponse> responses =
+                fanOutWithShortDeadline.sendToAll(
+                        Arrays.asList(SITE, OTHER_SITE),
+                        jiraSite -> {
+                            if (OTHER_SITE.equals(jiraSite)) {
+                                sleep(10_000);
+                            }
+                            return accepted(jiraSite);
+                        });
+
+        // then
+        assertThat(responses)
+                .extracting(JiraSendInfoResponse::getStatus)
+                .containsExactly(
+                        JiraSendInfoResponse.Status.SUCCESS_BUILD_ACCEPTED,
+                        JiraSendInfoResponse.Status.FAILURE_SITE_TIMEOUT);
+    }
+
+    @Test
+    public void testExceptionIsRethrown() {
+        assertThatThrownBy(
+                        () ->
+                                fanOut.sendToAll(
+                                        Arrays.asList(SITE, OTHER_SITE),
+                                        jiraSite -> {
+                                            throw new IllegalStateException("boom");
+                                        }))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("boom");
+    }
+
+    private static JiraSendInfoResponse accepted(final String jiraSite) {
+        return new JiraCommonResponse(
+                jiraSite, JiraSendInfoResponse.Status.SUCCESS_BUILD_ACCEPTED, "accepted");
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void sleep(final long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
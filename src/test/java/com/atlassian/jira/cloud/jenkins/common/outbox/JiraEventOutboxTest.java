@@ -0,0 +1,268 @@
+package com.atlassian.jira.cloud.jenkins.common.outbox;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+public class JiraEventOutboxTest {
+
+    private static final String WEBHOOK_URL = "https://example.atlassian.net/webhook";
+    private static final String PIPELINE_ID = "pipeline-id";
+    private static final String OTHER_WEBHOOK_URL = "https://other.atlassian.net/webhook";
+    private static final String REQUEST_BODY = "{\"requestType\":\"event\"}";
+    private static final Map<String, Long> NO_UPDATES = Collections.emptyMap();
+
+    @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testAppendedEntryIsPending() throws IOException {
+        // given
+        final JiraEventOutbox outbox = outbox(1024 * 1024);
+
+        // when
+        final OptionalLong id = outbox.append(WEBHOOK_URL, PIPELINE_ID, REQUEST_BODY, NO_UPDATES);
+
+        // then
+        assertThat(id).isPresent();
+        assertThat(outbox.getPending()).hasSize(1);
+        final OutboxEntry entry = outbox.getPending().get(0);
+        assertThat(entry.getId()).isEqualTo(id.getAsLong());
+        assertThat(entry.getWebhookUrl()).isEqualTo(WEBHOOK_URL);
+        assertThat(entry.getPipelineId()).isEqualTo(PIPELINE_ID);
+        assertThat(entry.getRequestBody()).isEqualTo(REQUEST_BODY);
+    }
+
+    @Test
+    public void testAcknowledgedEntryIsNotPending() throws IOException {
+        // given
+        final JiraEventOutbox outbox = outbox(1024 * 1024);
+        final long id =
+                outbox.append(WEBHOOK_URL, PIPELINE_ID, REQUEST_BODY, NO_UPDATES).getAsLong();
+
+        // when
+        outbox.acknowledge(id);
+
+        // then
+        assertThat(outbox.getPending()).isEmpty();
+    }
+
+    @Test
+    public void testPendingEntriesSurviveRestart() throws IOException {
+        // given
+        final JiraEventOutbox outbox = outbox(1024 * 1024);
+        final long first = outbox.append(WEBHOOK_URL, PIPELINE_ID, "first", NO_UPDATES).getAsLong();
+        final long second =
+                outbox.append(WEBHOOK_URL, PIPELINE_ID, "second", NO_UPDATES).getAsLong();
+        outbox.acknowledge(first);
+
+        // when
+        final JiraEventOutbox reloaded = outbox(1024 * 1024);
+
+        // then
+        assertThat(reloaded.getPending())
+                .extracting(OutboxEntry::getId, OutboxEntry::getRequestBody)
+                .containsExactly(tuple(second, "second"));
+        assertThat(reloaded.append(WEBHOOK_URL, PIPELINE_ID, "third", NO_UPDATES).getAsLong())
+                .isGreaterThan(second);
+    }
+
+    @Test
+    public void testConcurrentAppendsSurviveRestart() throws Exception {
+        // given
+        final JiraEventOutbox outbox = outbox(1024);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        // when
+        try {
+            final List<Future<?>> appends = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                appends.add(
+                        executor.submit(
+                                () ->
+                                        outbox.append(
+                                                WEBHOOK_URL, PIPELINE_ID, REQUEST_BODY, NO_UPDATES)));
+            }
+            for (final Future<?> append : appends) {
+                append.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // then
+        assertThat(outbox.getPending()).hasSize(100);
+        assertThat(outbox(1024).getPending()).hasSize(100);
+    }
+
+    @Test
+    public void testTruncatedLineIsSkipped() throws IOException {
+        // given
+        outbox(1024 * 1024).append(WEBHOOK_URL, PIPELINE_ID, REQUEST_BODY, NO_UPDATES);
+        try (Stream<Path> segments = Files.list(folder.getRoot().toPath())) {
+            final Path segment = segments.findFirst().get();
+            Files.write(
+                    segment,
+                    "{\"entry\":{\"id\":2,\"webh".getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.APPEND);
+        }
+
+        // when
+        final JiraEventOutbox reloaded = outbox(1024 * 1024);
+
+        // then
+        assertThat(reloaded.getPending()).hasSize(1);
+    }
+
+    @Test
+    public void testAcknowledgedSegmentsAreDeleted() throws IOException {
+        // given
+        final JiraEventOutbox outbox = outbox(1);
+        final long first = outbox.append(WEBHOOK_URL, PIPELINE_ID, "first", NO_UPDATES).getAsLong();
+        final long second =
+                outbox.append(WEBHOOK_URL, PIPELINE_ID, "second", NO_UPDATES).getAsLong();
+        outbox.append(WEBHOOK_URL, PIPELINE_ID, "third", NO_UPDATES);
+        assertThat(outbox.getSegmentCount()).isEqualTo(3);
+
+        // when
+        outbox.acknowledge(second);
+
+        // then the segment of the second entry is kept, as the older one is still pending
+        assertThat(outbox.getSegmentCount()).isEqualTo(4);
+
+        // when
+        outbox.acknowledge(first);
+
+        // then
+        assertThat(outbox.getSegmentCount()).isEqualTo(3);
+        assertThat(outbox(1).getPending())
+                .extracting(OutboxEntry::getRequestBody)
+                .containsExactly("third");
+    }
+
+    @Test
+    public void testAppendIsRefused_whenOutboxIsFull() throws IOException {
+        // given
+        final JiraEventOutbox outbox =
+                new JiraEventOutbox(folder.getRoot().toPath(), 1024 * 1024, 2);
+        outbox.append(WEBHOOK_URL, PIPELINE_ID, "first", NO_UPDATES);
+        outbox.append(WEBHOOK_URL, PIPELINE_ID, "second", NO_UPDATES);
+
+        // when
+        final OptionalLong id = outbox.append(WEBHOOK_URL, PIPELINE_ID, "third", NO_UPDATES);
+
+        // then
+        assertThat(id).isEmpty();
+        assertThat(outbox.getPending()).hasSize(2);
+    }
+
+    @Test
+    public void testOlderUpdateOfSameBuildIsSuperseded() throws IOException {
+        // given
+        final JiraEventOutbox outbox = outbox(1024 * 1024);
+        outbox.append(WEBHOOK_URL, PIPELINE_ID, REQUEST_BODY, buildUpdate(WEBHOOK_URL, 35, 100));
+        final long otherBuild =
+                outbox.append(
+                                WEBHOOK_URL,
+                                PIPELINE_ID,
+                                REQUEST_BODY,
+                                buildUpdate(WEBHOOK_URL, 36, 100))
+                        .getAsLong();
+
+        // when
+        final long newest =
+                outbox.append(
+                                WEBHOOK_URL,
+                                PIPELINE_ID,
+                                REQUEST_BODY,
+                                buildUpdate(WEBHOOK_URL, 35, 101))
+                        .getAsLong();
+
+        // then
+        assertThat(outbox.getPending())
+                .extracting(OutboxEntry::getId)
+                .containsExactly(otherBuild, newest);
+        assertThat(outbox.getSupersededCount()).isEqualTo(1);
+        assertThat(outbox(1024 * 1024).getPending()).hasSize(2);
+    }
+
+    @Test
+    public void testNewerUpdateIsNotSupersededByOlderOne() throws IOException {
+        // given
+        final JiraEventOutbox outbox = outbox(1024 * 1024);
+        outbox.append(WEBHOOK_URL, PIPELINE_ID, REQUEST_BODY, buildUpdate(WEBHOOK_URL, 35, 101));
+
+        // when
+        outbox.append(WEBHOOK_URL, PIPELINE_ID, REQUEST_BODY, buildUpdate(WEBHOOK_URL, 35, 100));
+
+        // then
+        assertThat(outbox.getPending()).hasSize(2);
+    }
+
+    @Test
+    public void testUpdateForOtherSiteIsNotSuperseded() throws IOException {
+        // given
+        final JiraEventOutbox outbox = outbox(1024 * 1024);
+        outbox.append(WEBHOOK_URL, PIPELINE_ID, REQUEST_BODY, buildUpdate(WEBHOOK_URL, 35, 100));
+
+        // when
+        outbox.append(
+                OTHER_WEBHOOK_URL,
+                PIPELINE_ID,
+                REQUEST_BODY,
+                buildUpdate(OTHER_WEBHOOK_URL, 35, 101));
+
+        // then
+        assertThat(outbox.getPending()).hasSize(2);
+    }
+
+    @Test
+    public void testOlderUpdateOfSameDeploymentIsSuperseded() throws IOException {
+        // given
+        final JiraEventOutbox outbox = outbox(1024 * 1024);
+        outbox.append(WEBHOOK_URL, PIPELINE_ID, REQUEST_BODY, deploymentUpdate("prod", 100));
+        outbox.append(WEBHOOK_URL, PIPELINE_ID, REQUEST_BODY, deploymentUpdate("staging", 100));
+
+        // when
+        outbox.append(WEBHOOK_URL, PIPELINE_ID, REQUEST_BODY, deploymentUpdate("prod", 100));
+
+        // then
+        assertThat(outbox.getPending()).hasSize(2);
+    }
+
+    private static Map<String, Long> buildUpdate(
+            final String webhookUrl, final int buildNumber, final long updateSequenceNumber) {
+        return new UpdateKeys(webhookUrl)
+                .addBuild(PIPELINE_ID, buildNumber, updateSequenceNumber)
+                .toMap();
+    }
+
+    private static Map<String, Long> deploymentUpdate(
+            final String environment, final long updateSequenceNumber) {
+        return new UpdateKeys(WEBHOOK_URL)
+                .addDeployment(PIPELINE_ID, environment, 7, updateSequenceNumber)
+                .toMap();
+    }
+
+    private JiraEventOutbox outbox(final long maxSegmentBytes) {
+        return new JiraEventOutbox(folder.getRoot().toPath(), maxSegmentBytes, 100);
+    }
+}
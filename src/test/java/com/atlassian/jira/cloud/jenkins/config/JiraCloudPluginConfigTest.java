@@ -1,5 +1,6 @@
 package com.atlassian.jira.cloud.jenkins.config;
 
+import com.atlassian.jira.cloud.jenkins.provider.HttpClientSettings;
 import com.google.common.collect.ImmutableList;
 import hudson.model.Descriptor;
 import net.sf.json.JSONObject;
@@ -15,6 +16,7 @@ import org.mockito.Mockito;
 
 import javax.servlet.ServletContext;
 import javax.servlet.http.HttpServletRequest;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.Optional;
 
@@ -88,6 +90,15 @@ public class JiraCloudPluginConfigTest {
                                     + "    } "
                                     + "}");
 
+    private static final JSONObject CONNECTION_SETTINGS_JSON =
+            (JSONObject)
+                    JSONSerializer.toJSON(
+                            "{\n"
+                                    + "    \"connectionPoolSize\":\"20\","
+                                    + "    \"connectionKeepAliveSeconds\":\"60\","
+                                    + "    \"http2Enabled\":false"
+                                    + "}");
+
     @Rule public JenkinsRule jRule = new JenkinsRule();
 
     @Test
@@ -252,6 +263,167 @@ public class JiraCloudPluginConfigTest {
         assertThat(loadedConfig.getAutoDeploymentsRegex()).isEqualTo("blah");
     }
 
+    @Test
+    public void testConfigure_compilesAutoBuildsRegex() throws Descriptor.FormException {
+        final String configName = "config" + Math.random();
+
+        new JiraCloudPluginConfig(configName).configure(mockStapler(), AUTO_BUILDS_JSON);
+
+        final JiraCloudPluginConfig loadedConfig = new JiraCloudPluginConfig(configName);
+        assertThat(loadedConfig.getAutoBuildsPattern().getRegex()).isEqualTo("blah");
+        assertThat(loadedConfig.getAutoBuildsPattern().match("blah")).isPresent();
+        assertThat(loadedConfig.getAutoBuildsPattern().match("build")).isEmpty();
+    }
+
+    @Test
+    public void testConfigure_rejectsInvalidAutoBuildsRegex() {
+        final String configName = "config" + Math.random();
+        final JSONObject autoBuilds = new JSONObject();
+        autoBuilds.put(JiraCloudPluginConfig.FIELD_NAME_AUTO_BUILDS_REGEX, "^build (");
+        final JSONObject json = new JSONObject();
+        json.put(JiraCloudPluginConfig.FIELD_NAME_AUTO_BUILDS, autoBuilds);
+
+        try {
+            new JiraCloudPluginConfig(configName).configure(mockStapler(), json);
+            fail("expecting FormException because the builds regex doesn't compile");
+        } catch (Descriptor.FormException e) {
+            assertThat(e.getMessage()).contains("Builds RegEx is invalid");
+        }
+    }
+
+    @Test
+    public void testConfigure_keepsRegexes_whenOneIsInvalid() throws Descriptor.FormException {
+        final JiraCloudPluginConfig config = new JiraCloudPluginConfig("config" + Math.random());
+        config.configure(mockStapler(), AUTO_BUILDS_JSON);
+        final JSONObject autoDeployments = new JSONObject();
+        autoDeployments.put(JiraCloudPluginConfig.FIELD_NAME_AUTO_DEPLOYMENTS_REGEX, "^deploy (");
+        final JSONObject json = new JSONObject();
+        json.put(JiraCloudPluginConfig.FIELD_NAME_AUTO_DEPLOYMENTS, autoDeployments);
+
+        try {
+            config.configure(mockStapler(), json);
+            fail("expecting FormException because the deployments regex doesn't compile");
+        } catch (Descriptor.FormException e) {
+            assertThat(config.getAutoBuildsEnabled()).isTrue();
+            assertThat(config.getAutoBuildsPattern().getRegex()).isEqualTo("blah");
+            assertThat(config.getAutoDeploymentsEnabled()).isFalse();
+            assertThat(config.getAutoDeploymentsRegex()).isEqualTo("^deploy to (?<envName>.*)$");
+        }
+    }
+
+    @Test
+    public void testSetAutoDeploymentsRegex_recompilesPattern() {
+        final JiraCloudPluginConfig config = new JiraCloudPluginConfig("config" + Math.random());
+
+        config.setAutoDeploymentsRegex("^deploy to (?<envName>.*)$");
+
+        assertThat(config.getAutoDeploymentsPattern().match("deploy to prod").get().group("envName"))
+                .isEqualTo("prod");
+    }
+
+    @Test
+    public void testConfigure_populatesEnvironmentTypeAliases() throws Descriptor.FormException {
+        final String configName = "config" + Math.random();
+        final JSONObject json = autoDeploymentsJson("testing: uat");
+
+        new JiraCloudPluginConfig(configName).configure(mockStapler(), json);
+
+        final JiraCloudPluginConfig loadedConfig = new JiraCloudPluginConfig(configName);
+        assertThat(loadedConfig.getEnvironmentTypeAliases()).isEqualTo("testing: uat");
+        assertThat(loadedConfig.getEnvironmentTypeClassifier().classify("uat")).isEqualTo("testing");
+    }
+
+    @Test
+    public void testConfigure_rejectsInvalidEnvironmentTypeAliases() {
+        final String configName = "config" + Math.random();
+        final JSONObject json = autoDeploymentsJson("uat");
+
+        try {
+            new JiraCloudPluginConfig(configName).configure(mockStapler(), json);
+            fail("expecting FormException because the aliases don't name an environment type");
+        } catch (Descriptor.FormException e) {
+            assertThat(e.getMessage()).contains("Environment type aliases must start with one of");
+        }
+    }
+
+    @Test
+    public void testConfigure_keepsEnvironmentTypeAliases_whenInvalid()
+            throws Descriptor.FormException {
+        final JiraCloudPluginConfig config = new JiraCloudPluginConfig("config" + Math.random());
+        config.configure(mockStapler(), autoDeploymentsJson("testing: uat"));
+
+        try {
+            config.configure(mockStapler(), autoDeploymentsJson("uat"));
+            fail("expecting FormException because the aliases don't name an environment type");
+        } catch (Descriptor.FormException e) {
+            assertThat(config.getEnvironmentTypeAliases()).isEqualTo("testing: uat");
+            assertThat(config.getEnvironmentTypeClassifier().classify("uat")).isEqualTo("testing");
+        }
+    }
+
+    @Test
+    public void testConfigure_populatesConnectionSettings() throws Descriptor.FormException {
+        final String configName = "config" + Math.random();
+
+        new JiraCloudPluginConfig(configName).configure(mockStapler(), CONNECTION_SETTINGS_JSON);
+
+        final JiraCloudPluginConfig loadedConfig = new JiraCloudPluginConfig(configName);
+        assertThat(loadedConfig.getHttpClientSettings())
+                .isEqualTo(new HttpClientSettings(20, Duration.ofSeconds(60), false));
+    }
+
+    @Test
+    public void testConfigure_usesDefaultConnectionSettings() {
+        final String configName = "config" + Math.random();
+
+        final JiraCloudPluginConfig loadedConfig = new JiraCloudPluginConfig(configName);
+
+        assertThat(loadedConfig.getHttpClientSettings()).isEqualTo(HttpClientSettings.DEFAULTS);
+    }
+
+    @Test
+    public void testConfigure_rejectsInvalidConnectionPoolSize() {
+        final String configName = "config" + Math.random();
+        final JSONObject json = new JSONObject();
+        json.put(JiraCloudPluginConfig.FIELD_NAME_CONNECTION_POOL_SIZE, "0");
+
+        try {
+            new JiraCloudPluginConfig(configName).configure(mockStapler(), json);
+            fail("expecting FormException because the pool size must be positive");
+        } catch (Descriptor.FormException e) {
+            assertThat(e.getMessage()).contains("connectionPoolSize must be a positive number");
+        }
+    }
+
+    @Test
+    public void testConfigure_keepsConnectionSettings_whenOneIsInvalid()
+            throws Descriptor.FormException {
+        final JiraCloudPluginConfig config = new JiraCloudPluginConfig("config" + Math.random());
+        config.configure(mockStapler(), CONNECTION_SETTINGS_JSON);
+        final JSONObject json = new JSONObject();
+        json.put(JiraCloudPluginConfig.FIELD_NAME_CONNECTION_POOL_SIZE, "30");
+        json.put(JiraCloudPluginConfig.FIELD_NAME_CONNECTION_KEEP_ALIVE_SECONDS, "0");
+
+        try {
+            config.configure(mockStapler(), json);
+            fail("expecting FormException because the keep-alive must be positive");
+        } catch (Descriptor.FormException e) {
+            assertThat(config.getHttpClientSettings())
+                    .isEqualTo(new HttpClientSettings(20, Duration.ofSeconds(60), false));
+        }
+    }
+
+    private static JSONObject autoDeploymentsJson(final String environmentTypeAliases) {
+        final JSONObject autoDeployments = new JSONObject();
+        autoDeployments.put(
+                JiraCloudPluginConfig.FIELD_NAME_AUTO_DEPLOYMENTS_REGEX, "^deploy to (?<envName>.*)$");
+        autoDeployments.put(
+                JiraCloudPluginConfig.FIELD_NAME_ENVIRONMENT_TYPE_ALIASES, environmentTypeAliases);
+        final JSONObject json = new JSONObject();
+        json.put(JiraCloudPluginConfig.FIELD_NAME_AUTO_DEPLOYMENTS, autoDeployments);
+        return json;
+    }
+
     private static StaplerRequest mockStapler() {
         final Stapler stapler = mock(Stapler.class);
         final WebApp webApp = new WebApp(mock(ServletContext.class));
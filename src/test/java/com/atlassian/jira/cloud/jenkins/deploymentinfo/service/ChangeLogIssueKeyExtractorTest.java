@@ -4,12 +4,20 @@ import com.atlassian.jira.cloud.jenkins.logging.PipelineLogger;
 import hudson.model.Result;
 import hudson.scm.ChangeLogSet;
 import junit.framework.TestCase;
+import org.apache.commons.io.FileUtils;
 import org.jenkinsci.plugins.workflow.job.WorkflowRun;
+import com.google.common.collect.ImmutableSet;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.jvnet.hudson.test.FakeChangeLogSCM.EntryImpl;
 import org.jvnet.hudson.test.FakeChangeLogSCM.FakeChangeLogSet;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 
@@ -109,4 +117,156 @@ public class ChangeLogIssueKeyExtractorTest extends TestCase {
         assertTrue(issueKeys.contains("TEST-1"));
         assertTrue(issueKeys.contains("TEST-2"));
     }
+
+    @Test
+    public void testExtractIssueKeysFromIndexOfPreviousBuild() {
+
+        WorkflowRun current = mock(WorkflowRun.class);
+        WorkflowRun previous1 = mock(WorkflowRun.class);
+        WorkflowRun previous2 = mock(WorkflowRun.class);
+
+        when(current.getPreviousBuild()).thenReturn(previous1);
+        when(previous1.getPreviousBuild()).thenReturn(previous2);
+        when(current.getChangeSets()).thenReturn(Collections.emptyList());
+        when(previous1.getResult()).thenReturn(Result.FAILURE);
+        when(previous1.getAction(IssueKeyIndexAction.class))
+                .thenReturn(
+                        new IssueKeyIndexAction(
+                                false,
+                                Collections.emptySet(),
+                                ImmutableSet.of("TEST-1"),
+                                ImmutableSet.of("TEST-2")));
+
+        ChangeLogIssueKeyExtractor extractor = new ChangeLogIssueKeyExtractor();
+        Set<String> issueKeys = extractor.extractIssueKeys(current, PipelineLogger.noopInstance());
+
+        verify(previous1, never()).getChangeSets();
+        verify(previous1, never()).getPreviousBuild();
+
+        assertEquals(ImmutableSet.of("TEST-1", "TEST-2"), issueKeys);
+    }
+
+    @Test
+    public void testIndexIssueKeysOfFailedBuild() throws IOException {
+
+        WorkflowRun current = mock(WorkflowRun.class);
+        WorkflowRun previous1 = mock(WorkflowRun.class);
+
+        when(current.getPreviousBuild()).thenReturn(previous1);
+        when(current.getResult()).thenReturn(Result.FAILURE);
+        when(previous1.getResult()).thenReturn(Result.FAILURE);
+        when(previous1.getAction(IssueKeyIndexAction.class))
+                .thenReturn(
+                        new IssueKeyIndexAction(
+                                true,
+                                ImmutableSet.of("TEST-2"),
+                                Collections.emptySet(),
+                                ImmutableSet.of("TEST-2", "TEST-3")));
+
+        List<EntryImpl> entryListCurrent = new ArrayList<>();
+        entryListCurrent.add(new EntryImpl().withMsg("TEST-1 Some message"));
+        List<ChangeLogSet<? extends ChangeLogSet.Entry>> changeSetsCurrent = new ArrayList<>();
+        changeSetsCurrent.add(new FakeChangeLogSet(current, entryListCurrent));
+        when(current.getChangeSets()).thenReturn(changeSetsCurrent);
+
+        new ChangeLogIssueKeyExtractor().indexIssueKeys(current, PipelineLogger.noopInstance());
+
+        ArgumentCaptor<IssueKeyIndexAction> index =
+                ArgumentCaptor.forClass(IssueKeyIndexAction.class);
+        verify(current).addOrReplaceAction(index.capture());
+        verify(current).save();
+
+        assertTrue(index.getValue().hasChangeSets());
+        assertEquals(ImmutableSet.of("TEST-1"), index.getValue().getIssueKeys());
+        assertEquals(ImmutableSet.of("TEST-1"), index.getValue().getLastChangeSetIssueKeys());
+        assertEquals(
+                ImmutableSet.of("TEST-1", "TEST-2", "TEST-3"),
+                index.getValue().getUnsuccessfulStreakIssueKeys());
+    }
+
+    @Test
+    public void testExtractIssueKeysFromChangeLogFile() throws IOException {
+
+        WorkflowRun current = mock(WorkflowRun.class);
+        File rootDir = Files.createTempDirectory("build").toFile();
+        Files.write(
+                new File(rootDir, "changelog0.xml").toPath(),
+                ("commit 5ecc1f4c0ba7ae4ef1ba3cb0d0ef61b3ae2bd8a2\n"
+                                + "author Jane Doe <jane@example.com> 1600000000 +0000\n"
+                                + "\n"
+                                + "    TEST-1 Some message\n")
+                        .getBytes(StandardCharsets.UTF_8));
+        when(current.getRootDir()).thenReturn(rootDir);
+
+        try {
+            ChangeLogIssueKeyExtractor extractor = new ChangeLogIssueKeyExtractor();
+            Set<String> issueKeys =
+                    extractor.extractIssueKeys(current, PipelineLogger.noopInstance());
+
+            assertEquals(ImmutableSet.of("TEST-1"), issueKeys);
+            verify(current, never()).getChangeSets();
+        } finally {
+            FileUtils.deleteDirectory(rootDir);
+        }
+    }
+
+    @Test
+    public void testExtractIssueKeysFromPreviousBuildWhenChangeLogFileHasNoCommits()
+            throws IOException {
+
+        WorkflowRun current = mock(WorkflowRun.class);
+        WorkflowRun previous1 = mock(WorkflowRun.class);
+        File rootDir = Files.createTempDirectory("build").toFile();
+        // written by the Git plugin for a checkout without new commits
+        Files.write(new File(rootDir, "changelog0.xml").toPath(), new byte[0]);
+        when(current.getRootDir()).thenReturn(rootDir);
+        when(current.getChangeSets()).thenReturn(Collections.emptyList());
+        when(current.getPreviousBuild()).thenReturn(previous1);
+        when(previous1.getResult()).thenReturn(Result.SUCCESS);
+
+        List<EntryImpl> entryListPrevious1 = new ArrayList<>();
+        entryListPrevious1.add(new EntryImpl().withMsg("TEST-2 Another message"));
+        List<ChangeLogSet<? extends ChangeLogSet.Entry>> changeSetsPrevious1 = new ArrayList<>();
+        changeSetsPrevious1.add(new FakeChangeLogSet(previous1, entryListPrevious1));
+        when(previous1.getChangeSets()).thenReturn(changeSetsPrevious1);
+
+        try {
+            ChangeLogIssueKeyExtractor extractor = new ChangeLogIssueKeyExtractor();
+
+            assertEquals(
+                    ImmutableSet.of("TEST-2"),
+                    extractor.extractIssueKeys(current, PipelineLogger.noopInstance()));
+            assertTrue(extractor.hasAnyIssueKey(current, PipelineLogger.noopInstance()));
+
+            extractor.indexIssueKeys(current, PipelineLogger.noopInstance());
+            ArgumentCaptor<IssueKeyIndexAction> index =
+                    ArgumentCaptor.forClass(IssueKeyIndexAction.class);
+            verify(current).addOrReplaceAction(index.capture());
+            assertFalse(index.getValue().hasChangeSets());
+            assertEquals(ImmutableSet.of("TEST-2"), index.getValue().getLastChangeSetIssueKeys());
+        } finally {
+            FileUtils.deleteDirectory(rootDir);
+        }
+    }
+
+    @Test
+    public void testWalksAllUnindexedFailedBuilds() {
+
+        WorkflowRun current = mock(WorkflowRun.class);
+        when(current.getChangeSets()).thenReturn(Collections.emptyList());
+        WorkflowRun next = current;
+        List<WorkflowRun> previousBuilds = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            WorkflowRun previous = mock(WorkflowRun.class);
+            when(previous.getResult()).thenReturn(Result.FAILURE);
+            when(previous.getChangeSets()).thenReturn(Collections.emptyList());
+            when(next.getPreviousBuild()).thenReturn(previous);
+            previousBuilds.add(previous);
+            next = previous;
+        }
+
+        new ChangeLogIssueKeyExtractor().extractIssueKeys(current, PipelineLogger.noopInstance());
+
+        verify(previousBuilds.get(59), atLeastOnce()).getChangeSets();
+    }
 }
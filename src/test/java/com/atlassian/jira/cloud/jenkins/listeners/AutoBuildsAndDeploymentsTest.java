@@ -1,6 +1,7 @@
 package com.atlassian.jira.cloud.jenkins.listeners;
 
 import com.atlassian.jira.cloud.jenkins.buildinfo.client.model.BuildApiResponse;
+import com.atlassian.jira.cloud.jenkins.buildinfo.service.JiraBuildInfoRequest;
 import com.atlassian.jira.cloud.jenkins.buildinfo.service.JiraBuildInfoResponse;
 import com.atlassian.jira.cloud.jenkins.buildinfo.service.JiraBuildInfoSender;
 import com.atlassian.jira.cloud.jenkins.buildinfo.service.MultibranchBuildInfoRequest;
@@ -130,11 +131,13 @@ public class AutoBuildsAndDeploymentsTest {
     }
 
     private void givenIssueKeys() {
+        when(issueKeyExtractor.hasAnyIssueKey(any(), any())).thenCallRealMethod();
         when(issueKeyExtractor.extractIssueKeys(any(), any()))
                 .thenReturn(Stream.of("TEST-1", "TEST-2").collect(Collectors.toSet()));
     }
 
     private void givenNoIssueKeys() {
+        when(issueKeyExtractor.hasAnyIssueKey(any(), any())).thenCallRealMethod();
         when(issueKeyExtractor.extractIssueKeys(any(), any())).thenReturn(emptySet());
     }
 
@@ -186,8 +189,12 @@ public class AutoBuildsAndDeploymentsTest {
                         Collections.emptyList(), Collections.emptyList(), Collections.emptyList());
         final JiraBuildInfoResponse buildAccepted =
                 JiraBuildInfoResponse.successBuildAccepted(SITE, response);
-        when(jiraBuildInfoSender.sendBuildInfo(any(), any()))
-                .thenReturn(Collections.singletonList(buildAccepted));
+        when(jiraBuildInfoSender.sendBuildInfos(any(), any(), any()))
+                .thenAnswer(
+                        invocation ->
+                                Collections.nCopies(
+                                        invocation.<List<?>>getArgument(1).size(),
+                                        buildAccepted));
     }
 
     private void givenJiraAcceptsDeployments() {
@@ -397,7 +404,7 @@ public class AutoBuildsAndDeploymentsTest {
     }
 
     private void verifyNoBuildEvents() {
-        verify(jiraBuildInfoSender, never()).sendBuildInfo(any(), any());
+        verify(jiraBuildInfoSender, never()).sendBuildInfos(any(), any(), any());
     }
 
     private void verifyNoDeploymentEvents() {
@@ -405,11 +412,17 @@ public class AutoBuildsAndDeploymentsTest {
     }
 
     private void verifyBuildEvent(int index, State expectedState) {
-        ArgumentCaptor<MultibranchBuildInfoRequest> requestCaptor =
-                ArgumentCaptor.forClass(MultibranchBuildInfoRequest.class);
-        verify(jiraBuildInfoSender, atLeastOnce()).sendBuildInfo(requestCaptor.capture(), any());
-
-        List<MultibranchBuildInfoRequest> requests = requestCaptor.getAllValues();
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<JiraBuildInfoRequest>> requestsCaptor =
+                ArgumentCaptor.forClass(List.class);
+        verify(jiraBuildInfoSender, atLeastOnce())
+                .sendBuildInfos(any(), requestsCaptor.capture(), any());
+
+        List<MultibranchBuildInfoRequest> requests =
+                requestsCaptor.getAllValues().stream()
+                        .flatMap(List::stream)
+                        .map(MultibranchBuildInfoRequest.class::cast)
+                        .collect(Collectors.toList());
         if (index + 1 > requests.size()) {
             fail(
                     String.format(
@@ -0,0 +1,84 @@
+package com.atlassian.jira.cloud.jenkins.listeners;
+
+import org.jenkinsci.plugins.workflow.flow.FlowExecution;
+import org.jenkinsci.plugins.workflow.flow.FlowExecutionOwner;
+import org.jenkinsci.plugins.workflow.graph.FlowNode;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+public class JenkinsPipelineGraphListenerTest {
+
+    private static final String BUILD_URL = "job/pipeline/1/";
+
+    private final SinglePipelineListenerRegistry registry = new SinglePipelineListenerRegistry();
+    private final SinglePipelineListener listener = mock(SinglePipelineListener.class);
+    private final FlowExecution execution = mock(FlowExecution.class);
+    private final FlowExecutionOwner owner = mock(FlowExecutionOwner.class);
+    private final FlowNode flowNode = mock(FlowNode.class);
+
+    private final JenkinsPipelineGraphListener classUnderTest =
+            new JenkinsPipelineGraphListener(registry);
+
+    @Before
+    public void setUp() throws Exception {
+        when(flowNode.getExecution()).thenReturn(execution);
+        when(execution.getOwner()).thenReturn(owner);
+        when(owner.getUrl()).thenReturn(BUILD_URL);
+    }
+
+    @Test
+    public void testHandsNodeToInterestedListener() {
+        // given
+        registry.registerForBuild(BUILD_URL, listener);
+        when(listener.isInterestedIn(flowNode)).thenReturn(true);
+
+        // when
+        classUnderTest.onNewHead(flowNode);
+
+        // then
+        verify(listener).onNewHead(flowNode);
+    }
+
+    @Test
+    public void testSkipsListenerNotInterestedInNode() {
+        // given
+        registry.registerForBuild(BUILD_URL, listener);
+        when(listener.isInterestedIn(flowNode)).thenReturn(false);
+
+        // when
+        classUnderTest.onNewHead(flowNode);
+
+        // then
+        verify(listener, never()).onNewHead(flowNode);
+    }
+
+    @Test
+    public void testDoesNotResolveUrl_whenNoListeners() {
+        // when
+        classUnderTest.onNewHead(flowNode);
+
+        // then
+        verifyNoInteractions(flowNode);
+    }
+
+    @Test
+    public void testResolvesBuildUrlOncePerExecution() throws Exception {
+        // given
+        registry.registerForBuild("job/other-pipeline/1/", listener);
+
+        // when
+        classUnderTest.onNewHead(flowNode);
+        classUnderTest.onNewHead(flowNode);
+
+        // then
+        verify(owner, times(1)).getUrl();
+        verifyNoInteractions(listener);
+    }
+}
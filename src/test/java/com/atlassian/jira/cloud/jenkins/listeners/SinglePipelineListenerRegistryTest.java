@@ -0,0 +1,73 @@
+package com.atlassian.jira.cloud.jenkins.listeners;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class SinglePipelineListenerRegistryTest {
+
+    private static final String BUILD_URL = "job/folder/job/pipeline/1/";
+
+    private final SinglePipelineListenerRegistry registry = new SinglePipelineListenerRegistry();
+
+    @Test
+    public void testFindByBuildUrl() {
+        final SinglePipelineListener listener = mock(SinglePipelineListener.class);
+        registry.registerForBuild(BUILD_URL, listener);
+
+        final Optional<List<SinglePipelineListener>> listeners = registry.find(BUILD_URL);
+
+        assertThat(listeners).hasValueSatisfying(l -> assertThat(l).containsExactly(listener));
+    }
+
+    @Test
+    public void testFindByNodeUrl() {
+        final SinglePipelineListener buildListener = mock(SinglePipelineListener.class);
+        final SinglePipelineListener deploymentListener = mock(SinglePipelineListener.class);
+        registry.registerForBuild(BUILD_URL, buildListener);
+        registry.registerForBuild(BUILD_URL, deploymentListener);
+
+        final Optional<List<SinglePipelineListener>> listeners =
+                registry.find(BUILD_URL + "execution/node/3/");
+
+        assertThat(listeners)
+                .hasValueSatisfying(
+                        l -> assertThat(l).containsExactly(buildListener, deploymentListener));
+    }
+
+    @Test
+    public void testDoesNotMatchBuildWithSameNumberPrefix() {
+        registry.registerForBuild(BUILD_URL, mock(SinglePipelineListener.class));
+
+        assertThat(registry.find("job/folder/job/pipeline/12/execution/node/3/")).isEmpty();
+        assertThat(registry.find("job/folder/job/pipeline/")).isEmpty();
+    }
+
+    @Test
+    public void testUnregister() {
+        final SinglePipelineListener otherListener = mock(SinglePipelineListener.class);
+        registry.registerForBuild(BUILD_URL, mock(SinglePipelineListener.class));
+        registry.registerForBuild("job/folder/job/pipeline/2/", otherListener);
+
+        registry.unregister(BUILD_URL);
+
+        assertThat(registry.find(BUILD_URL + "execution/node/3/")).isEmpty();
+        assertThat(registry.find("job/folder/job/pipeline/2/execution/node/3/"))
+                .hasValueSatisfying(l -> assertThat(l).containsExactly(otherListener));
+    }
+
+    @Test
+    public void testIsEmpty() {
+        assertThat(registry.isEmpty()).isTrue();
+
+        registry.registerForBuild(BUILD_URL, mock(SinglePipelineListener.class));
+        assertThat(registry.isEmpty()).isFalse();
+
+        registry.unregister(BUILD_URL);
+        assertThat(registry.isEmpty()).isTrue();
+    }
+}
@@ -0,0 +1,77 @@
+package com.atlassian.jira.cloud.jenkins.metrics;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PluginMetricsTest {
+
+    private final PluginMetrics metrics = new PluginMetrics();
+
+    @Test
+    public void testCountsEvents() {
+        // when
+        metrics.increment("http.retries.example.com");
+        metrics.increment("http.retries.example.com");
+        metrics.increment("tenantInfo.cacheHits");
+
+        // then
+        assertThat(section("counters"))
+                .containsEntry("http.retries.example.com", 2L)
+                .containsEntry("tenantInfo.cacheHits", 1L);
+    }
+
+    @Test
+    public void testRecordsLatenciesInBuckets() {
+        // when
+        metrics.recordLatency("http.latency.example.com", Duration.ofMillis(20));
+        metrics.recordLatency("http.latency.example.com", Duration.ofMillis(50));
+        metrics.recordLatency("http.latency.example.com", Duration.ofMillis(700));
+        metrics.recordLatency("http.latency.example.com", Duration.ofSeconds(30));
+
+        // then
+        final Map<String, Object> histogram =
+                (Map<String, Object>) section("latencies").get("http.latency.example.com");
+        assertThat(histogram).containsEntry("count", 4L).containsEntry("totalMillis", 30770L);
+        assertThat((Map<String, Object>) histogram.get("buckets"))
+                .containsEntry("le50ms", 2L)
+                .containsEntry("le100ms", 0L)
+                .containsEntry("le1000ms", 1L)
+                .containsEntry("gt10000ms", 1L);
+    }
+
+    @Test
+    public void testReadsGaugesWhenSnapshotIsTaken() {
+        // given
+        final int[] depth = {1};
+        metrics.registerGauge("dispatcher.queueDepth", () -> depth[0]);
+
+        // when
+        depth[0] = 5;
+
+        // then
+        assertThat(section("gauges")).containsEntry("dispatcher.queueDepth", 5);
+    }
+
+    @Test
+    public void testSkipsFailingGauge() {
+        // given
+        metrics.registerGauge(
+                "broken",
+                () -> {
+                    throw new IllegalStateException("not started");
+                });
+        metrics.registerGauge("outbox.pending", () -> 3);
+
+        // then
+        assertThat(section("gauges")).doesNotContainKey("broken").containsEntry("outbox.pending", 3);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> section(final String name) {
+        return (Map<String, Object>) metrics.snapshot().get(name);
+    }
+}
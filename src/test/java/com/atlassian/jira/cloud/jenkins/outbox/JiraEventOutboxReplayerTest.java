@@ -0,0 +1,198 @@
+package com.atlassian.jira.cloud.jenkins.outbox;
+
+import com.atlassian.jira.cloud.jenkins.common.client.ApiUpdateFailedException;
+import com.atlassian.jira.cloud.jenkins.common.client.BadRequestException;
+import com.atlassian.jira.cloud.jenkins.common.config.JiraSiteConfigRetriever;
+import com.atlassian.jira.cloud.jenkins.common.outbox.JiraEventOutbox;
+import com.atlassian.jira.cloud.jenkins.common.outbox.OutboxEntry;
+import com.atlassian.jira.cloud.jenkins.config.JiraCloudSiteConfig;
+import com.atlassian.jira.cloud.jenkins.util.SecretRetriever;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class JiraEventOutboxReplayerTest {
+
+    private static final String SITE = "example.atlassian.net";
+    private static final String WEBHOOK_URL = "https://example.atlassian.net/webhook";
+    private static final String CREDENTIALS_ID = "credsId";
+    private static final String SECRET = "secret";
+    private static final Instant NOW = Instant.parse("2024-01-01T12:00:00Z");
+
+    private final JiraEventOutbox outbox = mock(JiraEventOutbox.class);
+    private final JiraSiteConfigRetriever siteConfigRetriever = mock(JiraSiteConfigRetriever.class);
+    private final SecretRetriever secretRetriever = mock(SecretRetriever.class);
+    private final OutboxReplayApi replayApi = mock(OutboxReplayApi.class);
+
+    private JiraEventOutboxReplayer replayer;
+
+    @Before
+    public void setUp() {
+        when(siteConfigRetriever.getAllJiraSites()).thenReturn(Collections.singletonList(SITE));
+        when(siteConfigRetriever.getJiraSiteConfig(SITE))
+                .thenReturn(Optional.of(new JiraCloudSiteConfig(SITE, WEBHOOK_URL, CREDENTIALS_ID)));
+        when(secretRetriever.getSecretFor(CREDENTIALS_ID)).thenReturn(Optional.of(SECRET));
+
+        replayer =
+                new JiraEventOutboxReplayer(
+                        () -> outbox, siteConfigRetriever, secretRetriever, replayApi);
+    }
+
+    @Test
+    public void testResentEntryIsAcknowledged() throws Exception {
+        // given
+        givenPending(entry(1, "pipeline", Duration.ofMinutes(10)));
+
+        // when
+        replayer.replay(NOW);
+
+        // then
+        verify(replayApi).resend(WEBHOOK_URL, SECRET, "body-1");
+        verify(outbox).acknowledge(1);
+    }
+
+    @Test
+    public void testRecentEntryIsNotResent() throws Exception {
+        // given
+        givenPending(entry(1, "pipeline", Duration.ofSeconds(30)));
+
+        // when
+        replayer.replay(NOW);
+
+        // then
+        verify(replayApi, never()).resend(anyString(), anyString(), anyString());
+        verify(outbox, never()).acknowledge(anyLong());
+    }
+
+    @Test
+    public void testExpiredEntryIsDropped() throws Exception {
+        // given
+        givenPending(entry(1, "pipeline", Duration.ofDays(2)));
+
+        // when
+        replayer.replay(NOW);
+
+        // then
+        verify(replayApi, never()).resend(anyString(), anyString(), anyString());
+        verify(outbox).acknowledge(1);
+    }
+
+    @Test
+    public void testRejectedEntryIsAcknowledged() throws Exception {
+        // given
+        givenPending(entry(1, "pipeline", Duration.ofMinutes(10)));
+        when(replayApi.resend(WEBHOOK_URL, SECRET, "body-1"))
+                .thenThrow(new BadRequestException("invalid"));
+
+        // when
+        replayer.replay(NOW);
+
+        // then
+        verify(outbox).acknowledge(1);
+    }
+
+    @Test
+    public void testThrottledEntryStaysPending() throws Exception {
+        // given
+        givenPending(entry(1, "pipeline", Duration.ofMinutes(10)));
+        when(replayApi.resend(WEBHOOK_URL, SECRET, "body-1"))
+                .thenThrow(new BadRequestException("too many requests", 429));
+
+        // when
+        replayer.replay(NOW);
+
+        // then
+        verify(outbox, never()).acknowledge(anyLong());
+    }
+
+    @Test
+    public void testEntryStaysPending_whenJiraUnavailable() throws Exception {
+        // given
+        givenPending(entry(1, "pipeline", Duration.ofMinutes(10)));
+        when(replayApi.resend(WEBHOOK_URL, SECRET, "body-1"))
+                .thenThrow(
+                        new ApiUpdateFailedException(
+                                "Error response code 503 when calling Jenkins app in Jira"));
+
+        // when
+        replayer.replay(NOW);
+
+        // then
+        verify(outbox, never()).acknowledge(anyLong());
+    }
+
+    @Test
+    public void testUnprocessableEntryIsAcknowledged() throws Exception {
+        // given
+        givenPending(entry(1, "pipeline", Duration.ofMinutes(10)));
+        when(replayApi.resend(WEBHOOK_URL, SECRET, "body-1"))
+                .thenThrow(new BadRequestException("invalid", 422));
+
+        // when
+        replayer.replay(NOW);
+
+        // then
+        verify(outbox).acknowledge(1);
+    }
+
+    @Test
+    public void testFailedEntryBlocksLaterEntriesOfSamePipeline() throws Exception {
+        // given
+        givenPending(
+                entry(1, "pipeline", Duration.ofMinutes(10)),
+                entry(2, "pipeline", Duration.ofMinutes(9)),
+                entry(3, "other-pipeline", Duration.ofMinutes(8)));
+        when(replayApi.resend(WEBHOOK_URL, SECRET, "body-1"))
+                .thenThrow(new ApiUpdateFailedException("unavailable"));
+
+        // when
+        replayer.replay(NOW);
+
+        // then
+        verify(outbox, never()).acknowledge(1);
+        verify(replayApi, never()).resend(anyString(), anyString(), eq("body-2"));
+        verify(outbox, never()).acknowledge(2);
+        verify(outbox).acknowledge(3);
+    }
+
+    @Test
+    public void testEntryOfRemovedSiteIsDropped() throws Exception {
+        // given
+        when(siteConfigRetriever.getAllJiraSites()).thenReturn(Collections.emptyList());
+        givenPending(entry(1, "pipeline", Duration.ofMinutes(10)));
+
+        // when
+        replayer.replay(NOW);
+
+        // then
+        verify(replayApi, never()).resend(anyString(), anyString(), anyString());
+        verify(outbox).acknowledge(1);
+    }
+
+    private void givenPending(final OutboxEntry... entries) {
+        when(outbox.getPending()).thenReturn(Arrays.asList(entries));
+    }
+
+    private static OutboxEntry entry(final long id, final String pipelineId, final Duration age) {
+        return new OutboxEntry(
+                id,
+                NOW.minus(age).toEpochMilli(),
+                WEBHOOK_URL,
+                pipelineId,
+                "body-" + id,
+                Collections.emptyMap());
+    }
+}
@@ -0,0 +1,77 @@
+package com.atlassian.jira.cloud.jenkins.provider;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AdaptiveRateLimiterTest {
+
+    private static final Duration MAX_WAIT = Duration.ofSeconds(30);
+
+    private long nanos = 0;
+
+    private final AdaptiveRateLimiter rateLimiter =
+            new AdaptiveRateLimiter(2, 0.5, 4, () -> nanos);
+
+    @Test
+    public void testQueuesRequestsOverTheRate() {
+        // burst of a second's worth of requests
+        assertThat(rateLimiter.reserve(MAX_WAIT)).contains(Duration.ZERO);
+        assertThat(rateLimiter.reserve(MAX_WAIT)).contains(Duration.ZERO);
+
+        // then one every half a second
+        assertThat(rateLimiter.reserve(MAX_WAIT)).contains(Duration.ofMillis(500));
+        assertThat(rateLimiter.reserve(MAX_WAIT)).contains(Duration.ofMillis(1000));
+
+        nanos += Duration.ofMillis(1000).toNanos();
+        assertThat(rateLimiter.reserve(MAX_WAIT)).contains(Duration.ofMillis(500));
+    }
+
+    @Test
+    public void testRejects_whenWaitWouldBeTooLong() {
+        // given
+        rateLimiter.reserve(MAX_WAIT);
+        rateLimiter.reserve(MAX_WAIT);
+
+        // when
+        final Optional<Duration> wait = rateLimiter.reserve(Duration.ofMillis(100));
+
+        // then no permit is taken
+        assertThat(wait).isEmpty();
+        assertThat(rateLimiter.reserve(MAX_WAIT)).contains(Duration.ofMillis(500));
+    }
+
+    @Test
+    public void testIncreasesAdditivelyAndDecreasesMultiplicatively() {
+        rateLimiter.onSuccess();
+        assertThat(rateLimiter.getPermitsPerSecond()).isEqualTo(2.1);
+
+        rateLimiter.onThrottled();
+        assertThat(rateLimiter.getPermitsPerSecond()).isEqualTo(1.05);
+
+        rateLimiter.onThrottled();
+        rateLimiter.onThrottled();
+        assertThat(rateLimiter.getPermitsPerSecond()).isEqualTo(0.5);
+
+        for (int i = 0; i < 100; i++) {
+            rateLimiter.onSuccess();
+        }
+        assertThat(rateLimiter.getPermitsPerSecond()).isEqualTo(4);
+    }
+
+    @Test
+    public void testWaitsUntilPauseIsOver() {
+        // when
+        rateLimiter.pauseFor(Duration.ofSeconds(5));
+
+        // then
+        assertThat(rateLimiter.reserve(MAX_WAIT)).contains(Duration.ofSeconds(5));
+        assertThat(rateLimiter.reserve(MAX_WAIT)).contains(Duration.ofMillis(5500));
+
+        nanos += Duration.ofSeconds(6).toNanos();
+        assertThat(rateLimiter.reserve(MAX_WAIT)).contains(Duration.ZERO);
+    }
+}
@@ -0,0 +1,95 @@
+package com.atlassian.jira.cloud.jenkins.provider;
+
+import com.atlassian.jira.cloud.jenkins.BaseMockServerTest;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CircuitBreakerInterceptorTest extends BaseMockServerTest {
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry =
+            CircuitBreakerRegistry.of(
+                    CircuitBreakerConfig.custom()
+                            .slidingWindowSize(2)
+                            .minimumNumberOfCalls(2)
+                            .failureRateThreshold(50)
+                            .waitDurationInOpenState(Duration.ofMinutes(1))
+                            .build());
+
+    private OkHttpClient httpClient;
+
+    @Before
+    public void setup() throws IOException {
+        super.setup();
+        httpClient =
+                new OkHttpClient.Builder()
+                        .addInterceptor(new CircuitBreakerInterceptor(circuitBreakerRegistry))
+                        .build();
+    }
+
+    @Test
+    public void testFailsFast_whenUrlKeepsFailing() throws IOException {
+        // setup
+        server.enqueue(new MockResponse().setResponseCode(500));
+        server.enqueue(new MockResponse().setResponseCode(503));
+        execute("/webhook").close();
+        execute("/webhook").close();
+
+        // execute & verify
+        assertThatThrownBy(() -> execute("/webhook"))
+                .isInstanceOf(CircuitBreakerOpenException.class);
+        assertThat(server.getRequestCount()).isEqualTo(2);
+        assertThat(CircuitBreakerInterceptor.getStates(circuitBreakerRegistry))
+                .containsEntry(server.url("/webhook").toString(), CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    public void testClientErrorsDontOpenCircuit() throws IOException {
+        // setup
+        for (int i = 0; i < 3; i++) {
+            server.enqueue(new MockResponse().setResponseCode(404));
+        }
+
+        // execute
+        for (int i = 0; i < 3; i++) {
+            execute("/webhook").close();
+        }
+
+        // verify
+        assertThat(server.getRequestCount()).isEqualTo(3);
+        assertThat(CircuitBreakerInterceptor.getStates(circuitBreakerRegistry))
+                .containsEntry(server.url("/webhook").toString(), CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    public void testCircuitIsPerUrl() throws IOException {
+        // setup
+        server.enqueue(new MockResponse().setResponseCode(500));
+        server.enqueue(new MockResponse().setResponseCode(500));
+        server.enqueue(new MockResponse().setResponseCode(202));
+        execute("/webhook").close();
+        execute("/webhook").close();
+
+        // execute
+        final Response response = execute("/other-webhook?query=1");
+
+        // verify
+        assertThat(response.code()).isEqualTo(202);
+    }
+
+    private Response execute(final String path) throws IOException {
+        return httpClient.newCall(new Request.Builder().url(server.url(path)).build()).execute();
+    }
+}
@@ -1,11 +1,7 @@
 package com.atlassian.jira.cloud.jenkins.provider;
 
 import com.atlassian.jira.cloud.jenkins.BaseMockServerTest;
-import com.atlassian.jira.cloud.jenkins.Config;
 import com.atlassian.jira.cloud.jenkins.HttpClientProviderTestGenerator;
-import io.github.resilience4j.ratelimiter.RateLimiterConfig;
-import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
-import io.github.resilience4j.ratelimiter.RequestNotPermitted;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
@@ -15,15 +11,12 @@ import org.junit.Test;
 
 import javax.inject.Inject;
 import java.io.IOException;
-import java.time.Duration;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertTrue;
 
 public class HttpClientProviderTest extends BaseMockServerTest {
 
-    private static final int LIMIT_FOR_PERIOD = 3;
+    private static final int NUMBER_OF_REQUESTS = 30;
 
     @Inject private OkHttpClient httpClient;
 
@@ -31,15 +24,6 @@ public class HttpClientProviderTest extends BaseMockServerTest {
     public void setup() throws IOException {
         super.setup();
         httpClient = new HttpClientProvider().httpClient();
-        final RateLimiterRegistry rateLimiterRegistry = Config.RATE_LIMITER_REGISTRY;
-
-        rateLimiterRegistry.addConfiguration(
-                Config.ATLASSIAN_RATE_LIMITER_CONFIG,
-                RateLimiterConfig.custom()
-                        .limitForPeriod(LIMIT_FOR_PERIOD)
-                        .limitRefreshPeriod(Duration.ofMinutes(1))
-                        .timeoutDuration(Duration.ofSeconds(1))
-                        .build());
     }
 
     @Test
@@ -143,33 +127,25 @@ public class HttpClientProviderTest extends BaseMockServerTest {
     }
 
     @Test
-    public void testClientRichLimits() {
+    public void testQueuesRequestsOverTheRate_insteadOfRejectingThem() throws Exception {
         // setup
-        final int numberOfAttempts = LIMIT_FOR_PERIOD + 1;
-        HttpClientProviderTestGenerator.succeedWith2XXForAttempts(this, numberOfAttempts);
-        final String clientId = "1";
-        final Request request = getRequest().newBuilder().tag(String.class, clientId).build();
+        HttpClientProviderTestGenerator.succeedWith2XXForAttempts(this, NUMBER_OF_REQUESTS);
+        final Request request =
+                getRequest().newBuilder().tag(String.class, "queued-client").build();
 
         // execute
-        try {
-            for (int i = 0; i < numberOfAttempts; i++) {
-                httpClient.newCall(request).execute();
-            }
+        for (int i = 0; i < NUMBER_OF_REQUESTS; i++) {
+            httpClient.newCall(request).execute().close();
         }
 
         // verify
-        catch (Exception e) {
-            assertTrue(e instanceof RequestNotPermitted);
-            assertEquals(
-                    String.format("RateLimiter '%s' does not permit further calls", clientId),
-                    e.getMessage());
-        }
+        assertThat(server.getRequestCount()).isEqualTo(NUMBER_OF_REQUESTS);
     }
 
     @Test
     public void testClientIdDoesntProvided_limitsDidntRich() throws Exception {
         // setup
-        final int numberOfAttempts = LIMIT_FOR_PERIOD + 1;
+        final int numberOfAttempts = NUMBER_OF_REQUESTS;
         HttpClientProviderTestGenerator.succeedWith2XXForAttempts(this, numberOfAttempts);
         final Request request = getRequest();
 
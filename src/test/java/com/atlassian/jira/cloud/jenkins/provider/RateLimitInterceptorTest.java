@@ -0,0 +1,104 @@
+package com.atlassian.jira.cloud.jenkins.provider;
+
+import com.atlassian.jira.cloud.jenkins.BaseMockServerTest;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class RateLimitInterceptorTest extends BaseMockServerTest {
+
+    private final ConcurrentMap<String, AdaptiveRateLimiter> rateLimiters =
+            new ConcurrentHashMap<>();
+
+    private OkHttpClient httpClient;
+
+    @Before
+    public void setup() throws IOException {
+        super.setup();
+        httpClient =
+                new OkHttpClient.Builder()
+                        .addInterceptor(
+                                new RateLimitInterceptor(rateLimiters, Duration.ofSeconds(5)))
+                        .build();
+    }
+
+    @Test
+    public void testSlowsDown_whenThrottled() throws IOException {
+        // setup
+        server.enqueue(new MockResponse().setResponseCode(202));
+        server.enqueue(new MockResponse().setResponseCode(429));
+
+        // execute
+        execute("/webhook").close();
+        final double rateAfterSuccess = rateOf("/webhook");
+        execute("/webhook").close();
+
+        // verify
+        assertThat(rateOf("/webhook")).isEqualTo(rateAfterSuccess / 2);
+    }
+
+    @Test
+    public void testWaitsForRetryAfter() throws IOException {
+        // setup
+        server.enqueue(new MockResponse().setResponseCode(429).setHeader("Retry-After", "1"));
+        server.enqueue(new MockResponse().setResponseCode(202));
+        execute("/webhook").close();
+
+        // execute
+        final long start = System.nanoTime();
+        final Response response = execute("/webhook");
+
+        // verify
+        assertThat(response.code()).isEqualTo(202);
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThan(Duration.ofMillis(900));
+    }
+
+    @Test
+    public void testRejects_whenPausedForLongerThanMaxWait() throws IOException {
+        // setup
+        server.enqueue(new MockResponse().setResponseCode(429).setHeader("Retry-After", "60"));
+        execute("/webhook").close();
+
+        // execute & verify
+        assertThatThrownBy(() -> execute("/webhook"))
+                .isInstanceOf(RateLimitExceededException.class);
+        assertThat(server.getRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testKeepsRateLimiterPerWebhook() throws IOException {
+        // setup
+        server.enqueue(new MockResponse().setResponseCode(429).setHeader("Retry-After", "60"));
+        server.enqueue(new MockResponse().setResponseCode(202));
+        execute("/webhook?jenkins_server_uuid=1").close();
+
+        // execute
+        final Response response = execute("/other-webhook");
+
+        // verify
+        assertThat(response.code()).isEqualTo(202);
+        assertThat(RateLimitInterceptor.getRates(rateLimiters))
+                .containsOnlyKeys(
+                        server.url("/webhook").toString(), server.url("/other-webhook").toString());
+    }
+
+    private Response execute(final String path) throws IOException {
+        final Request request = new Request.Builder().url(server.url(path)).build();
+        return httpClient.newCall(request).execute();
+    }
+
+    private double rateOf(final String path) {
+        return RateLimitInterceptor.getRates(rateLimiters).get(server.url(path).toString());
+    }
+}
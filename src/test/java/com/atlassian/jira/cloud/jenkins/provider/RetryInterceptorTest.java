@@ -0,0 +1,168 @@
+package com.atlassian.jira.cloud.jenkins.provider;
+
+import com.atlassian.jira.cloud.jenkins.BaseMockServerTest;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RetryInterceptorTest extends BaseMockServerTest {
+
+    private static final Duration BASE_DELAY = Duration.ofMillis(10);
+    private static final Duration MAX_DELAY = Duration.ofMillis(40);
+    private static final Duration GATING_STATUS_DELAY = Duration.ofMillis(100);
+
+    @Test
+    public void testRetryFor429() throws IOException {
+        // setup
+        server.enqueue(new MockResponse().setResponseCode(429));
+        server.enqueue(new MockResponse().setResponseCode(202));
+
+        // execute
+        final Response response = execute(retryInterceptor(10));
+
+        // verify
+        assertThat(response.code()).isEqualTo(202);
+        assertThat(server.getRequestCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void testNoRetry_whenBudgetUsedUp() throws IOException {
+        // setup
+        for (int i = 0; i < 4; i++) {
+            server.enqueue(new MockResponse().setResponseCode(503));
+        }
+
+        // execute
+        final Response response = execute(retryInterceptor(1));
+
+        // verify
+        assertThat(response.code()).isEqualTo(503);
+        assertThat(server.getRequestCount()).isEqualTo(2); // 1 actual request + 1 retry
+    }
+
+    @Test
+    public void testWaitsForRetryAfter() throws IOException {
+        // setup
+        server.enqueue(new MockResponse().setResponseCode(503).setHeader("Retry-After", "1"));
+        server.enqueue(new MockResponse().setResponseCode(202));
+
+        // execute
+        final long start = System.nanoTime();
+        final Response response = execute(retryInterceptor(10));
+
+        // verify
+        assertThat(response.code()).isEqualTo(202);
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThan(Duration.ofMillis(900));
+    }
+
+    @Test
+    public void testNoRetry_whenRetryAfterTooLong() throws IOException {
+        // setup
+        server.enqueue(new MockResponse().setResponseCode(503).setHeader("Retry-After", "3600"));
+
+        // execute
+        final Response response = execute(retryInterceptor(10));
+
+        // verify
+        assertThat(response.code()).isEqualTo(503);
+        assertThat(server.getRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testBudgetIsPerUrl() throws IOException {
+        // setup
+        final RetryInterceptor retryInterceptor = retryInterceptor(1);
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setResponseCode(202));
+
+        // execute
+        execute(retryInterceptor, "/test?attempt=1");
+        final Response response = execute(retryInterceptor, "/other");
+
+        // verify
+        assertThat(response.code()).isEqualTo(202);
+        assertThat(server.getRequestCount()).isEqualTo(4);
+    }
+
+    @Test
+    public void testGatingStatusRetriedAfterFixedDelay() throws IOException {
+        // setup
+        for (int i = 0; i < 3; i++) {
+            server.enqueue(new MockResponse().setResponseCode(404));
+        }
+        server.enqueue(new MockResponse().setResponseCode(200));
+
+        // execute
+        final long start = System.nanoTime();
+        final Response response = execute(retryInterceptor(10), "/deployment/gating-status");
+
+        // verify
+        assertThat(response.code()).isEqualTo(200);
+        assertThat(server.getRequestCount()).isEqualTo(4);
+        assertThat(Duration.ofNanos(System.nanoTime() - start))
+                .isGreaterThanOrEqualTo(GATING_STATUS_DELAY.multipliedBy(3));
+    }
+
+    @Test
+    public void testGatingStatusRetryWindowIsFifteenSeconds() {
+        // setup
+        final Request request =
+                new Request.Builder().url(server.url("/deployment/gating-status")).build();
+        final Response response =
+                new Response.Builder()
+                        .request(request)
+                        .protocol(Protocol.HTTP_1_1)
+                        .code(404)
+                        .message("Not Found")
+                        .build();
+        final RetryInterceptor retryInterceptor = new RetryInterceptor();
+
+        // execute
+        Duration retryWindow = Duration.ZERO;
+        for (int attempt = 1; attempt <= 3; attempt++) {
+            retryWindow = retryWindow.plus(retryInterceptor.delay(response, attempt));
+        }
+
+        // verify
+        assertThat(retryWindow).isEqualTo(Duration.ofSeconds(15));
+    }
+
+    @Test
+    public void testBackoffGrowsExponentiallyWithJitter() {
+        final RetryInterceptor retryInterceptor = retryInterceptor(10);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(retryInterceptor.backoff(1)).isBetween(Duration.ofMillis(5), BASE_DELAY);
+            assertThat(retryInterceptor.backoff(2))
+                    .isBetween(Duration.ofMillis(10), Duration.ofMillis(20));
+            assertThat(retryInterceptor.backoff(10)).isBetween(Duration.ofMillis(20), MAX_DELAY);
+        }
+    }
+
+    private Response execute(final RetryInterceptor retryInterceptor) throws IOException {
+        return execute(retryInterceptor, "/test");
+    }
+
+    private Response execute(final RetryInterceptor retryInterceptor, final String path)
+            throws IOException {
+        final OkHttpClient httpClient =
+                new OkHttpClient.Builder().addInterceptor(retryInterceptor).build();
+        final Request request = new Request.Builder().url(server.url(path)).build();
+        return httpClient.newCall(request).execute();
+    }
+
+    private static RetryInterceptor retryInterceptor(final double budget) {
+        return new RetryInterceptor(
+                3, BASE_DELAY, MAX_DELAY, Duration.ofSeconds(30), budget, GATING_STATUS_DELAY);
+    }
+}
@@ -9,7 +9,14 @@ import org.junit.Test;
 
 import javax.inject.Inject;
 import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -61,4 +68,86 @@ public class CloudIdResolverTest extends BaseMockServerTest {
         Optional<String> cloudId = cloudIdResolver.getCloudId(mockServerBaseUrl);
         assertThat(cloudId.isPresent()).isFalse();
     }
+
+    @Test
+    public void testCloudIdIsCached() {
+        // given
+        server.enqueue(CloudIdResolverTestGenerator.successfulResponse());
+        cloudIdResolver.getCloudId(mockServerBaseUrl);
+
+        // when
+        final Optional<String> cloudId = cloudIdResolver.getCloudId(mockServerBaseUrl);
+
+        // then
+        assertThat(cloudId).contains("cloud-id");
+        assertThat(server.getRequestCount()).isEqualTo(1);
+        assertThat(cloudIdResolver.getMissCount()).isEqualTo(1);
+        assertThat(cloudIdResolver.getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testCachedCloudIdExpires() {
+        // given
+        final AtomicLong clock = new AtomicLong();
+        cloudIdResolver = resolverWithClock(clock);
+        server.enqueue(CloudIdResolverTestGenerator.successfulResponse());
+        server.enqueue(CloudIdResolverTestGenerator.successfulResponse());
+        cloudIdResolver.getCloudId(mockServerBaseUrl);
+
+        // when
+        clock.addAndGet(TimeUnit.MINUTES.toNanos(59));
+        cloudIdResolver.getCloudId(mockServerBaseUrl);
+        clock.addAndGet(TimeUnit.MINUTES.toNanos(1));
+        cloudIdResolver.getCloudId(mockServerBaseUrl);
+
+        // then
+        assertThat(server.getRequestCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void testFailedLookupIsCachedShorter() {
+        // given
+        final AtomicLong clock = new AtomicLong();
+        cloudIdResolver = resolverWithClock(clock);
+        server.enqueue(CloudIdResolverTestGenerator.serverError());
+        server.enqueue(CloudIdResolverTestGenerator.successfulResponse());
+
+        // when
+        final Optional<String> failed = cloudIdResolver.getCloudId(mockServerBaseUrl);
+        final Optional<String> cachedFailure = cloudIdResolver.getCloudId(mockServerBaseUrl);
+        clock.addAndGet(TimeUnit.MINUTES.toNanos(1));
+        final Optional<String> cloudId = cloudIdResolver.getCloudId(mockServerBaseUrl);
+
+        // then
+        assertThat(failed).isEmpty();
+        assertThat(cachedFailure).isEmpty();
+        assertThat(cloudId).contains("cloud-id");
+        assertThat(server.getRequestCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void testConcurrentLookupsShareOneRequest() {
+        // given
+        server.enqueue(
+                CloudIdResolverTestGenerator.successfulResponse()
+                        .setHeadersDelay(500, TimeUnit.MILLISECONDS));
+
+        // when
+        final List<CompletableFuture<Optional<String>>> lookups =
+                IntStream.range(0, 4)
+                        .mapToObj(
+                                i ->
+                                        CompletableFuture.supplyAsync(
+                                                () -> cloudIdResolver.getCloudId(mockServerBaseUrl)))
+                        .collect(Collectors.toList());
+
+        // then
+        lookups.forEach(lookup -> assertThat(lookup.join()).contains("cloud-id"));
+        assertThat(server.getRequestCount()).isEqualTo(1);
+    }
+
+    private CloudIdResolver resolverWithClock(final AtomicLong clock) {
+        return new CloudIdResolver(
+                httpClient, objectMapper, Duration.ofHours(1), Duration.ofMinutes(1), clock::get);
+    }
 }
@@ -0,0 +1,196 @@
+package com.atlassian.jira.cloud.jenkins.util;
+
+import com.atlassian.jira.cloud.jenkins.common.service.IssueKeyExtractor;
+import com.atlassian.jira.cloud.jenkins.deploymentinfo.service.ChangeLogIssueKeyExtractor;
+import com.atlassian.jira.cloud.jenkins.logging.PipelineLogger;
+import hudson.scm.SCM;
+import jenkins.plugins.git.GitBranchSCMHead;
+import jenkins.plugins.git.GitBranchSCMRevision;
+import jenkins.plugins.git.GitSCMSource;
+import jenkins.scm.api.SCMRevisionAction;
+import org.jenkinsci.plugins.workflow.job.WorkflowRun;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CachingIssueKeyExtractorTest {
+
+    @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final IssueKeyExtractor delegate = mock(IssueKeyExtractor.class);
+    private final WorkflowRun run = mock(WorkflowRun.class);
+
+    private IssueKeyExtractor classUnderTest;
+
+    @Before
+    public void setUp() {
+        classUnderTest = new CachingIssueKeyExtractor(delegate);
+        when(delegate.extractIssueKeys(any(), any()))
+                .thenReturn(Collections.singleton("TEST-1"));
+        givenCheckouts(Collections.emptyList());
+    }
+
+    @Test
+    public void testExtractsOnlyOnce_whenNothingChanged() {
+        // when
+        extract();
+        final Set<String> issueKeys = extract();
+
+        // then
+        assertThat(issueKeys).containsExactly("TEST-1");
+        verify(delegate, times(1)).extractIssueKeys(any(), any());
+    }
+
+    @Test
+    public void testExtractsAgain_whenCheckedOutAgain() {
+        // given
+        extract();
+        givenCheckouts(Collections.singletonList(mock(SCM.class)));
+
+        // when
+        extract();
+
+        // then
+        verify(delegate, times(2)).extractIssueKeys(any(), any());
+    }
+
+    @Test
+    public void testExtractsAgain_whenScmRevisionChanged() {
+        // given
+        extract();
+        final GitBranchSCMHead head = new GitBranchSCMHead("TEST-2-branch");
+        when(run.getAction(SCMRevisionAction.class))
+                .thenReturn(
+                        new SCMRevisionAction(
+                                new GitSCMSource(""), new GitBranchSCMRevision(head, "")));
+
+        // when
+        extract();
+        extract();
+
+        // then
+        verify(delegate, times(2)).extractIssueKeys(any(), any());
+    }
+
+    @Test
+    public void testRunsAreCachedSeparately() {
+        // given
+        final WorkflowRun otherRun = mock(WorkflowRun.class);
+        doReturn(Collections.emptyList()).when(otherRun).getSCMs();
+
+        // when
+        extract();
+        classUnderTest.extractIssueKeys(otherRun, PipelineLogger.noopInstance());
+
+        // then
+        verify(delegate, times(1)).extractIssueKeys(run, PipelineLogger.noopInstance());
+        verify(delegate, times(1)).extractIssueKeys(otherRun, PipelineLogger.noopInstance());
+    }
+
+    @Test
+    public void testRemembersThatThereAreNoIssueKeys() {
+        // given
+        when(delegate.hasAnyIssueKey(any(), any())).thenReturn(false);
+
+        // when
+        final boolean first = classUnderTest.hasAnyIssueKey(run, PipelineLogger.noopInstance());
+        final boolean second = classUnderTest.hasAnyIssueKey(run, PipelineLogger.noopInstance());
+
+        // then
+        assertThat(first).isFalse();
+        assertThat(second).isFalse();
+        assertThat(extract()).isEmpty();
+        verify(delegate, times(1)).hasAnyIssueKey(any(), any());
+        verify(delegate, never()).extractIssueKeys(any(), any());
+    }
+
+    @Test
+    public void testHasAnyIssueKey_doesNotExtract_whenDelegateFindsOne() {
+        // given
+        when(delegate.hasAnyIssueKey(any(), any())).thenReturn(true);
+
+        // when
+        final boolean hasAnyIssueKey =
+                classUnderTest.hasAnyIssueKey(run, PipelineLogger.noopInstance());
+
+        // then
+        assertThat(hasAnyIssueKey).isTrue();
+        verify(delegate, never()).extractIssueKeys(any(), any());
+        assertThat(extract()).containsExactly("TEST-1");
+    }
+
+    @Test
+    public void testRemembersThatThereAreIssueKeys() {
+        // given
+        when(delegate.hasAnyIssueKey(any(), any())).thenReturn(true);
+
+        // when
+        classUnderTest.hasAnyIssueKey(run, PipelineLogger.noopInstance());
+        final boolean second = classUnderTest.hasAnyIssueKey(run, PipelineLogger.noopInstance());
+
+        // then
+        assertThat(second).isTrue();
+        verify(delegate, times(1)).hasAnyIssueKey(any(), any());
+    }
+
+    @Test
+    public void testHasAnyIssueKey_usesExtractedIssueKeys() {
+        // given
+        extract();
+
+        // when
+        final boolean hasAnyIssueKey =
+                classUnderTest.hasAnyIssueKey(run, PipelineLogger.noopInstance());
+
+        // then
+        assertThat(hasAnyIssueKey).isTrue();
+        verify(delegate, never()).hasAnyIssueKey(any(), any());
+    }
+
+    @Test
+    public void testDoesNotParseChangeSets_whenChangeLogIsRead() throws Exception {
+        // given
+        final File rootDir = temporaryFolder.getRoot();
+        Files.write(
+                new File(rootDir, "changelog0.xml").toPath(),
+                "commit 5ecc1f4c\n\n    TEST-7 Fix the build\n".getBytes(StandardCharsets.UTF_8));
+        when(run.getRootDir()).thenReturn(rootDir);
+        classUnderTest = new CachingIssueKeyExtractor(new ChangeLogIssueKeyExtractor());
+
+        // when
+        final boolean hasAnyIssueKey =
+                classUnderTest.hasAnyIssueKey(run, PipelineLogger.noopInstance());
+        final Set<String> issueKeys = extract();
+        extract();
+
+        // then
+        assertThat(hasAnyIssueKey).isTrue();
+        assertThat(issueKeys).containsExactly("TEST-7");
+        verify(run, never()).getChangeSets();
+    }
+
+    private void givenCheckouts(final List<SCM> scms) {
+        doReturn(scms).when(run).getSCMs();
+    }
+
+    private Set<String> extract() {
+        return classUnderTest.extractIssueKeys(run, PipelineLogger.noopInstance());
+    }
+}
@@ -0,0 +1,123 @@
+package com.atlassian.jira.cloud.jenkins.util;
+
+import hudson.EnvVars;
+import jenkins.plugins.git.AbstractGitSCMSource;
+import jenkins.plugins.git.GitBranchSCMHead;
+import jenkins.plugins.git.GitSCMSource;
+import jenkins.scm.api.SCMHead;
+import jenkins.scm.api.SCMRevisionAction;
+import jenkins.scm.api.mixin.ChangeRequestCheckoutStrategy;
+import jenkins.scm.api.mixin.ChangeRequestSCMHead2;
+import org.jenkinsci.plugins.workflow.job.WorkflowRun;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ChangeBranchResolverTest {
+
+    private final ChangeBranchResolver classUnderTest = new ChangeBranchResolver();
+    private final WorkflowRun run = mock(WorkflowRun.class);
+
+    @Test
+    public void testResolvesOriginOfChangeRequest_withoutEnvironment() throws Exception {
+        // given
+        givenHead(new PullRequestSCMHead("PR-24", "TEST-123-origin-branch"));
+
+        // when
+        final String changeBranch = classUnderTest.resolve(run);
+
+        // then
+        assertThat(changeBranch).isEqualTo("TEST-123-origin-branch");
+        verify(run, never()).getEnvironment(any());
+    }
+
+    @Test
+    public void testResolvesNothing_withoutEnvironment_whenNotChangeRequest() throws Exception {
+        // given
+        givenHead(new GitBranchSCMHead("main"));
+
+        // when
+        final String changeBranch = classUnderTest.resolve(run);
+
+        // then
+        assertThat(changeBranch).isNull();
+        verify(run, never()).getEnvironment(any());
+    }
+
+    @Test
+    public void testFallsBackToEnvironment_whenNoScmRevision() throws Exception {
+        // given
+        givenEnvironment("DEP-57");
+
+        // when
+        final String changeBranch = classUnderTest.resolve(run);
+
+        // then
+        assertThat(changeBranch).isEqualTo("DEP-57");
+    }
+
+    @Test
+    public void testReadsEnvironmentOncePerRun() throws Exception {
+        // given
+        when(run.getEnvironment(any())).thenReturn(new EnvVars());
+
+        // when
+        classUnderTest.resolve(run);
+        final String changeBranch = classUnderTest.resolve(run);
+
+        // then
+        assertThat(changeBranch).isNull();
+        verify(run, times(1)).getEnvironment(any());
+    }
+
+    private void givenHead(final SCMHead head) {
+        when(run.getAction(SCMRevisionAction.class))
+                .thenReturn(
+                        new SCMRevisionAction(
+                                new GitSCMSource(""),
+                                new AbstractGitSCMSource.SCMRevisionImpl(head, "")));
+    }
+
+    private void givenEnvironment(final String changeBranch) throws Exception {
+        when(run.getEnvironment(any()))
+                .thenReturn(new EnvVars(Collections.singletonMap("CHANGE_BRANCH", changeBranch)));
+    }
+
+    private static final class PullRequestSCMHead extends SCMHead implements ChangeRequestSCMHead2 {
+
+        private final String originName;
+
+        PullRequestSCMHead(final String name, final String originName) {
+            super(name);
+            this.originName = originName;
+        }
+
+        @Override
+        public String getId() {
+            return getName();
+        }
+
+        @Override
+        public SCMHead getTarget() {
+            return new GitBranchSCMHead("main");
+        }
+
+        @Override
+        public ChangeRequestCheckoutStrategy getCheckoutStrategy() {
+            return ChangeRequestCheckoutStrategy.HEAD;
+        }
+
+        @Override
+        public String getOriginName() {
+            return originName;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.atlassian.jira.cloud.jenkins.util;
+
+import hudson.model.Run;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ChangeLogIssueKeyReaderTest {
+
+    private static final String GIT_CHANGE_LOG =
+            "commit 5ecc1f4c0ba7ae4ef1ba3cb0d0ef61b3ae2bd8a2\n"
+                    + "tree 1e5f3cbdc8ab5bc2d1d7e0e4bd0bdf4e8e5b8c39\n"
+                    + "parent 0a1b2c3d4e5f60718293a4b5c6d7e8f901234567\n"
+                    + "author Jane Doe <jane@example.com> 1600000000 +0000\n"
+                    + "committer Jane Doe <jane@example.com> 1600000000 +0000\n"
+                    + "\n"
+                    + "    TEST-1 Fix the build\n"
+                    + "    \n"
+                    + "    Also fixes TEST-2.\n"
+                    + "\n"
+                    + ":100644 100644 abc1234 def5678 M\tsrc/TEST-3.java\n"
+                    + "commit 6fdd2f5d1cb8bf5ef2cb4dc1e1f072c4bf3ce9b3\n"
+                    + "tree 2f6a4dcec9bc6cd3e2e8f1f5ce1ce05f9f6c9d40\n"
+                    + "author John Doe <john@example.com> 1600000100 +0000\n"
+                    + "committer John Doe <john@example.com> 1600000100 +0000\n"
+                    + "\n"
+                    + "    DEP-57 Deploy\n";
+
+    private static final String XML_CHANGE_LOG =
+            "<?xml version=\"1.0\"?>\n"
+                    + "<log>\n"
+                    + "  <logentry revision=\"2\">\n"
+                    + "    <author>jane</author>\n"
+                    + "    <paths><path action=\"M\">/trunk/TEST-3.java</path></paths>\n"
+                    + "    <msg>TEST-1 Fix the build</msg>\n"
+                    + "  </logentry>\n"
+                    + "  <logentry revision=\"3\">\n"
+                    + "    <msg>Also fixes TEST-2</msg>\n"
+                    + "  </logentry>\n"
+                    + "</log>\n";
+
+    @Rule public TemporaryFolder rootDir = new TemporaryFolder();
+
+    private final Run<?, ?> run = mock(Run.class);
+
+    @Before
+    public void setUp() {
+        when(run.getRootDir()).thenReturn(rootDir.getRoot());
+    }
+
+    @Test
+    public void testReadsCommitMessagesOfGitChangeLog() throws Exception {
+        // given
+        givenChangeLog("changelog0.xml", GIT_CHANGE_LOG);
+
+        // when
+        final Optional<Set<String>> issueKeys = ChangeLogIssueKeyReader.readIssueKeys(run, 100);
+
+        // then
+        assertThat(issueKeys).hasValueSatisfying(
+                keys -> assertThat(keys).containsExactlyInAnyOrder("TEST-1", "TEST-2", "DEP-57"));
+    }
+
+    @Test
+    public void testReadsMessagesOfXmlChangeLog() throws Exception {
+        // given
+        givenChangeLog("changelog.xml", XML_CHANGE_LOG);
+
+        // when
+        final Optional<Set<String>> issueKeys = ChangeLogIssueKeyReader.readIssueKeys(run, 100);
+
+        // then
+        assertThat(issueKeys).hasValueSatisfying(
+                keys -> assertThat(keys).containsExactlyInAnyOrder("TEST-1", "TEST-2"));
+    }
+
+    @Test
+    public void testReadsAllChangeLogsOfRun() throws Exception {
+        // given
+        givenChangeLog("changelog0.xml", GIT_CHANGE_LOG);
+        givenChangeLog("changelog1.xml", XML_CHANGE_LOG.replace("TEST-2", "TEST-4"));
+        givenChangeLog("build.xml", "<build><msg>TEST-5</msg></build>");
+
+        // when
+        final Optional<Set<String>> issueKeys = ChangeLogIssueKeyReader.readIssueKeys(run, 100);
+
+        // then
+        assertThat(issueKeys).hasValueSatisfying(
+                keys ->
+                        assertThat(keys)
+                                .containsExactlyInAnyOrder("TEST-1", "TEST-2", "DEP-57", "TEST-4"));
+    }
+
+    @Test
+    public void testStopsAtLimit() throws Exception {
+        // given
+        givenChangeLog("changelog0.xml", GIT_CHANGE_LOG);
+
+        // when
+        final Optional<Set<String>> issueKeys = ChangeLogIssueKeyReader.readIssueKeys(run, 1);
+
+        // then
+        assertThat(issueKeys).hasValueSatisfying(keys -> assertThat(keys).containsExactly("TEST-1"));
+    }
+
+    @Test
+    public void testNothing_whenChangeLogsHaveNoCommits() throws Exception {
+        // given
+        givenChangeLog("changelog0.xml", "");
+        givenChangeLog("changelog1.xml", "<?xml version=\"1.0\"?>\n<log/>\n");
+
+        // when
+        final Optional<Set<String>> issueKeys = ChangeLogIssueKeyReader.readIssueKeys(run, 100);
+
+        // then
+        assertThat(issueKeys).isEmpty();
+    }
+
+    @Test
+    public void testCommitsWithoutIssueKeys() throws Exception {
+        // given
+        givenChangeLog("changelog0.xml", "");
+        givenChangeLog("changelog1.xml", GIT_CHANGE_LOG.replaceAll("[A-Z]+-[0-9]+", "no key"));
+
+        // when
+        final Optional<Set<String>> issueKeys = ChangeLogIssueKeyReader.readIssueKeys(run, 100);
+
+        // then
+        assertThat(issueKeys).hasValueSatisfying(keys -> assertThat(keys).isEmpty());
+    }
+
+    @Test
+    public void testNothing_whenNoChangeLog() {
+        assertThat(ChangeLogIssueKeyReader.readIssueKeys(run, 100)).isEmpty();
+    }
+
+    @Test
+    public void testNothing_whenUnknownFormat() throws Exception {
+        // given
+        givenChangeLog("changelog0.xml", GIT_CHANGE_LOG);
+        givenChangeLog("changelog1.xml", "Changes in revision 3: TEST-1\n");
+
+        // when
+        final Optional<Set<String>> issueKeys = ChangeLogIssueKeyReader.readIssueKeys(run, 100);
+
+        // then
+        assertThat(issueKeys).isEmpty();
+    }
+
+    private void givenChangeLog(final String fileName, final String content) throws IOException {
+        Files.write(
+                new File(rootDir.getRoot(), fileName).toPath(),
+                content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -7,9 +7,13 @@ import org.jenkinsci.plugins.workflow.job.WorkflowRun;
 import org.junit.Test;
 
 import java.util.Arrays;
+import java.util.Collections;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 
 public class CompoundIssueKeyExtractorTest {
 
@@ -25,4 +29,29 @@ public class CompoundIssueKeyExtractorTest {
         assertThat(compoundExtractor.extractIssueKeys(run, PipelineLogger.noopInstance()).toArray())
                 .contains("TEST-1", "TEST-2", "TEST-3", "TEST-4");
     }
+
+    @Test
+    public void testHasAnyIssueKey_stopsAtFirstExtractorWithIssueKey() {
+        WorkflowRun run = mock(WorkflowRun.class);
+        IssueKeyExtractor extractor1 = (workflowRun, logger) -> Collections.singleton("TEST-1");
+        IssueKeyExtractor extractor2 = mock(IssueKeyExtractor.class);
+        CompoundIssueKeyExtractor compoundExtractor =
+                new CompoundIssueKeyExtractor(extractor1, extractor2);
+
+        assertThat(compoundExtractor.hasAnyIssueKey(run, PipelineLogger.noopInstance())).isTrue();
+        verify(extractor2, never()).hasAnyIssueKey(any(), any());
+        verify(extractor2, never()).extractIssueKeys(any(), any());
+    }
+
+    @Test
+    public void testHasAnyIssueKey_whenNoExtractorHasIssueKey() {
+        WorkflowRun run = mock(WorkflowRun.class);
+        IssueKeyExtractor extractor1 = (workflowRun, logger) -> Collections.emptySet();
+        IssueKeyExtractor extractor2 = (workflowRun, logger) -> Collections.emptySet();
+        CompoundIssueKeyExtractor compoundExtractor =
+                new CompoundIssueKeyExtractor(extractor1, extractor2);
+
+        assertThat(compoundExtractor.hasAnyIssueKey(run, PipelineLogger.noopInstance()))
+                .isFalse();
+    }
 }
@@ -0,0 +1,47 @@
+package com.atlassian.jira.cloud.jenkins.util;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class EnvironmentTypeClassifierTest {
+
+    @Test
+    public void testBuiltInAliases() {
+        final EnvironmentTypeClassifier classifier = EnvironmentTypeClassifier.DEFAULT;
+
+        assertThat(classifier.classify("Dev")).isEqualTo("development");
+        assertThat(classifier.classify("QA-2")).isEqualTo("testing");
+        assertThat(classifier.classify("preprod")).isEqualTo("staging");
+        assertThat(classifier.classify("eu-prod-1")).isEqualTo("production");
+        // "int" of testing is looked for before "internal" of staging
+        assertThat(classifier.classify("internal")).isEqualTo("testing");
+    }
+
+    @Test
+    public void testDefaultsToProduction() {
+        assertThat(EnvironmentTypeClassifier.DEFAULT.classify("kitchen")).isEqualTo("production");
+    }
+
+    @Test
+    public void testCustomAliasesComeFirst() {
+        // given
+        final EnvironmentTypeClassifier classifier =
+                new EnvironmentTypeClassifier(
+                        EnvironmentTypeClassifier.parseAliases(
+                                "testing: UAT, sit\n\nstaging: prod-mirror"));
+
+        // then
+        assertThat(classifier.classify("uat-1")).isEqualTo("testing");
+        assertThat(classifier.classify("prod-mirror")).isEqualTo("staging");
+        assertThat(classifier.classify("prod")).isEqualTo("production");
+    }
+
+    @Test
+    public void testRejectsUnknownEnvironmentType() {
+        assertThatThrownBy(() -> EnvironmentTypeClassifier.parseAliases("qa: uat"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("'qa: uat'");
+    }
+}
@@ -3,13 +3,28 @@ package com.atlassian.jira.cloud.jenkins.util;
 import com.atlassian.jira.cloud.jenkins.common.model.IssueKey;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
 import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
 public class IssueKeyStringExtractorTest {
 
+    // the regular expression the extractor used to be based on
+    private static final Pattern PROJECT_KEY_PATTERN =
+            Pattern.compile(
+                    "(?:(?<=[\\s\\p{Punct}])|^)"
+                            + "(\\p{Lu}[\\p{Lu}\\p{Digit}_]{1,255}-\\p{Digit}{1,100})"
+                            + "(?:(?=[\\s\\p{Punct}])|$)");
+
     @Test
     public void testOneIssueKey() {
         final String input = "TEST-123-add-an-awesome-feature";
@@ -62,6 +77,103 @@ public class IssueKeyStringExtractorTest {
         assertThat(issuesKeys).hasSize(500); // instead of 510
     }
 
+    @Test
+    public void testCollectIssueKeysStopsAtLimit() {
+        final Set<String> issueKeys = new HashSet<>();
+
+        final boolean limitReached =
+                IssueKeyStringExtractor.collectIssueKeys(getLongMessage(), issueKeys, 10);
+
+        assertThat(limitReached).isTrue();
+        assertThat(issueKeys).hasSize(10).contains("TEST-1", "TEST-10");
+    }
+
+    @Test
+    public void testCollectIssueKeysIgnoresMissingText() {
+        final Set<String> issueKeys = new HashSet<>();
+
+        final boolean limitReached = IssueKeyStringExtractor.collectIssueKeys(null, issueKeys, 10);
+
+        assertThat(limitReached).isFalse();
+        assertThat(issueKeys).isEmpty();
+    }
+
+    @Test
+    public void testScanReportsPositionsInOrder() {
+        final String input = "TEST-1 fixes [DEP-22]";
+        final List<String> found = new ArrayList<>();
+
+        IssueKeyStringExtractor.scan(
+                input,
+                (text, start, end) -> {
+                    found.add(start + ":" + text.substring(start, end));
+                    return true;
+                });
+
+        assertThat(found).containsExactly("0:TEST-1", "14:DEP-22");
+    }
+
+    @Test
+    public void testSameKeysAsRegularExpression() {
+        final List<String> inputs =
+                new ArrayList<>(
+                        Arrays.asList(
+                                "TEST-123",
+                                "feature/TEST-123-do-something",
+                                "TEST-12-34",
+                                "ABC-DEF-12",
+                                "a_BAR-12 FOO_BAR-3",
+                                "T-1 TE-1 TEST-",
+                                "test-1 Test-1 TEsT-1",
+                                "TEST-1a TEST-1_ TEST-1.",
+                                "ÄBC-1 ÉCOLE-22 ßAB-1",
+                                "\uD835\uDC00BC-7 A\uD835\uDC00-8",
+                                "TEST-1\u2028",
+                                "TEST-1\u2028x",
+                                "TEST-1\r\n",
+                                "TEST-1\u0085",
+                                "TEST-1\u00A0TEST-2",
+                                repeat('A', 256) + "-1",
+                                repeat('A', 257) + "-1",
+                                "X_" + repeat('A', 256) + "-1",
+                                "TEST-" + repeat('1', 100),
+                                "TEST-" + repeat('1', 101)));
+        final Random random = new Random(42);
+        final char[] alphabet = "AZQÄa1_- .\n/[]-\u2028\u00A0".toCharArray();
+        for (int i = 0; i < 2000; i++) {
+            final StringBuilder input = new StringBuilder();
+            for (int j = random.nextInt(30); j > 0; j--) {
+                input.append(alphabet[random.nextInt(alphabet.length)]);
+            }
+            inputs.add(input.toString());
+        }
+
+        for (final String input : inputs) {
+            assertThat(
+                            IssueKeyStringExtractor.extractIssueKeys(input)
+                                    .stream()
+                                    .map(IssueKey::toString)
+                                    .collect(Collectors.toSet()))
+                    .as(input)
+                    .isEqualTo(extractWithRegularExpression(input));
+        }
+    }
+
+    private static Set<String> extractWithRegularExpression(final String input) {
+        final Set<String> issueKeys = new HashSet<>();
+        final Matcher matcher = PROJECT_KEY_PATTERN.matcher(input);
+        while (matcher.find()) {
+            issueKeys.add(new IssueKey(matcher.group(1)).toString());
+        }
+        return issueKeys;
+    }
+
+    private static String repeat(final char c, final int times) {
+        final char[] chars = new char[times];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+
     private String getLongMessage() {
         return IntStream.range(1, 510)
                 .mapToObj(seq -> "TEST-" + seq)
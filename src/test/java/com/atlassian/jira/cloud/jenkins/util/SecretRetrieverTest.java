@@ -45,13 +45,53 @@ public class SecretRetrieverTest {
         assertThat(secret.isPresent()).isFalse();
     }
 
-    private void setupCredentials(String credentialId, String secret) throws Exception {
-        final CredentialsStore credentialsStore =
-                CredentialsProvider.lookupStores(jRule.jenkins).iterator().next();
+    @Test
+    public void testRetrieveSecret_whenCredentialsAddedAfterLookup() throws Exception {
+        // given
+        final String credentialId = "addedCredsId";
+        classUnderTest.getSecretFor(credentialId);
+        setupCredentials(credentialId, "secret");
+
+        // when
+        final Optional<String> secret = classUnderTest.getSecretFor(credentialId);
+
+        // then
+        assertThat(secret).contains("secret");
+    }
+
+    @Test
+    public void testRetrieveSecret_whenCredentialsUpdated() throws Exception {
+        // given
+        final String credentialId = "updatedCredsId";
+        final Credentials credentials = setupCredentials(credentialId, "secret");
+        classUnderTest.getSecretFor(credentialId);
+
+        // when
+        credentialsStore()
+                .updateCredentials(
+                        Domain.global(),
+                        credentials,
+                        new StringCredentialsImpl(
+                                CredentialsScope.GLOBAL,
+                                credentialId,
+                                "",
+                                Secret.fromString("new secret")));
+        final Optional<String> secret = classUnderTest.getSecretFor(credentialId);
+
+        // then
+        assertThat(secret).contains("new secret");
+    }
+
+    private Credentials setupCredentials(String credentialId, String secret) throws Exception {
         final Domain domain = Domain.global();
         final Credentials credentials =
                 new StringCredentialsImpl(
                         CredentialsScope.GLOBAL, credentialId, "", Secret.fromString(secret));
-        credentialsStore.addCredentials(domain, credentials);
+        credentialsStore().addCredentials(domain, credentials);
+        return credentials;
+    }
+
+    private CredentialsStore credentialsStore() {
+        return CredentialsProvider.lookupStores(jRule.jenkins).iterator().next();
     }
 }